@@ -0,0 +1,59 @@
+package com.dominicmortlock.littelifesim.benchmarks;
+
+import com.dominicmortlock.littelifesim.Map;
+import com.dominicmortlock.littelifesim.WorldBuilder;
+import com.badlogic.gdx.graphics.Color;
+import java.util.Random;
+
+/**
+ * Builds reproducible worlds for the benchmarks.
+ * The map grows with the entity count so density, and therefore interaction rates, stay comparable.
+ */
+final class BenchmarkWorlds {
+    static final long SEED = 42L;
+    static final float STEP = 1f / 60f;
+
+    // Roughly a 140x140 pixel patch of floor per entity
+    private static final float AREA_PER_ENTITY = 20000f;
+    private static final float MIN_WIDTH = 800f;
+    private static final float MIN_HEIGHT = 600f;
+
+    // Entity mix: half little guys, the rest split between balls and beds
+    private static final float LITTLE_GUY_SHARE = 0.5f;
+    private static final float BALL_SHARE = 0.3f;
+
+    private BenchmarkWorlds() {
+        throw new UnsupportedOperationException("Utility class should not be instantiated");
+    }
+
+    static Map create(int entityCount, int particleCount) {
+        float side = (float) Math.sqrt(entityCount * AREA_PER_ENTITY);
+        Map map = new Map(Math.max(MIN_WIDTH, side), Math.max(MIN_HEIGHT, side), SEED);
+
+        int littleGuys = Math.round(entityCount * LITTLE_GUY_SHARE);
+        int balls = Math.round(entityCount * BALL_SHARE);
+        int beds = Math.max(0, entityCount - littleGuys - balls);
+        WorldBuilder.populateRandom(map, littleGuys, balls, beds, SEED);
+
+        addParticles(map, particleCount);
+        return map;
+    }
+
+    /**
+     * Seed the particle system with long-lived particles so the count stays put for the whole run
+     */
+    static void addParticles(Map map, int particleCount) {
+        Random random = new Random(SEED);
+        Color color = new Color(0f, 0f, 0f, 0.8f);
+        for (int i = 0; i < particleCount; i++) {
+            map.getParticleSystem().addParticle(
+                random.nextFloat() * map.getWidth(),
+                random.nextFloat() * map.getHeight(),
+                (random.nextFloat() - 0.5f) * 40f,
+                random.nextFloat() * 60f,
+                Float.MAX_VALUE,
+                2f,
+                color);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.dominicmortlock.littelifesim.benchmarks;
+
+import com.dominicmortlock.littelifesim.Ball;
+import com.dominicmortlock.littelifesim.CollisionSystem;
+import com.dominicmortlock.littelifesim.Map;
+import com.dominicmortlock.littelifesim.PhysicsComponent;
+import com.dominicmortlock.littelifesim.WorldBuilder;
+import java.util.List;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Sweep-and-prune broadphase plus response for a ball pit, relaunching balls as they settle so contacts keep coming.
+ */
+public class CollisionBenchmark {
+    // Roughly a 45x45 pixel patch of floor per ball, so neighbours are always within reach
+    private static final float AREA_PER_BALL = 2000f;
+
+    @State(Scope.Thread)
+    public static class BallPit {
+        @Param({"1000", "5000", "20000"})
+        public int ballCount;
+
+        Map map;
+        CollisionSystem collisions;
+        PhysicsComponent[] bodies;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            float side = (float) Math.sqrt(ballCount * AREA_PER_BALL);
+            map = new Map(side, side, BenchmarkWorlds.SEED);
+            WorldBuilder.populateRandom(map, 0, ballCount, 0, BenchmarkWorlds.SEED);
+            collisions = map.getCollisionSystem();
+
+            List<Ball> balls = map.getEntitiesOfType(Ball.class);
+            bodies = new PhysicsComponent[balls.size()];
+            for (int i = 0; i < bodies.length; i++) {
+                bodies[i] = balls.get(i).getPhysicsComponent();
+            }
+        }
+    }
+
+    @Benchmark
+    public int update(BallPit pit) {
+        PhysicsComponent[] all = pit.bodies;
+        for (int i = 0; i < all.length; i++) {
+            PhysicsComponent body = all[i];
+            if (!body.isActive()) {
+                body.launch((i & 1) == 0 ? 180f : -180f, 160f);
+            }
+            body.update(BenchmarkWorlds.STEP);
+        }
+        pit.collisions.update(BenchmarkWorlds.STEP);
+        return pit.collisions.getPairCount();
+    }
+}
@@ -0,0 +1,42 @@
+package com.dominicmortlock.littelifesim.benchmarks;
+
+import com.dominicmortlock.littelifesim.Ball;
+import com.dominicmortlock.littelifesim.HoldingSystem;
+import com.dominicmortlock.littelifesim.LittleGuy;
+import java.util.List;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Held-position sync for every little guy that is carrying a ball.
+ */
+public class HoldingBenchmark {
+
+    @State(Scope.Thread)
+    public static class Holders {
+        LittleGuy[] holders;
+
+        @Setup(Level.Trial)
+        public void setUp(WorldState world) {
+            List<LittleGuy> littleGuys = world.map.getEntitiesOfType(LittleGuy.class);
+            List<Ball> balls = world.map.getEntitiesOfType(Ball.class);
+            int pairs = Math.min(littleGuys.size(), balls.size());
+            holders = new LittleGuy[pairs];
+            for (int i = 0; i < pairs; i++) {
+                holders[i] = littleGuys.get(i);
+                HoldingSystem.startHolding(holders[i], balls.get(i));
+            }
+        }
+    }
+
+    @Benchmark
+    public void updateHeldPosition(Holders holders) {
+        LittleGuy[] all = holders.holders;
+        for (int i = 0; i < all.length; i++) {
+            HoldingSystem.updateHeldPosition(all[i]);
+        }
+    }
+}
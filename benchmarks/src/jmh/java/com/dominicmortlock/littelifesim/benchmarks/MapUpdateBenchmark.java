@@ -0,0 +1,14 @@
+package com.dominicmortlock.littelifesim.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+
+/**
+ * One full simulation tick: every entity update plus the particle system.
+ */
+public class MapUpdateBenchmark {
+
+    @Benchmark
+    public void updateAll(WorldState world) {
+        world.map.updateAll(BenchmarkWorlds.STEP);
+    }
+}
@@ -0,0 +1,14 @@
+package com.dominicmortlock.littelifesim.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+
+/**
+ * Particle system update: trail emitters of every little guy plus all live particles.
+ */
+public class ParticleSystemBenchmark {
+
+    @Benchmark
+    public void update(WorldState world) {
+        world.map.getParticleSystem().update(BenchmarkWorlds.STEP);
+    }
+}
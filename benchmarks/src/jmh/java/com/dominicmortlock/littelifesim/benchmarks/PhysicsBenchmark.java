@@ -0,0 +1,42 @@
+package com.dominicmortlock.littelifesim.benchmarks;
+
+import com.dominicmortlock.littelifesim.Ball;
+import com.dominicmortlock.littelifesim.PhysicsComponent;
+import java.util.List;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Physics integration for every ball, relaunching balls as they settle so bodies stay in flight.
+ */
+public class PhysicsBenchmark {
+
+    @State(Scope.Thread)
+    public static class Bodies {
+        PhysicsComponent[] bodies;
+
+        @Setup(Level.Trial)
+        public void setUp(WorldState world) {
+            List<Ball> balls = world.map.getEntitiesOfType(Ball.class);
+            bodies = new PhysicsComponent[balls.size()];
+            for (int i = 0; i < bodies.length; i++) {
+                bodies[i] = balls.get(i).getPhysicsComponent();
+            }
+        }
+    }
+
+    @Benchmark
+    public void update(Bodies bodies) {
+        PhysicsComponent[] all = bodies.bodies;
+        for (int i = 0; i < all.length; i++) {
+            PhysicsComponent body = all[i];
+            if (!body.isActive()) {
+                body.launch((i & 1) == 0 ? 180f : -180f, 160f);
+            }
+            body.update(BenchmarkWorlds.STEP);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.dominicmortlock.littelifesim.benchmarks;
+
+import com.dominicmortlock.littelifesim.Ball;
+import com.dominicmortlock.littelifesim.Bed;
+import com.dominicmortlock.littelifesim.Entity;
+import com.dominicmortlock.littelifesim.EntityManager;
+import com.dominicmortlock.littelifesim.GameConstants;
+import com.dominicmortlock.littelifesim.LittleGuy;
+import java.util.List;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * A single proximity query per operation, cycling through searchers so results are not cached.
+ * Margins match the ones the entities use at their call sites.
+ */
+public class ProximityQueryBenchmark {
+
+    @State(Scope.Thread)
+    public static class Searchers {
+        List<Entity> entities;
+        Entity[] littleGuys;
+        Entity[] balls;
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp(WorldState world) {
+            entities = world.map.getEntities();
+            littleGuys = world.map.getEntitiesOfType(LittleGuy.class).toArray(new Entity[0]);
+            balls = world.map.getEntitiesOfType(Ball.class).toArray(new Entity[0]);
+            // Worlds this small may not contain every type; fall back to any entity as the searcher
+            if (littleGuys.length == 0) littleGuys = entities.toArray(new Entity[0]);
+            if (balls.length == 0) balls = entities.toArray(new Entity[0]);
+        }
+
+        Entity nextLittleGuy() {
+            next = (next + 1) % littleGuys.length;
+            return littleGuys[next];
+        }
+
+        Entity nextBall() {
+            next = (next + 1) % balls.length;
+            return balls[next];
+        }
+    }
+
+    @Benchmark
+    public Ball findNearbyPickupableBall(Searchers searchers) {
+        return EntityManager.findNearbyPickupableBall(
+            searchers.entities, searchers.nextLittleGuy(), GameConstants.COLLISION_MARGIN);
+    }
+
+    @Benchmark
+    public Bed findNearbyAvailableBed(Searchers searchers) {
+        return EntityManager.findNearbyAvailableBed(
+            searchers.entities, searchers.nextLittleGuy(), GameConstants.BED_INTERACTION_MARGIN);
+    }
+
+    @Benchmark
+    public Bed findNearbyHoldableBed(Searchers searchers) {
+        return EntityManager.findNearbyHoldableBed(
+            searchers.entities, searchers.nextLittleGuy(), GameConstants.SNAP_DISTANCE);
+    }
+
+    @Benchmark
+    public LittleGuy findNearbyAvailableLittleGuy(Searchers searchers) {
+        return EntityManager.findNearbyAvailableLittleGuy(
+            searchers.entities, searchers.nextBall(), GameConstants.BALL_SNAP_DISTANCE);
+    }
+}
@@ -0,0 +1,51 @@
+package com.dominicmortlock.littelifesim.benchmarks;
+
+import com.dominicmortlock.littelifesim.SimRandom;
+import java.util.Random;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Per-draw cost of the simulation's random streams against the generators they replaced.
+ * The threaded variants share nothing but Math.random's global generator, as the parallel update did.
+ */
+public class RandomBenchmark {
+    private static final int SPAWN_BATCH = 12;
+
+    @State(Scope.Thread)
+    public static class Streams {
+        final SimRandom simRandom = new SimRandom(BenchmarkWorlds.SEED);
+        final Random random = new Random(BenchmarkWorlds.SEED);
+        final float[] batch = new float[SPAWN_BATCH];
+    }
+
+    @Benchmark
+    public float simRandomFloat(Streams streams) {
+        return streams.simRandom.nextFloat();
+    }
+
+    @Benchmark
+    public float javaRandomFloat(Streams streams) {
+        return streams.random.nextFloat();
+    }
+
+    @Benchmark
+    public float[] simRandomBatch(Streams streams) {
+        streams.simRandom.nextFloats(streams.batch, 0, SPAWN_BATCH);
+        return streams.batch;
+    }
+
+    @Benchmark
+    @Threads(4)
+    public float simRandomFloatThreaded(Streams streams) {
+        return streams.simRandom.nextFloat();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public double mathRandomThreaded() {
+        return Math.random();
+    }
+}
@@ -0,0 +1,52 @@
+package com.dominicmortlock.littelifesim.benchmarks;
+
+import com.dominicmortlock.littelifesim.Entity;
+import com.dominicmortlock.littelifesim.GameConstants;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Cost of keeping entities in z-order: the full per-frame sort Map.renderAll used to do,
+ * against the incremental re-bucketing RenderLayers does when an entity's z changes.
+ * Drawing itself needs a GL context, so only the ordering work is measured here.
+ */
+public class RenderSortBenchmark {
+
+    @State(Scope.Thread)
+    public static class SortCopy {
+        List<Entity> entities;
+        Entity[] restacked;
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp(WorldState world) {
+            // Sort a copy so the map's own entity order is left alone
+            entities = new ArrayList<>(world.map.getEntities());
+            restacked = entities.toArray(new Entity[0]);
+        }
+
+        Entity nextEntity() {
+            next = (next + 1) % restacked.length;
+            return restacked[next];
+        }
+    }
+
+    @Benchmark
+    public void sortByZ(SortCopy copy) {
+        copy.entities.sort(Comparator.comparing(Entity::getZ));
+    }
+
+    @Benchmark
+    public void restackOne(SortCopy copy) {
+        Entity entity = copy.nextEntity();
+        float z = entity.getZ();
+        entity.setZ(GameConstants.Z_FRONT_LAYER + 1f);
+        entity.setZ(z);
+    }
+}
@@ -0,0 +1,54 @@
+package com.dominicmortlock.littelifesim.benchmarks;
+
+import com.dominicmortlock.littelifesim.Ball;
+import com.dominicmortlock.littelifesim.Entity;
+import com.dominicmortlock.littelifesim.EntityManager;
+import com.dominicmortlock.littelifesim.GameConstants;
+import com.dominicmortlock.littelifesim.LittleGuy;
+import com.dominicmortlock.littelifesim.Map;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Linear scan against the spatial hash grid for the same proximity query.
+ * One query per operation, cycling through every little guy as the searcher.
+ */
+public class SpatialQueryBenchmark {
+    
+    @State(Scope.Thread)
+    public static class GridWorld {
+        @Param({"1000", "10000", "50000"})
+        public int entityCount;
+        
+        Map map;
+        Entity[] searchers;
+        int next;
+        
+        @Setup(Level.Trial)
+        public void setUp() {
+            map = BenchmarkWorlds.create(entityCount, 0);
+            searchers = map.getEntitiesOfType(LittleGuy.class).toArray(new Entity[0]);
+        }
+        
+        Entity nextSearcher() {
+            next = (next + 1) % searchers.length;
+            return searchers[next];
+        }
+    }
+    
+    @Benchmark
+    public Ball linearScan(GridWorld world) {
+        return EntityManager.findNearbyPickupableBall(
+            world.map.getEntities(), world.nextSearcher(), GameConstants.BALL_SNAP_DISTANCE);
+    }
+    
+    @Benchmark
+    public Ball spatialHash(GridWorld world) {
+        return EntityManager.findNearbyPickupableBall(
+            world.map, world.nextSearcher(), GameConstants.BALL_SNAP_DISTANCE);
+    }
+}
@@ -0,0 +1,53 @@
+package com.dominicmortlock.littelifesim.benchmarks;
+
+import com.dominicmortlock.littelifesim.TimerWheel;
+import java.util.Random;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Timer wheel holding one deadline per agent, each rescheduled when it fires,
+ * as idle little guys do between state transitions.
+ */
+@State(Scope.Thread)
+public class TimerWheelBenchmark {
+
+    @Param({"1000", "100000"})
+    public int timerCount;
+
+    private TimerWheel wheel;
+    private TimerWheel.Timer[] timers;
+    private Random random;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        wheel = new TimerWheel();
+        random = new Random(BenchmarkWorlds.SEED);
+        timers = new TimerWheel.Timer[timerCount];
+        for (int i = 0; i < timerCount; i++) {
+            // 3-20 seconds at 60 Hz, like the idle and ponder durations
+            timers[i] = new TimerWheel.Timer(timer -> wheel.schedule(timer, randomDelay()));
+            wheel.schedule(timers[i], randomDelay());
+        }
+    }
+
+    private long randomDelay() {
+        return 180 + random.nextInt(1020);
+    }
+
+    @Benchmark
+    public void advanceTick() {
+        wheel.advance();
+    }
+
+    @Benchmark
+    public void rescheduleOne() {
+        next = (next + 1) % timers.length;
+        wheel.schedule(timers[next], randomDelay());
+    }
+}
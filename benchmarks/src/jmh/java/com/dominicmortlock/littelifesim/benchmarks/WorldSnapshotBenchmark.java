@@ -0,0 +1,61 @@
+package com.dominicmortlock.littelifesim.benchmarks;
+
+import com.dominicmortlock.littelifesim.Map;
+import com.dominicmortlock.littelifesim.WorldSnapshot;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Saving a large world to a snapshot file and loading it back through the memory-mapped reader.
+ * Reported as milliseconds per save or load rather than throughput.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class WorldSnapshotBenchmark {
+
+    @State(Scope.Thread)
+    public static class SavedWorld {
+        @Param({"10000", "100000", "1000000"})
+        public int entityCount;
+
+        @Param({"0", "50000"})
+        public int particleCount;
+
+        Map map;
+        Path file;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            map = BenchmarkWorlds.create(entityCount, particleCount);
+            file = Files.createTempFile("littlelifesim", ".sav");
+            WorldSnapshot.save(map, file);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Benchmark
+    public void save(SavedWorld world) throws IOException {
+        WorldSnapshot.save(world.map, world.file);
+    }
+
+    @Benchmark
+    public Map load(SavedWorld world) throws IOException {
+        return WorldSnapshot.load(world.file);
+    }
+}
@@ -0,0 +1,27 @@
+package com.dominicmortlock.littelifesim.benchmarks;
+
+import com.dominicmortlock.littelifesim.Map;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Shared benchmark state: a populated world parameterised by entity and particle count.
+ */
+@State(Scope.Thread)
+public class WorldState {
+    @Param({"10", "100", "1000", "10000", "100000"})
+    public int entityCount;
+
+    @Param({"0", "1000", "50000"})
+    public int particleCount;
+
+    public Map map;
+
+    @Setup(Level.Trial)
+    public void setUpWorld() {
+        map = BenchmarkWorlds.create(entityCount, particleCount);
+    }
+}
@@ -0,0 +1,144 @@
+package com.dominicmortlock.littelifesim;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * All entities with exactly the same component set, stored densely across fixed-size chunks.
+ * Rows are kept packed: removing a row moves the last row into its place.
+ */
+public class Archetype {
+    private final long mask;
+    private final int[] columnOffsets; // Indexed by component ordinal, -1 when absent
+    private final int columnCount;
+    private final int chunkCapacity;
+    private final List<ArchetypeChunk> chunks;
+    private int size;
+    
+    Archetype(long mask, int chunkCapacity) {
+        this.mask = mask;
+        this.chunkCapacity = chunkCapacity;
+        this.columnOffsets = new int[ComponentType.values().length];
+        
+        int offset = 0;
+        for (ComponentType type : ComponentType.values()) {
+            if ((mask & type.bit()) != 0) {
+                columnOffsets[type.ordinal()] = offset;
+                offset += type.getColumns();
+            } else {
+                columnOffsets[type.ordinal()] = -1;
+            }
+        }
+        this.columnCount = offset;
+        this.chunks = new ArrayList<>();
+        this.size = 0;
+    }
+    
+    public long getMask() {
+        return mask;
+    }
+    
+    public boolean has(ComponentType type) {
+        return (mask & type.bit()) != 0;
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    int getColumnCount() {
+        return columnCount;
+    }
+    
+    public int getChunkCount() {
+        return (size + chunkCapacity - 1) / chunkCapacity;
+    }
+    
+    public ArchetypeChunk getChunk(int index) {
+        return chunks.get(index);
+    }
+    
+    int columnOffset(ComponentType type) {
+        int offset = columnOffsets[type.ordinal()];
+        if (offset < 0) {
+            throw new IllegalArgumentException("Archetype has no " + type + " component");
+        }
+        return offset;
+    }
+    
+    /**
+     * Append a zeroed row for the given entity id and return its row index
+     */
+    int add(int id) {
+        int index = size;
+        int chunkIndex = index / chunkCapacity;
+        if (chunkIndex == chunks.size()) {
+            chunks.add(new ArchetypeChunk(this, columnCount, chunkCapacity));
+        }
+        ArchetypeChunk chunk = chunks.get(chunkIndex);
+        int row = index % chunkCapacity;
+        chunk.ids()[row] = id;
+        float[][] columns = chunk.columns();
+        for (int c = 0; c < columnCount; c++) {
+            columns[c][row] = 0f;
+        }
+        chunk.setSize(row + 1);
+        size++;
+        return index;
+    }
+    
+    /**
+     * Remove a row by moving the last row into it
+     * @return The id of the entity that moved into the removed row, or -1 if the last row was removed
+     */
+    int remove(int index) {
+        int last = size - 1;
+        ArchetypeChunk lastChunk = chunks.get(last / chunkCapacity);
+        int lastRow = last % chunkCapacity;
+        int movedId = -1;
+        
+        if (index != last) {
+            ArchetypeChunk chunk = chunks.get(index / chunkCapacity);
+            int row = index % chunkCapacity;
+            float[][] from = lastChunk.columns();
+            float[][] to = chunk.columns();
+            for (int c = 0; c < columnCount; c++) {
+                to[c][row] = from[c][lastRow];
+            }
+            movedId = lastChunk.ids()[lastRow];
+            chunk.ids()[row] = movedId;
+        }
+        
+        lastChunk.setSize(lastRow);
+        size--;
+        return movedId;
+    }
+    
+    float get(int index, ComponentType type, int field) {
+        return chunks.get(index / chunkCapacity).columns()[columnOffset(type) + field][index % chunkCapacity];
+    }
+    
+    void set(int index, ComponentType type, int field, float value) {
+        chunks.get(index / chunkCapacity).columns()[columnOffset(type) + field][index % chunkCapacity] = value;
+    }
+    
+    /**
+     * Copy the components both archetypes share from a row in this archetype to a row in another
+     */
+    void copyShared(int index, Archetype target, int targetIndex) {
+        float[][] from = chunks.get(index / chunkCapacity).columns();
+        float[][] to = target.chunks.get(targetIndex / target.chunkCapacity).columns();
+        int row = index % chunkCapacity;
+        int targetRow = targetIndex % target.chunkCapacity;
+        
+        for (ComponentType type : ComponentType.values()) {
+            if (has(type) && target.has(type)) {
+                int fromOffset = columnOffsets[type.ordinal()];
+                int toOffset = target.columnOffsets[type.ordinal()];
+                for (int field = 0; field < type.getColumns(); field++) {
+                    to[toOffset + field][targetRow] = from[fromOffset + field][row];
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.dominicmortlock.littelifesim;
+
+/**
+ * A fixed-capacity block of entities sharing one archetype.
+ * Every component column is a contiguous float array, so systems stream through memory.
+ */
+public class ArchetypeChunk {
+    private final Archetype archetype;
+    private final float[][] columns;
+    private final int[] ids;
+    private int size;
+    
+    ArchetypeChunk(Archetype archetype, int columnCount, int capacity) {
+        this.archetype = archetype;
+        this.columns = new float[columnCount][capacity];
+        this.ids = new int[capacity];
+        this.size = 0;
+    }
+    
+    /**
+     * Column array for one field of a component; valid for rows 0 until {@link #size()}
+     */
+    public float[] column(ComponentType type, int field) {
+        return columns[archetype.columnOffset(type) + field];
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public int id(int row) {
+        return ids[row];
+    }
+    
+    public Archetype getArchetype() {
+        return archetype;
+    }
+    
+    float[][] columns() {
+        return columns;
+    }
+    
+    int[] ids() {
+        return ids;
+    }
+    
+    void setSize(int size) {
+        this.size = size;
+    }
+}
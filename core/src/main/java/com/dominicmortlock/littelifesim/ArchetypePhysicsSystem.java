@@ -0,0 +1,89 @@
+package com.dominicmortlock.littelifesim;
+
+/**
+ * Gravity, ground bounce and wall collisions for archetype-stored bodies.
+ * Mirrors {@link PhysicsComponent} but works column by column over whole chunks.
+ */
+public class ArchetypePhysicsSystem implements ArchetypeQuery.ChunkVisitor {
+    private static final ArchetypeQuery QUERY = ArchetypeQuery
+        .with(ComponentType.POSITION, ComponentType.SIZE, ComponentType.PHYSICS)
+        .without(ComponentType.HELD);
+    
+    private static final float GRAVITY = GameConstants.GRAVITY;
+    private static final float BOUNCE_DAMPING = GameConstants.BOUNCE_DAMPING;
+    private static final float WALL_BOUNCE_DAMPING = GameConstants.WALL_BOUNCE_DAMPING;
+    private static final float FRICTION = GameConstants.FRICTION;
+    private static final float MIN_BOUNCE_VELOCITY = GameConstants.MIN_BOUNCE_VELOCITY;
+    
+    // Per-update parameters, kept in fields so visiting chunks does not allocate
+    private float deltaTime;
+    private float mapWidth;
+    private float mapHeight;
+    
+    public void update(ArchetypeStore store, float deltaTime, float mapWidth, float mapHeight) {
+        this.deltaTime = deltaTime;
+        this.mapWidth = mapWidth;
+        this.mapHeight = mapHeight;
+        store.forEachChunk(QUERY, this);
+    }
+    
+    @Override
+    public void visit(ArchetypeChunk chunk) {
+        float[] x = chunk.column(ComponentType.POSITION, ComponentType.POSITION_X);
+        float[] y = chunk.column(ComponentType.POSITION, ComponentType.POSITION_Y);
+        float[] previousX = chunk.column(ComponentType.POSITION, ComponentType.POSITION_PREVIOUS_X);
+        float[] previousY = chunk.column(ComponentType.POSITION, ComponentType.POSITION_PREVIOUS_Y);
+        float[] width = chunk.column(ComponentType.SIZE, ComponentType.SIZE_WIDTH);
+        float[] height = chunk.column(ComponentType.SIZE, ComponentType.SIZE_HEIGHT);
+        float[] velocityX = chunk.column(ComponentType.PHYSICS, ComponentType.PHYSICS_VELOCITY_X);
+        float[] velocityY = chunk.column(ComponentType.PHYSICS, ComponentType.PHYSICS_VELOCITY_Y);
+        float[] groundLevel = chunk.column(ComponentType.PHYSICS, ComponentType.PHYSICS_GROUND_LEVEL);
+        float[] active = chunk.column(ComponentType.PHYSICS, ComponentType.PHYSICS_ACTIVE);
+        
+        int size = chunk.size();
+        for (int i = 0; i < size; i++) {
+            previousX[i] = x[i];
+            previousY[i] = y[i];
+            if (active[i] == 0f) continue;
+            
+            float vx = velocityX[i];
+            float vy = velocityY[i] + GRAVITY * deltaTime;
+            float newX = x[i] + vx * deltaTime;
+            float newY = y[i] + vy * deltaTime;
+            
+            // Walls
+            if (newX < 0 && vx < 0) {
+                newX = 0;
+                vx = -vx * WALL_BOUNCE_DAMPING;
+            } else if (newX + width[i] > mapWidth && vx > 0) {
+                newX = mapWidth - width[i];
+                vx = -vx * WALL_BOUNCE_DAMPING;
+            }
+            if (newY + height[i] > mapHeight && vy > 0) {
+                newY = mapHeight - height[i];
+                vy = -vy * WALL_BOUNCE_DAMPING;
+            }
+            
+            // Ground
+            float ground = Math.max(0f, groundLevel[i]);
+            if (newY <= ground && vy < 0) {
+                newY = ground;
+                vy = -vy * BOUNCE_DAMPING;
+                vx *= FRICTION;
+                
+                if (Math.abs(vy) < MIN_BOUNCE_VELOCITY) {
+                    vy = 0f;
+                    if (Math.abs(vx) < MIN_BOUNCE_VELOCITY) {
+                        vx = 0f;
+                        active[i] = 0f; // Settled
+                    }
+                }
+            }
+            
+            x[i] = newX;
+            y[i] = newY;
+            velocityX[i] = vx;
+            velocityY[i] = vy;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.dominicmortlock.littelifesim;
+
+/**
+ * A bitset filter over archetypes, e.g. all entities with POSITION and PHYSICS but without HELD.
+ * Build once and reuse; matching is two mask comparisons per archetype.
+ */
+public final class ArchetypeQuery {
+    private final long include;
+    private final long exclude;
+    
+    private ArchetypeQuery(long include, long exclude) {
+        this.include = include;
+        this.exclude = exclude;
+    }
+    
+    public static ArchetypeQuery with(ComponentType... types) {
+        return new ArchetypeQuery(ComponentType.mask(types), 0L);
+    }
+    
+    public ArchetypeQuery without(ComponentType... types) {
+        return new ArchetypeQuery(include, exclude | ComponentType.mask(types));
+    }
+    
+    public boolean matches(long mask) {
+        return (mask & include) == include && (mask & exclude) == 0L;
+    }
+    
+    /**
+     * Visits each chunk of entities matched by a query
+     */
+    public interface ChunkVisitor {
+        void visit(ArchetypeChunk chunk);
+    }
+}
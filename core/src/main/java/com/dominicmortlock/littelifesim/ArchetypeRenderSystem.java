@@ -0,0 +1,68 @@
+package com.dominicmortlock.littelifesim;
+
+import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import com.badlogic.gdx.math.Rectangle;
+
+/**
+ * Draws archetype-stored entities that have a position, size and colour as plain rectangles.
+ */
+public class ArchetypeRenderSystem implements ArchetypeQuery.ChunkVisitor {
+    private static final ArchetypeQuery QUERY = ArchetypeQuery
+        .with(ComponentType.POSITION, ComponentType.SIZE, ComponentType.COLOR);
+    
+    // Per-render parameters, kept in fields so visiting chunks does not allocate
+    private ShapeRenderer shapeRenderer;
+    private float alpha;
+    private float viewLeft, viewBottom, viewRight, viewTop;
+    
+    public void render(ArchetypeStore store, ShapeRenderer shapeRenderer, float alpha) {
+        render(store, shapeRenderer, alpha, null);
+    }
+    
+    /**
+     * @param view World-space area on screen; rows entirely outside it are skipped. Null draws everything.
+     */
+    public void render(ArchetypeStore store, ShapeRenderer shapeRenderer, float alpha, Rectangle view) {
+        this.shapeRenderer = shapeRenderer;
+        this.alpha = alpha;
+        if (view != null) {
+            viewLeft = view.x;
+            viewBottom = view.y;
+            viewRight = view.x + view.width;
+            viewTop = view.y + view.height;
+        } else {
+            viewLeft = Float.NEGATIVE_INFINITY;
+            viewBottom = Float.NEGATIVE_INFINITY;
+            viewRight = Float.POSITIVE_INFINITY;
+            viewTop = Float.POSITIVE_INFINITY;
+        }
+        store.forEachChunk(QUERY, this);
+        this.shapeRenderer = null;
+    }
+    
+    @Override
+    public void visit(ArchetypeChunk chunk) {
+        float[] x = chunk.column(ComponentType.POSITION, ComponentType.POSITION_X);
+        float[] y = chunk.column(ComponentType.POSITION, ComponentType.POSITION_Y);
+        float[] previousX = chunk.column(ComponentType.POSITION, ComponentType.POSITION_PREVIOUS_X);
+        float[] previousY = chunk.column(ComponentType.POSITION, ComponentType.POSITION_PREVIOUS_Y);
+        float[] width = chunk.column(ComponentType.SIZE, ComponentType.SIZE_WIDTH);
+        float[] height = chunk.column(ComponentType.SIZE, ComponentType.SIZE_HEIGHT);
+        float[] r = chunk.column(ComponentType.COLOR, ComponentType.COLOR_R);
+        float[] g = chunk.column(ComponentType.COLOR, ComponentType.COLOR_G);
+        float[] b = chunk.column(ComponentType.COLOR, ComponentType.COLOR_B);
+        
+        float left = viewLeft, bottom = viewBottom, right = viewRight, top = viewTop;
+        
+        int size = chunk.size();
+        for (int i = 0; i < size; i++) {
+            float renderX = previousX[i] + (x[i] - previousX[i]) * alpha;
+            float renderY = previousY[i] + (y[i] - previousY[i]) * alpha;
+            if (renderX + width[i] < left || renderX > right || renderY + height[i] < bottom || renderY > top) {
+                continue;
+            }
+            shapeRenderer.setColor(r[i], g[i], b[i], 1f);
+            shapeRenderer.rect(renderX, renderY, width[i], height[i]);
+        }
+    }
+}
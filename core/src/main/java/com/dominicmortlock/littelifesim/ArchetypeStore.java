@@ -0,0 +1,212 @@
+package com.dominicmortlock.littelifesim;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Data-oriented storage for lightweight entities, kept alongside the {@link Entity} objects.
+ * Entities with the same component set share an {@link Archetype} and live in contiguous chunked
+ * arrays; systems iterate them through {@link ArchetypeQuery} bitset filters instead of chasing
+ * per-entity component objects.
+ */
+public class ArchetypeStore {
+    private static final int INITIAL_ID_CAPACITY = 64;
+    
+    private final int chunkCapacity;
+    private final List<Archetype> archetypes;
+    private final java.util.Map<Long, Archetype> archetypesByMask;
+    
+    // Location of each entity id: its archetype and row index within that archetype
+    private Archetype[] entityArchetypes;
+    private int[] entityRows;
+    private int[] freeIds;
+    private int freeIdCount;
+    private int nextId;
+    private int entityCount;
+    
+    public ArchetypeStore() {
+        this(GameConstants.ARCHETYPE_CHUNK_CAPACITY);
+    }
+    
+    public ArchetypeStore(int chunkCapacity) {
+        this.chunkCapacity = chunkCapacity;
+        this.archetypes = new ArrayList<>();
+        this.archetypesByMask = new HashMap<>();
+        this.entityArchetypes = new Archetype[INITIAL_ID_CAPACITY];
+        this.entityRows = new int[INITIAL_ID_CAPACITY];
+        this.freeIds = new int[INITIAL_ID_CAPACITY];
+        this.freeIdCount = 0;
+        this.nextId = 0;
+        this.entityCount = 0;
+    }
+    
+    /**
+     * Create an entity with the given components, all fields zeroed
+     * @return The new entity id
+     */
+    public int create(ComponentType... types) {
+        return create(ComponentType.mask(types));
+    }
+    
+    /**
+     * Create an entity with the components in a bitset mask, all fields zeroed
+     */
+    int create(long mask) {
+        int id = allocateId();
+        Archetype archetype = getOrCreateArchetype(mask);
+        entityArchetypes[id] = archetype;
+        entityRows[id] = archetype.add(id);
+        entityCount++;
+        return id;
+    }
+    
+    public void destroy(int id) {
+        Archetype archetype = archetypeOf(id);
+        removeRow(archetype, entityRows[id]);
+        entityArchetypes[id] = null;
+        freeIds[freeIdCount++] = id;
+        entityCount--;
+    }
+    
+    public boolean isAlive(int id) {
+        return id >= 0 && id < nextId && entityArchetypes[id] != null;
+    }
+    
+    public boolean has(int id, ComponentType type) {
+        return archetypeOf(id).has(type);
+    }
+    
+    public float get(int id, ComponentType type, int field) {
+        return archetypeOf(id).get(entityRows[id], type, field);
+    }
+    
+    public void set(int id, ComponentType type, int field, float value) {
+        archetypeOf(id).set(entityRows[id], type, field, value);
+    }
+    
+    /**
+     * Add a component, moving the entity to the archetype with the larger component set
+     */
+    public void addComponent(int id, ComponentType type) {
+        Archetype from = archetypeOf(id);
+        if (from.has(type)) return;
+        moveTo(id, from, getOrCreateArchetype(from.getMask() | type.bit()));
+    }
+    
+    /**
+     * Remove a component, moving the entity to the archetype with the smaller component set
+     */
+    public void removeComponent(int id, ComponentType type) {
+        Archetype from = archetypeOf(id);
+        if (!from.has(type)) return;
+        moveTo(id, from, getOrCreateArchetype(from.getMask() & ~type.bit()));
+    }
+    
+    /**
+     * Visit every chunk whose archetype matches the query
+     */
+    public void forEachChunk(ArchetypeQuery query, ArchetypeQuery.ChunkVisitor visitor) {
+        for (int a = 0; a < archetypes.size(); a++) {
+            Archetype archetype = archetypes.get(a);
+            if (!query.matches(archetype.getMask())) continue;
+            
+            int chunkCount = archetype.getChunkCount();
+            for (int c = 0; c < chunkCount; c++) {
+                visitor.visit(archetype.getChunk(c));
+            }
+        }
+    }
+    
+    /**
+     * Count the entities matched by a query
+     */
+    public int count(ArchetypeQuery query) {
+        int count = 0;
+        for (int a = 0; a < archetypes.size(); a++) {
+            Archetype archetype = archetypes.get(a);
+            if (query.matches(archetype.getMask())) {
+                count += archetype.size();
+            }
+        }
+        return count;
+    }
+    
+    public int getEntityCount() {
+        return entityCount;
+    }
+    
+    public int getArchetypeCount() {
+        return archetypes.size();
+    }
+    
+    /**
+     * Approximate bytes held by component columns and id tables, ignoring object headers
+     */
+    long estimateBytes() {
+        long bytes = (long) entityArchetypes.length * (4 + 4) + (long) freeIds.length * 4;
+        for (int a = 0; a < archetypes.size(); a++) {
+            Archetype archetype = archetypes.get(a);
+            // Each chunk has a float column per component field plus an id column, all chunkCapacity long
+            bytes += (long) archetype.getChunkCount() * (archetype.getColumnCount() + 1) * chunkCapacity * 4;
+        }
+        return bytes;
+    }
+    
+    Archetype getArchetype(int index) {
+        return archetypes.get(index);
+    }
+    
+    private void moveTo(int id, Archetype from, Archetype to) {
+        int fromRow = entityRows[id];
+        int toRow = to.add(id);
+        from.copyShared(fromRow, to, toRow);
+        removeRow(from, fromRow);
+        entityArchetypes[id] = to;
+        entityRows[id] = toRow;
+    }
+    
+    private void removeRow(Archetype archetype, int row) {
+        int movedId = archetype.remove(row);
+        if (movedId >= 0) {
+            entityRows[movedId] = row;
+        }
+    }
+    
+    private Archetype archetypeOf(int id) {
+        Archetype archetype = isAlive(id) ? entityArchetypes[id] : null;
+        if (archetype == null) {
+            throw new IllegalArgumentException("No entity with id " + id);
+        }
+        return archetype;
+    }
+    
+    private Archetype getOrCreateArchetype(long mask) {
+        Archetype archetype = archetypesByMask.get(mask);
+        if (archetype == null) {
+            archetype = new Archetype(mask, chunkCapacity);
+            archetypesByMask.put(mask, archetype);
+            archetypes.add(archetype);
+        }
+        return archetype;
+    }
+    
+    private int allocateId() {
+        if (freeIdCount > 0) {
+            return freeIds[--freeIdCount];
+        }
+        if (nextId == entityArchetypes.length) {
+            int capacity = entityArchetypes.length * 2;
+            Archetype[] archetypesById = new Archetype[capacity];
+            int[] rows = new int[capacity];
+            int[] free = new int[capacity];
+            System.arraycopy(entityArchetypes, 0, archetypesById, 0, nextId);
+            System.arraycopy(entityRows, 0, rows, 0, nextId);
+            System.arraycopy(freeIds, 0, free, 0, freeIdCount);
+            entityArchetypes = archetypesById;
+            entityRows = rows;
+            freeIds = free;
+        }
+        return nextId++;
+    }
+}
@@ -1,22 +1,25 @@
 package com.dominicmortlock.littelifesim;
 
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import java.nio.ByteBuffer;
 
 /**
  * A physics-enabled ball that can be dragged, thrown, caught by LittleGuy, and bounces around.
  * Supports multiple states including free, picked up, carried, and being caught.
  */
-public class Ball extends Entity implements Draggable, Holdable {
+public class Ball extends Entity implements Draggable, Holdable, Collidable {
     private BallState currentState;
     private DraggableComponent draggableComponent;
     private PhysicsComponent physicsComponent;
     private Entity carrier; // The entity carrying this ball (if any)
+    private Entity releasedBy; // Last carrier, not collided with until the ball has cleared it
     
     // Smooth pickup transition
     private float transitionTimer;
     private float transitionDuration = GameConstants.BALL_TRANSITION_DURATION;
     private float startX, startY; // Starting position for transition
     private float targetX, targetY; // Target position for transition
+    private final float[] holdingPosition = new float[2]; // Reused when reading the carrier's holding position
     
     public Ball(float x, float y) {
         super(x, y, GameConstants.BALL_SIZE, GameConstants.BALL_SIZE, GameConstants.Z_FRONT_LAYER);
@@ -33,20 +36,55 @@ public class Ball extends Entity implements Draggable, Holdable {
         // Update draggable component
         draggableComponent.update(deltaTime);
         
+        // Collide with the thrower again once the ball has left its hand
+        if (releasedBy != null && !EntityManager.areIntersecting(this, releasedBy)) {
+            releasedBy = null;
+        }
+        
         // Update drag physics if being dragged
         if (currentState == BallState.PICKED_UP) {
             draggableComponent.updateDrag(deltaTime);
         }
         
+        // Follow the carrier once every entity has moved this step
+        if (carrier != null && (currentState == BallState.BEING_CAUGHT || 
+            (currentState == BallState.CARRIED && !physicsComponent.isActive()))) {
+            requestInteraction(Interaction.FOLLOW_HOLDER, carrier, deltaTime, 0f, 0f);
+        }
+        
+        // Check for snap attachment every frame if ball is free and physics isn't active
+        if (currentState == BallState.FREE && !physicsComponent.isActive()) {
+            requestInteraction(Interaction.ATTACH_TO_NEARBY_LITTLE_GUY);
+        }
+        
+        // A free ball that is awake may be rolling into a little guy that has stopped polling for balls
+        if (currentState == BallState.FREE) {
+            requestInteraction(Interaction.WAKE_NEARBY_LITTLE_GUYS, null, GameConstants.COLLISION_MARGIN, 0f, 0f);
+        }
+    }
+    
+    /**
+     * A free ball at rest only needs updating again once something moves it or a little guy comes close
+     */
+    @Override
+    public boolean canSleep() {
+        return currentState == BallState.FREE && carrier == null &&
+               !physicsComponent.isActive() && draggableComponent.isSettled();
+    }
+    
+    /**
+     * Move toward or with the carrier. Reads the carrier's position, so it runs after the carrier has updated.
+     */
+    void followHolder(float deltaTime) {
         // Handle being caught transition
         if (currentState == BallState.BEING_CAUGHT && carrier != null) {
             transitionTimer += deltaTime;
             float progress = Math.min(transitionTimer / transitionDuration, 1.0f);
             
             // Calculate target position using holding system
-            float[] targetPos = ((Holder) carrier).getHoldingPosition(this);
-            targetX = targetPos[0];
-            targetY = targetPos[1];
+            ((Holder) carrier).getHoldingPosition(this, holdingPosition);
+            targetX = holdingPosition[0];
+            targetY = holdingPosition[1];
             
             // Smooth interpolation with easing
             float easeProgress = 1f - (1f - progress) * (1f - progress); // Ease out
@@ -66,13 +104,49 @@ public class Ball extends Entity implements Draggable, Holdable {
             // Use unified holding system for positioning
             HoldingSystem.updateHeldPosition((Holder) carrier);
         }
-        
-        // Check for snap attachment every frame if ball is free and physics isn't active
-        if (currentState == BallState.FREE && !physicsComponent.isActive()) {
+    }
+    
+    void resolvePlayerAttachment() {
+        if (!physicsComponent.isActive()) {
             checkForImmediatePlayerAttachment();
         }
     }
     
+    /**
+     * Save slots: LINK carrier, SECOND_LINK last carrier still being cleared, VALUE catch transition time,
+     * SECOND_VALUE and THIRD_VALUE catch transition start
+     */
+    @Override
+    void writeSnapshot(ByteBuffer buffer, int offset) {
+        super.writeSnapshot(buffer, offset);
+        // Held by the player: saved as free where it hangs, since drags are not saved
+        BallState savedState = currentState == BallState.PICKED_UP ? BallState.FREE : currentState;
+        buffer.put(offset + WorldSnapshot.STATE, (byte) savedState.ordinal());
+        WorldSnapshot.writePhysics(buffer, offset, physicsComponent);
+        buffer.putInt(offset + WorldSnapshot.LINK, WorldSnapshot.indexOf(carrier));
+        buffer.putInt(offset + WorldSnapshot.SECOND_LINK, WorldSnapshot.indexOf(releasedBy));
+        buffer.putFloat(offset + WorldSnapshot.VALUE, transitionTimer);
+        buffer.putFloat(offset + WorldSnapshot.SECOND_VALUE, startX);
+        buffer.putFloat(offset + WorldSnapshot.THIRD_VALUE, startY);
+    }
+    
+    @Override
+    Entity getLink(int slot) {
+        return slot == 0 ? carrier : slot == 1 ? releasedBy : null;
+    }
+    
+    @Override
+    void readSnapshot(ByteBuffer buffer, int offset, Entity[] entities) {
+        super.readSnapshot(buffer, offset, entities);
+        currentState = BallState.values()[buffer.get(offset + WorldSnapshot.STATE)];
+        WorldSnapshot.readPhysics(buffer, offset, physicsComponent);
+        carrier = WorldSnapshot.entityAt(entities, buffer.getInt(offset + WorldSnapshot.LINK));
+        releasedBy = WorldSnapshot.entityAt(entities, buffer.getInt(offset + WorldSnapshot.SECOND_LINK));
+        transitionTimer = buffer.getFloat(offset + WorldSnapshot.VALUE);
+        startX = buffer.getFloat(offset + WorldSnapshot.SECOND_VALUE);
+        startY = buffer.getFloat(offset + WorldSnapshot.THIRD_VALUE);
+    }
+    
     @Override
     public void render(ShapeRenderer shapeRenderer) {
         // Change color based on state
@@ -129,7 +203,7 @@ public class Ball extends Entity implements Draggable, Holdable {
         if (map == null || currentState != BallState.FREE) return;
         
         LittleGuy nearbyLittleGuy = EntityManager.findNearbyAvailableLittleGuy(
-            map.getEntities(), this, GameConstants.BALL_SNAP_DISTANCE);
+            map, this, GameConstants.BALL_SNAP_DISTANCE);
         if (nearbyLittleGuy != null) {
             HoldingSystem.startHolding(nearbyLittleGuy, this);
         }
@@ -139,6 +213,7 @@ public class Ball extends Entity implements Draggable, Holdable {
     // Ball-specific methods
     public void startCarried(Entity carrier) {
         this.carrier = carrier;
+        wake();
         
         // Start smooth transition
         this.currentState = BallState.BEING_CAUGHT;
@@ -157,6 +232,10 @@ public class Ball extends Entity implements Draggable, Holdable {
     }
     
     public void throwBall(float velocityX, float velocityY) {
+        if (carrier != null) {
+            releasedBy = carrier;
+        }
+        
         // Drop from carrier if being carried
         if (currentState == BallState.CARRIED) {
             carrier = null;
@@ -168,8 +247,8 @@ public class Ball extends Entity implements Draggable, Holdable {
     
     public void dropWithArc() {
         // Drop with small upward arc
-        float dropVelocityX = (float) (Math.random() - 0.5) * 50f; // Small horizontal spread
-        float dropVelocityY = 80f + (float) Math.random() * 40f; // Upward arc
+        float dropVelocityX = (random.nextFloat() - 0.5f) * 50f; // Small horizontal spread
+        float dropVelocityY = 80f + random.nextFloat() * 40f; // Upward arc
         throwBall(dropVelocityX, dropVelocityY);
     }
     
@@ -191,6 +270,37 @@ public class Ball extends Entity implements Draggable, Holdable {
         return currentState;
     }
     
+    @Override
+    public PhysicsComponent getPhysicsComponent() {
+        return physicsComponent;
+    }
+    
+    // Collidable interface implementation
+    @Override
+    public int getCollisionLayer() {
+        return GameConstants.COLLISION_LAYER_BALL;
+    }
+    
+    @Override
+    public int getCollisionMask() {
+        return GameConstants.COLLISION_LAYER_BALL | GameConstants.COLLISION_LAYER_LITTLE_GUY | GameConstants.COLLISION_LAYER_BED;
+    }
+    
+    @Override
+    public boolean isCollisionEnabled() {
+        return currentState == BallState.FREE;
+    }
+    
+    @Override
+    public boolean ignoresCollisionWith(Entity other) {
+        return other == releasedBy;
+    }
+    
+    @Override
+    public boolean isKnockable() {
+        return true;
+    }
+    
     // Holdable interface implementation
     @Override
     public void startBeingHeld(Holder holder) {
@@ -1,12 +1,13 @@
 package com.dominicmortlock.littelifesim;
 
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import java.nio.ByteBuffer;
 
 /**
  * A bed entity that LittleGuy can sleep in for extended periods.
  * Renders as a tall rectangle with a pillow at the top. Can be dragged around.
  */
-public class Bed extends Entity implements Draggable, Holder {
+public class Bed extends Entity implements Draggable, Holder, Collidable {
     private boolean occupied;
     private Entity occupant;
     private DraggableComponent draggableComponent;
@@ -34,6 +35,42 @@ public class Bed extends Entity implements Draggable, Holder {
         if (draggableComponent.isBeingDragged()) {
             draggableComponent.updateDrag(deltaTime);
         }
+        
+        // An awake free bed has just moved or been vacated, so resting little guys may now be able to use it
+        if (!occupied) {
+            requestInteraction(Interaction.WAKE_NEARBY_LITTLE_GUYS, null, GameConstants.SNAP_DISTANCE, 0f, 0f);
+        }
+    }
+    
+    /**
+     * A bed at rest has nothing to update; its occupant keeps its own position
+     */
+    @Override
+    public boolean canSleep() {
+        return !physicsComponent.isActive() && draggableComponent.isSettled();
+    }
+    
+    /**
+     * Save slots: LINK occupant
+     */
+    @Override
+    void writeSnapshot(ByteBuffer buffer, int offset) {
+        super.writeSnapshot(buffer, offset);
+        WorldSnapshot.writePhysics(buffer, offset, physicsComponent);
+        buffer.putInt(offset + WorldSnapshot.LINK, occupied ? WorldSnapshot.indexOf(occupant) : -1);
+    }
+    
+    @Override
+    Entity getLink(int slot) {
+        return slot == 0 && occupied ? occupant : null;
+    }
+    
+    @Override
+    void readSnapshot(ByteBuffer buffer, int offset, Entity[] entities) {
+        super.readSnapshot(buffer, offset, entities);
+        WorldSnapshot.readPhysics(buffer, offset, physicsComponent);
+        occupant = WorldSnapshot.entityAt(entities, buffer.getInt(offset + WorldSnapshot.LINK));
+        occupied = occupant != null;
     }
     
     @Override
@@ -62,6 +99,7 @@ public class Bed extends Entity implements Draggable, Holder {
     public void setOccupied(boolean occupied, Entity occupant) {
         this.occupied = occupied;
         this.occupant = occupant;
+        wake();
     }
     
     public Entity getOccupant() {
@@ -78,12 +116,14 @@ public class Bed extends Entity implements Draggable, Holder {
     
     /**
      * Get the sleeping position for an entity in this bed
+     * @param out Receives the [x, y] coordinates
+     * @return out
      */
-    public float[] getSleepingPosition(Entity entity) {
+    public float[] getSleepingPosition(Entity entity, float[] out) {
         // Center the entity in the bed
-        float sleepX = x + (width - entity.getWidth()) / 2;
-        float sleepY = y + (height - entity.getHeight()) / 2;
-        return new float[]{sleepX, sleepY};
+        out[0] = x + (width - entity.getWidth()) / 2;
+        out[1] = y + (height - entity.getHeight()) / 2;
+        return out;
     }
     
     // Draggable interface implementation
@@ -117,8 +157,8 @@ public class Bed extends Entity implements Draggable, Holder {
                 
                 // Drop player with physics (like how player drops ball)
                 littleGuy.getPhysicsComponent().launch(
-                    (float)(Math.random() - 0.5) * 200, // Random horizontal velocity -100 to +100
-                    100 + (float)Math.random() * 100     // Upward velocity 100-200
+                    (random.nextFloat() - 0.5f) * 200, // Random horizontal velocity -100 to +100
+                    100 + random.nextFloat() * 100      // Upward velocity 100-200
                 );
             }
             setOccupied(false, null);
@@ -140,6 +180,37 @@ public class Bed extends Entity implements Draggable, Holder {
         physicsComponent.setMap(map);
     }
     
+    // Collidable interface implementation
+    @Override
+    public int getCollisionLayer() {
+        return GameConstants.COLLISION_LAYER_BED;
+    }
+    
+    @Override
+    public int getCollisionMask() {
+        return GameConstants.COLLISION_LAYER_BALL;
+    }
+    
+    @Override
+    public boolean isCollisionEnabled() {
+        return !draggableComponent.isBeingDragged();
+    }
+    
+    @Override
+    public PhysicsComponent getPhysicsComponent() {
+        return physicsComponent;
+    }
+    
+    @Override
+    public boolean ignoresCollisionWith(Entity other) {
+        return false;
+    }
+    
+    @Override
+    public boolean isKnockable() {
+        return false;
+    }
+    
     // Holder interface implementation
     @Override
     public void pickupHoldable(Holdable holdable) {
@@ -167,8 +238,8 @@ public class Bed extends Entity implements Draggable, Holder {
     }
     
     @Override
-    public float[] getHoldingPosition(Holdable holdable) {
-        return getSleepingPosition((Entity) holdable);
+    public float[] getHoldingPosition(Holdable holdable, float[] out) {
+        return getSleepingPosition((Entity) holdable, out);
     }
     
     @Override
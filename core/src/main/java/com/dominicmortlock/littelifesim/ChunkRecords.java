@@ -0,0 +1,73 @@
+package com.dominicmortlock.littelifesim;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * The records of one streamed chunk on their way to or from its region file: entity records followed by
+ * archetype records, in the {@link WorldSnapshot} layouts, with entity links relative to this run.
+ */
+final class ChunkRecords {
+    final long key;
+    final int entityCount;
+    final int archetypeCount;
+    final ByteBuffer records; // Little-endian, starting at 0; null when reading the chunk failed
+    
+    ChunkRecords(long key, int entityCount, int archetypeCount, ByteBuffer records) {
+        this.key = key;
+        this.entityCount = entityCount;
+        this.archetypeCount = archetypeCount;
+        this.records = records;
+    }
+    
+    static int sizeOf(int entityCount, int archetypeCount) {
+        return entityCount * WorldSnapshot.ENTITY_RECORD_SIZE + archetypeCount * WorldSnapshot.ARCHETYPE_RECORD_SIZE;
+    }
+    
+    int archetypesStart() {
+        return entityCount * WorldSnapshot.ENTITY_RECORD_SIZE;
+    }
+    
+    int size() {
+        return sizeOf(entityCount, archetypeCount);
+    }
+    
+    /**
+     * Records already stored for a chunk followed by newly evicted ones. Entity links in the added records are
+     * relative to them and are shifted past the stored entities.
+     */
+    static ChunkRecords append(ChunkRecords stored, ChunkRecords added) {
+        int entityCount = stored.entityCount + added.entityCount;
+        int archetypeCount = stored.archetypeCount + added.archetypeCount;
+        ByteBuffer combined = ByteBuffer.allocate(sizeOf(entityCount, archetypeCount)).order(ByteOrder.LITTLE_ENDIAN);
+        copy(stored.records, 0, combined, 0, stored.archetypesStart());
+        int addedStart = stored.archetypesStart();
+        copy(added.records, 0, combined, addedStart, added.archetypesStart());
+        for (int i = 0; i < added.entityCount; i++) {
+            int record = addedStart + i * WorldSnapshot.ENTITY_RECORD_SIZE;
+            shiftLink(combined, record + WorldSnapshot.LINK, stored.entityCount);
+            shiftLink(combined, record + WorldSnapshot.SECOND_LINK, stored.entityCount);
+        }
+        int archetypesStart = entityCount * WorldSnapshot.ENTITY_RECORD_SIZE;
+        int storedArchetypesSize = stored.archetypeCount * WorldSnapshot.ARCHETYPE_RECORD_SIZE;
+        copy(stored.records, stored.archetypesStart(), combined, archetypesStart, storedArchetypesSize);
+        copy(added.records, added.archetypesStart(), combined, archetypesStart + storedArchetypesSize,
+             added.archetypeCount * WorldSnapshot.ARCHETYPE_RECORD_SIZE);
+        return new ChunkRecords(added.key, entityCount, archetypeCount, combined);
+    }
+    
+    private static void copy(ByteBuffer from, int fromOffset, ByteBuffer to, int toOffset, int length) {
+        ByteBuffer source = from.duplicate();
+        source.position(fromOffset).limit(fromOffset + length);
+        ByteBuffer target = to.duplicate();
+        target.position(toOffset);
+        target.put(source);
+    }
+    
+    private static void shiftLink(ByteBuffer records, int offset, int shift) {
+        int link = records.getInt(offset);
+        if (link >= 0) {
+            records.putInt(offset, link + shift);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.dominicmortlock.littelifesim;
+
+/**
+ * Interface for entities that collide with other entities
+ */
+public interface Collidable {
+    /**
+     * Layer bits this entity occupies, from the GameConstants.COLLISION_LAYER_* values
+     */
+    int getCollisionLayer();
+    
+    /**
+     * Layer bits this entity collides with. A pair collides only if each mask includes the other's layer.
+     */
+    int getCollisionMask();
+    
+    /**
+     * Check if the entity currently takes part in collisions at all
+     * @return false while it is dragged, carried or otherwise positioned by something else
+     */
+    boolean isCollisionEnabled();
+    
+    /**
+     * Physics that moves this entity; collisions only push entities whose physics is active
+     */
+    PhysicsComponent getPhysicsComponent();
+    
+    /**
+     * Check if contacts with a particular entity are skipped, such as a ball's thrower while it leaves the hand
+     */
+    boolean ignoresCollisionWith(Entity other);
+    
+    /**
+     * Check if a hit can set this entity moving while its physics is at rest
+     * @return true to be knocked into motion, false to act as a fixed obstacle
+     */
+    boolean isKnockable();
+}
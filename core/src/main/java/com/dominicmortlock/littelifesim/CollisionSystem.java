@@ -0,0 +1,489 @@
+package com.dominicmortlock.littelifesim;
+
+/**
+ * Entity-vs-entity collision with a sweep-and-prune broadphase.
+ * Bodies are kept sorted by the left edge of their bounds; the order carries over between steps,
+ * so re-sorting is a near-linear insertion sort. Sweeping that order finds every pair whose bounds
+ * overlap on both axes and whose layer masks accept each other. Only pairs with at least one moving
+ * body are kept, and each is resolved by an axis-aligned narrowphase with a simple bounce.
+ * Bounds cover the whole path travelled during the step, so a fast body that passed clean through
+ * another is still paired with it; a swept time-of-impact test then bounces it at the point of contact.
+ */
+public class CollisionSystem {
+    private static final int INITIAL_CAPACITY = 64;
+    private static final float RESTITUTION = GameConstants.COLLISION_RESTITUTION;
+    private static final float KNOCK_VELOCITY = GameConstants.MIN_BOUNCE_VELOCITY; // Slower hits leave a resting body where it is
+    private static final float CCD_TRAVEL_FRACTION = GameConstants.CCD_TRAVEL_FRACTION;
+    
+    private Entity[] entities;
+    private Collidable[] bodies;
+    private int bodyCount;
+    
+    // Per-body state captured at the start of each step, indexed by position in the sweep order
+    private float[] minX;
+    private float[] minY;
+    private float[] maxX;
+    private float[] maxY;
+    private int[] layers;
+    private int[] masks;
+    private boolean[] enabled;
+    private boolean[] moving;
+    
+    private float maxWidth; // Widest swept bounds this step, bounding how far back a sweep has to look
+    private int[] order; // Body index at each sweep position, sorted by minX and kept between steps
+    
+    // Contact pairs found by the last broadphase, as body indices
+    private int[] pairA;
+    private int[] pairB;
+    private int pairCount;
+    
+    public CollisionSystem() {
+        entities = new Entity[INITIAL_CAPACITY];
+        bodies = new Collidable[INITIAL_CAPACITY];
+        minX = new float[INITIAL_CAPACITY];
+        minY = new float[INITIAL_CAPACITY];
+        maxX = new float[INITIAL_CAPACITY];
+        maxY = new float[INITIAL_CAPACITY];
+        layers = new int[INITIAL_CAPACITY];
+        masks = new int[INITIAL_CAPACITY];
+        enabled = new boolean[INITIAL_CAPACITY];
+        moving = new boolean[INITIAL_CAPACITY];
+        order = new int[INITIAL_CAPACITY];
+        pairA = new int[INITIAL_CAPACITY];
+        pairB = new int[INITIAL_CAPACITY];
+    }
+    
+    public void add(Entity entity) {
+        if (!(entity instanceof Collidable) || entity.collisionIndex >= 0) return;
+        if (bodyCount == entities.length) {
+            growBodies();
+        }
+        int index = bodyCount++;
+        entities[index] = entity;
+        bodies[index] = (Collidable) entity;
+        order[index] = index; // Sorted into place on the next step
+        entity.collisionIndex = index;
+    }
+    
+    public void remove(Entity entity) {
+        int index = entity.collisionIndex;
+        if (index < 0) return;
+        int last = bodyCount - 1;
+        
+        // Drop the body from the sweep order, then renumber the last body into the freed index
+        int write = 0;
+        for (int read = 0; read < bodyCount; read++) {
+            int body = order[read];
+            if (body == index) continue;
+            order[write++] = body == last ? index : body;
+        }
+        
+        if (index != last) {
+            entities[index] = entities[last];
+            bodies[index] = bodies[last];
+            entities[index].collisionIndex = index;
+        }
+        entities[last] = null;
+        bodies[last] = null;
+        bodyCount = last;
+        entity.collisionIndex = -1;
+    }
+    
+    /**
+     * Remove every body whose entity is marked for removal by {@link Map#removeEntities}.
+     * Survivors are renumbered densely and the sweep order compacted once, keeping its order.
+     */
+    void removeMarked() {
+        int kept = 0;
+        for (int index = 0; index < bodyCount; index++) {
+            Entity entity = entities[index];
+            if (!entity.removing) {
+                entity.collisionIndex = kept++;
+            }
+        }
+        if (kept == bodyCount) return;
+        
+        int write = 0;
+        for (int read = 0; read < bodyCount; read++) {
+            Entity entity = entities[order[read]];
+            if (!entity.removing) {
+                order[write++] = entity.collisionIndex;
+            }
+        }
+        for (int index = 0; index < bodyCount; index++) {
+            Entity entity = entities[index];
+            if (entity.removing) {
+                entity.collisionIndex = -1;
+            } else {
+                entities[entity.collisionIndex] = entity;
+                bodies[entity.collisionIndex] = bodies[index];
+            }
+        }
+        for (int index = kept; index < bodyCount; index++) {
+            entities[index] = null;
+            bodies[index] = null;
+        }
+        bodyCount = kept;
+    }
+    
+    /**
+     * Find this step's contacts and push the moving bodies apart
+     * @param deltaTime Length of the step just simulated, left for bodies to travel after a swept hit
+     */
+    public void update(float deltaTime) {
+        captureBodies();
+        sortByMinX();
+        findPairs();
+        for (int i = 0; i < pairCount; i++) {
+            resolve(pairA[i], pairB[i], deltaTime);
+        }
+    }
+    
+    public int getBodyCount() {
+        return bodyCount;
+    }
+    
+    /**
+     * Approximate bytes held by the body and pair arrays, ignoring object headers
+     */
+    long estimateBytes() {
+        // Two references, four float bounds, layer, mask, order and two flags per body slot; two ints per pair slot
+        return (long) entities.length * (2 * 4 + 4 * 4 + 3 * 4 + 2) + (long) pairA.length * 2 * 4;
+    }
+    
+    /**
+     * Number of contact pairs found by the last broadphase
+     */
+    public int getPairCount() {
+        return pairCount;
+    }
+    
+    public Entity getPairA(int pair) {
+        return entities[pairA[pair]];
+    }
+    
+    public Entity getPairB(int pair) {
+        return entities[pairB[pair]];
+    }
+    
+    private void captureBodies() {
+        // Captured in last step's sweep order, so the sort below only has to fix up what moved
+        maxWidth = 0f;
+        for (int slot = 0; slot < bodyCount; slot++) {
+            int index = order[slot];
+            Entity entity = entities[index];
+            Collidable body = bodies[index];
+            // Bounds span the step's start and end positions, so nothing a body passed through is missed
+            minX[slot] = Math.min(entity.x, entity.previousX);
+            minY[slot] = Math.min(entity.y, entity.previousY);
+            maxX[slot] = Math.max(entity.x, entity.previousX) + entity.width;
+            maxY[slot] = Math.max(entity.y, entity.previousY) + entity.height;
+            layers[slot] = body.getCollisionLayer();
+            masks[slot] = body.getCollisionMask();
+            enabled[slot] = body.isCollisionEnabled();
+            moving[slot] = body.getPhysicsComponent().isActive();
+            maxWidth = Math.max(maxWidth, maxX[slot] - minX[slot]);
+        }
+    }
+    
+    private void sortByMinX() {
+        // Bodies move little between steps, so the previous order is almost sorted already
+        for (int i = 1; i < bodyCount; i++) {
+            float key = minX[i];
+            if (minX[i - 1] <= key) continue;
+            
+            int index = order[i];
+            float bodyMinY = minY[i];
+            float bodyMaxX = maxX[i];
+            float bodyMaxY = maxY[i];
+            int layer = layers[i];
+            int mask = masks[i];
+            boolean bodyEnabled = enabled[i];
+            boolean bodyMoving = moving[i];
+            int j = i - 1;
+            while (j >= 0 && minX[j] > key) {
+                moveSlot(j, j + 1);
+                j--;
+            }
+            order[j + 1] = index;
+            minX[j + 1] = key;
+            minY[j + 1] = bodyMinY;
+            maxX[j + 1] = bodyMaxX;
+            maxY[j + 1] = bodyMaxY;
+            layers[j + 1] = layer;
+            masks[j + 1] = mask;
+            enabled[j + 1] = bodyEnabled;
+            moving[j + 1] = bodyMoving;
+        }
+    }
+    
+    private void moveSlot(int from, int to) {
+        order[to] = order[from];
+        minX[to] = minX[from];
+        minY[to] = minY[from];
+        maxX[to] = maxX[from];
+        maxY[to] = maxY[from];
+        layers[to] = layers[from];
+        masks[to] = masks[from];
+        enabled[to] = enabled[from];
+        moving[to] = moving[from];
+    }
+    
+    private void findPairs() {
+        pairCount = 0;
+        for (int a = 0; a < bodyCount; a++) {
+            // Most bodies are at rest, so sweep outward from the moving ones only
+            if (!moving[a] || !enabled[a]) continue;
+            
+            // Bodies after a in the order overlap it on x until one starts past its right edge
+            for (int b = a + 1; b < bodyCount && minX[b] <= maxX[a]; b++) {
+                if (accepts(a, b)) {
+                    addPair(order[a], order[b]);
+                }
+            }
+            
+            // Bodies before a can reach it only if they start within the widest body's width;
+            // moving ones there already found a in their own forward sweep
+            float reach = minX[a] - maxWidth;
+            for (int b = a - 1; b >= 0 && minX[b] >= reach; b--) {
+                if (!moving[b] && maxX[b] >= minX[a] && accepts(a, b)) {
+                    addPair(order[b], order[a]);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Whether two bodies overlap on y and each one's mask accepts the other's layer
+     */
+    private boolean accepts(int a, int b) {
+        return enabled[b] && minY[b] <= maxY[a] && maxY[b] >= minY[a] &&
+               (masks[a] & layers[b]) != 0 && (masks[b] & layers[a]) != 0;
+    }
+    
+    private void addPair(int a, int b) {
+        if (pairCount == pairA.length) {
+            int[] grownA = new int[pairA.length * 2];
+            int[] grownB = new int[pairA.length * 2];
+            System.arraycopy(pairA, 0, grownA, 0, pairCount);
+            System.arraycopy(pairB, 0, grownB, 0, pairCount);
+            pairA = grownA;
+            pairB = grownB;
+        }
+        pairA[pairCount] = a;
+        pairB[pairCount] = b;
+        pairCount++;
+    }
+    
+    private void resolve(int a, int b, float deltaTime) {
+        Entity first = entities[a];
+        Entity second = entities[b];
+        
+        // Earlier contacts this step may already have pushed the pair apart, so test the current bounds
+        float overlapX = Math.min(first.x + first.width, second.x + second.width) - Math.max(first.x, second.x);
+        float overlapY = Math.min(first.y + first.height, second.y + second.height) - Math.max(first.y, second.y);
+        boolean overlapping = overlapX > 0f && overlapY > 0f;
+        
+        // Apart now and neither fast enough to have skipped through the other: their paths only came close
+        boolean fast = isFast(first) || isFast(second);
+        if (!overlapping && !fast) return;
+        
+        if (bodies[a].ignoresCollisionWith(second) || bodies[b].ignoresCollisionWith(first)) return;
+        
+        // Fast pairs bounce where they first touched; ones that started the step overlapping fall through
+        if (fast && resolveSweep(a, b, deltaTime)) return;
+        if (!overlapping) return;
+        
+        // Separate along the axis of least penetration; the normal points from first to second
+        if (overlapX < overlapY) {
+            respond(a, b, first.x + first.width / 2 < second.x + second.width / 2 ? 1f : -1f, 0f, overlapX);
+        } else {
+            respond(a, b, 0f, first.y + first.height / 2 < second.y + second.height / 2 ? 1f : -1f, overlapY);
+        }
+    }
+    
+    /**
+     * Whether an entity moved far enough this step that a check of its end position alone could miss a hit
+     */
+    private static boolean isFast(Entity entity) {
+        return Math.abs(entity.x - entity.previousX) > entity.width * CCD_TRAVEL_FRACTION ||
+               Math.abs(entity.y - entity.previousY) > entity.height * CCD_TRAVEL_FRACTION;
+    }
+    
+    /**
+     * Swept time-of-impact test for a pair that passed through each other during the step.
+     * Each body is taken to have moved in a straight line from its previous position; on a hit the moving
+     * bodies are put back where they touched, bounced, and sent on for the rest of the step.
+     * @return false if the paths never met or the pair already overlapped at the start of the step
+     */
+    private boolean resolveSweep(int a, int b, float deltaTime) {
+        Entity first = entities[a];
+        Entity second = entities[b];
+        
+        // Motion of first relative to second, tested against second's starting bounds
+        float relativeX = (first.x - first.previousX) - (second.x - second.previousX);
+        float relativeY = (first.y - first.previousY) - (second.y - second.previousY);
+        float gapX = relativeX > 0f ? second.previousX - (first.previousX + first.width)
+                                    : first.previousX - (second.previousX + second.width);
+        float gapY = relativeY > 0f ? second.previousY - (first.previousY + first.height)
+                                    : first.previousY - (second.previousY + second.height);
+        float spanX = first.width + second.width;
+        float spanY = first.height + second.height;
+        
+        // Fractions of the step at which the bounds start and stop overlapping on each axis
+        float entryX;
+        float exitX;
+        if (relativeX != 0f) {
+            entryX = gapX / Math.abs(relativeX);
+            exitX = (gapX + spanX) / Math.abs(relativeX);
+        } else if (overlapsAtStart(first.previousX, first.width, second.previousX, second.width)) {
+            entryX = Float.NEGATIVE_INFINITY;
+            exitX = Float.POSITIVE_INFINITY;
+        } else {
+            return false;
+        }
+        float entryY;
+        float exitY;
+        if (relativeY != 0f) {
+            entryY = gapY / Math.abs(relativeY);
+            exitY = (gapY + spanY) / Math.abs(relativeY);
+        } else if (overlapsAtStart(first.previousY, first.height, second.previousY, second.height)) {
+            entryY = Float.NEGATIVE_INFINITY;
+            exitY = Float.POSITIVE_INFINITY;
+        } else {
+            return false;
+        }
+        
+        float entry = Math.max(entryX, entryY);
+        float exit = Math.min(exitX, exitY);
+        if (entry > exit || entry < 0f || entry > 1f) return false;
+        
+        // The axis that started overlapping last is the one the bodies met across
+        float normalX = 0f;
+        float normalY = 0f;
+        if (entryX > entryY) {
+            normalX = relativeX > 0f ? 1f : -1f;
+        } else {
+            normalY = relativeY > 0f ? 1f : -1f;
+        }
+        
+        PhysicsComponent firstPhysics = bodies[a].getPhysicsComponent();
+        PhysicsComponent secondPhysics = bodies[b].getPhysicsComponent();
+        if (firstPhysics.isActive()) {
+            rewind(first, entry);
+        }
+        if (secondPhysics.isActive()) {
+            rewind(second, entry);
+        }
+        
+        respond(a, b, normalX, normalY, 0f);
+        
+        float remaining = (1f - entry) * deltaTime;
+        if (firstPhysics.isActive()) {
+            first.setPosition(first.x + firstPhysics.getVelocityX() * remaining,
+                              first.y + firstPhysics.getVelocityY() * remaining);
+        }
+        if (secondPhysics.isActive()) {
+            second.setPosition(second.x + secondPhysics.getVelocityX() * remaining,
+                               second.y + secondPhysics.getVelocityY() * remaining);
+        }
+        return true;
+    }
+    
+    private static boolean overlapsAtStart(float firstMin, float firstSize, float secondMin, float secondSize) {
+        return firstMin < secondMin + secondSize && secondMin < firstMin + firstSize;
+    }
+    
+    /**
+     * Put an entity back at the given fraction of the way along this step's path
+     */
+    private static void rewind(Entity entity, float fraction) {
+        entity.setPosition(entity.previousX + (entity.x - entity.previousX) * fraction,
+                           entity.previousY + (entity.y - entity.previousY) * fraction);
+    }
+    
+    /**
+     * Bounce a touching pair apart along a normal pointing from the first body to the second
+     * @param depth How far the bodies overlap along the normal
+     */
+    private void respond(int a, int b, float normalX, float normalY, float depth) {
+        Entity first = entities[a];
+        Entity second = entities[b];
+        
+        // A resting body is knocked into motion by a real hit, but not when landed on or merely nudged,
+        // so piles can settle instead of waking each other forever
+        PhysicsComponent firstPhysics = bodies[a].getPhysicsComponent();
+        PhysicsComponent secondPhysics = bodies[b].getPhysicsComponent();
+        if (!firstPhysics.isActive() && secondPhysics.isActive() && normalY <= 0f && bodies[a].isKnockable() &&
+            -(secondPhysics.getVelocityX() * normalX + secondPhysics.getVelocityY() * normalY) > KNOCK_VELOCITY) {
+            firstPhysics.launch(0f, 0f);
+        } else if (!secondPhysics.isActive() && firstPhysics.isActive() && normalY >= 0f && bodies[b].isKnockable() &&
+                   firstPhysics.getVelocityX() * normalX + firstPhysics.getVelocityY() * normalY > KNOCK_VELOCITY) {
+            secondPhysics.launch(0f, 0f);
+        }
+        boolean firstMoves = firstPhysics.isActive();
+        boolean secondMoves = secondPhysics.isActive();
+        if (!firstMoves && !secondMoves) return;
+        
+        if (firstMoves && secondMoves) {
+            first.setPosition(first.x - normalX * depth / 2, first.y - normalY * depth / 2);
+            second.setPosition(second.x + normalX * depth / 2, second.y + normalY * depth / 2);
+            
+            // Equal masses: split the closing speed along the normal between the two
+            float closing = (firstPhysics.getVelocityX() - secondPhysics.getVelocityX()) * normalX +
+                            (firstPhysics.getVelocityY() - secondPhysics.getVelocityY()) * normalY;
+            if (closing > 0f) {
+                float impulse = (1f + RESTITUTION) * closing / 2;
+                firstPhysics.setVelocity(firstPhysics.getVelocityX() - impulse * normalX,
+                                         firstPhysics.getVelocityY() - impulse * normalY);
+                secondPhysics.setVelocity(secondPhysics.getVelocityX() + impulse * normalX,
+                                          secondPhysics.getVelocityY() + impulse * normalY);
+            }
+        } else if (firstMoves) {
+            bounceOffObstacle(first, firstPhysics, -normalX, -normalY, depth);
+        } else {
+            bounceOffObstacle(second, secondPhysics, normalX, normalY, depth);
+        }
+    }
+    
+    /**
+     * Push a moving body out of a fixed one and reflect the velocity heading into it
+     * @param normalX Direction to push the moving body
+     */
+    private static void bounceOffObstacle(Entity entity, PhysicsComponent physics, float normalX, float normalY, float depth) {
+        entity.setPosition(entity.x + normalX * depth, entity.y + normalY * depth);
+        
+        float into = physics.getVelocityX() * normalX + physics.getVelocityY() * normalY;
+        if (into < 0f) {
+            float impulse = (1f + RESTITUTION) * into;
+            physics.setVelocity(physics.getVelocityX() - impulse * normalX,
+                                physics.getVelocityY() - impulse * normalY);
+        }
+        
+        // Landed on top: rest on the obstacle so the usual ground bounce settles it there
+        if (normalY > 0f) {
+            physics.setGroundLevel(entity.y);
+        }
+    }
+    
+    private void growBodies() {
+        int capacity = entities.length * 2;
+        Entity[] grownEntities = new Entity[capacity];
+        Collidable[] grownBodies = new Collidable[capacity];
+        int[] grownOrder = new int[capacity];
+        System.arraycopy(entities, 0, grownEntities, 0, bodyCount);
+        System.arraycopy(bodies, 0, grownBodies, 0, bodyCount);
+        System.arraycopy(order, 0, grownOrder, 0, bodyCount);
+        entities = grownEntities;
+        bodies = grownBodies;
+        order = grownOrder;
+        minX = new float[capacity];
+        minY = new float[capacity];
+        maxX = new float[capacity];
+        maxY = new float[capacity];
+        layers = new int[capacity];
+        masks = new int[capacity];
+        enabled = new boolean[capacity];
+        moving = new boolean[capacity];
+    }
+}
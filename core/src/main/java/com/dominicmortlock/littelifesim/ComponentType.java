@@ -0,0 +1,53 @@
+package com.dominicmortlock.littelifesim;
+
+/**
+ * Component types for entities kept in the {@link ArchetypeStore}.
+ * Each component is a fixed number of float columns; tag components have no columns.
+ */
+public enum ComponentType {
+    POSITION(4), // x, y, previous x, previous y
+    SIZE(2),     // width, height
+    PHYSICS(4),  // velocity x, velocity y, ground level, active (1 or 0)
+    COLOR(3),    // r, g, b
+    HELD(0);     // Tag: attached to something else and not simulated on its own
+    
+    // Column indices within each component
+    public static final int POSITION_X = 0;
+    public static final int POSITION_Y = 1;
+    public static final int POSITION_PREVIOUS_X = 2;
+    public static final int POSITION_PREVIOUS_Y = 3;
+    public static final int SIZE_WIDTH = 0;
+    public static final int SIZE_HEIGHT = 1;
+    public static final int PHYSICS_VELOCITY_X = 0;
+    public static final int PHYSICS_VELOCITY_Y = 1;
+    public static final int PHYSICS_GROUND_LEVEL = 2;
+    public static final int PHYSICS_ACTIVE = 3;
+    public static final int COLOR_R = 0;
+    public static final int COLOR_G = 1;
+    public static final int COLOR_B = 2;
+    
+    private final int columns;
+    
+    ComponentType(int columns) {
+        this.columns = columns;
+    }
+    
+    public int getColumns() {
+        return columns;
+    }
+    
+    public long bit() {
+        return 1L << ordinal();
+    }
+    
+    /**
+     * Combine component types into a bitset mask
+     */
+    public static long mask(ComponentType... types) {
+        long mask = 0L;
+        for (ComponentType type : types) {
+            mask |= type.bit();
+        }
+        return mask;
+    }
+}
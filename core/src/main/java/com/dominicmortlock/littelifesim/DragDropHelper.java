@@ -35,7 +35,7 @@ public class DragDropHelper {
         
         // Ensure minimum upward velocity for satisfying throws
         if (throwVelocityY < minThrowVelocity) {
-            throwVelocityY = minThrowVelocity + (float) Math.random() * (minThrowVelocity * 0.5f);
+            throwVelocityY = minThrowVelocity + draggable.getOwner().getRandom().nextFloat() * (minThrowVelocity * 0.5f);
         }
         
         draggable.stopDrag();
@@ -1,7 +1,5 @@
 package com.dominicmortlock.littelifesim;
 
-import java.util.Random;
-
 public class DraggableComponent {
     private Entity owner;
     private boolean isBeingDragged;
@@ -18,8 +16,6 @@ public class DraggableComponent {
     private float[] velocityHistoryY = new float[5];
     private int velocityHistoryIndex = 0;
     
-    private Random random;
-    
     // Physics constants from GameConstants
     private static final float ROTATION_SENSITIVITY = GameConstants.ROTATION_SENSITIVITY;
     private static final float ANGULAR_DAMPING = GameConstants.ANGULAR_DAMPING;
@@ -37,7 +33,6 @@ public class DraggableComponent {
         this.lastDragY = owner.getY();
         this.yVelocity = 0f;
         this.targetY = owner.getY();
-        this.random = new Random();
     }
     
     public void update(float deltaTime) {
@@ -102,9 +97,10 @@ public class DraggableComponent {
     
     public void startDrag() {
         isBeingDragged = true;
+        owner.wake();
         
         // Add initial rotation impulse when picked up to make clicking feel impactful
-        float randomRotationImpulse = (random.nextFloat() - 0.5f) * 8f; // Random rotation boost
+        float randomRotationImpulse = (owner.getRandom().nextFloat() - 0.5f) * 8f; // Random rotation boost
         angularVelocity += randomRotationImpulse;
         
         // Reset Y velocity since we're snapping to position
@@ -179,6 +175,18 @@ public class DraggableComponent {
         velocityHistoryIndex = 0;
     }
     
+    /**
+     * Whether the owner is at rest: not dragged, not swaying and not falling back down
+     */
+    public boolean isSettled() {
+        return !isBeingDragged && !wasBeingDragged && rotation == 0f && angularVelocity == 0f &&
+               Math.abs(yVelocity) <= 0.1f;
+    }
+    
+    public Entity getOwner() {
+        return owner;
+    }
+    
     public float getRotation() {
         return rotation;
     }
@@ -1,6 +1,7 @@
 package com.dominicmortlock.littelifesim;
 
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import java.nio.ByteBuffer;
 
 public abstract class Entity {
     protected float x;
@@ -8,6 +9,29 @@ public abstract class Entity {
     protected float width;
     protected float height;
     protected float z; // Z-axis for rendering order (higher = front)
+    protected float previousX; // Position at the start of the current simulation step
+    protected float previousY;
+    protected final SimRandom random; // Reseeded from the map's seed when added, so runs can be replayed
+    
+    // Spatial grid bookkeeping, maintained by SpatialHashGrid
+    long gridCellKey;
+    int gridCell = -1;
+    int gridSlot = -1;
+    
+    // Render layer bookkeeping, maintained by RenderLayers
+    float renderZ;
+    boolean inRenderLayers;
+    
+    // Collision bookkeeping, maintained by CollisionSystem
+    int collisionIndex = -1;
+    
+    // Record index in the save being written, maintained by WorldSnapshot
+    int snapshotIndex = -1;
+    
+    // Active set bookkeeping, maintained by Map
+    boolean active;
+    boolean sleeping;
+    boolean removing; // Marked while Map.removeEntities compacts its lists
     protected Map map;
     
     public Entity(float x, float y, float width, float height) {
@@ -16,6 +40,9 @@ public abstract class Entity {
         this.width = width;
         this.height = height;
         this.z = 0f; // Default z-level
+        this.previousX = x;
+        this.previousY = y;
+        this.random = new SimRandom(0L);
     }
     
     public Entity(float x, float y, float width, float height, float z) {
@@ -24,13 +51,123 @@ public abstract class Entity {
         this.width = width;
         this.height = height;
         this.z = z;
+        this.previousX = x;
+        this.previousY = y;
+        this.random = new SimRandom(0L);
     }
     
     public abstract void update(float deltaTime);
     public abstract void render(ShapeRenderer shapeRenderer);
     
+    /**
+     * Whether the entity has settled and can stop updating until something wakes it.
+     * Checked after each update; entities that must keep ticking (timers, AI) keep the default.
+     */
+    public boolean canSleep() {
+        return false;
+    }
+    
+    /**
+     * Put a sleeping entity back into the per-tick update
+     */
+    public void wake() {
+        if (map != null && sleeping) {
+            map.wake(this);
+        }
+    }
+    
+    public boolean isSleeping() {
+        return sleeping;
+    }
+    
+    /**
+     * Render at a position blended between the previous and current simulation step
+     * @param alpha 0 renders the previous step, 1 renders the current step
+     */
+    public void renderInterpolated(ShapeRenderer shapeRenderer, float alpha) {
+        float currentX = x;
+        float currentY = y;
+        x = previousX + (currentX - previousX) * alpha;
+        y = previousY + (currentY - previousY) * alpha;
+        render(shapeRenderer);
+        x = currentX;
+        y = currentY;
+    }
+    
+    /**
+     * Remember the current position as the start of the next simulation step
+     */
+    public void savePreviousPosition() {
+        previousX = x;
+        previousY = y;
+    }
+    
+    /**
+     * Write this entity's state into its fixed-size save record; see WorldSnapshot for the layout.
+     * Subclasses add their own fields after calling this.
+     */
+    void writeSnapshot(ByteBuffer buffer, int offset) {
+        buffer.putFloat(offset + WorldSnapshot.X, x);
+        buffer.putFloat(offset + WorldSnapshot.Y, y);
+        buffer.putFloat(offset + WorldSnapshot.Z, z);
+    }
+    
+    /**
+     * Restore this entity's state from its save record, once every entity in the save has been created
+     * @param entities Loaded entities by record index, for resolving links
+     */
+    void readSnapshot(ByteBuffer buffer, int offset, Entity[] entities) {
+        setPosition(buffer.getFloat(offset + WorldSnapshot.X), buffer.getFloat(offset + WorldSnapshot.Y));
+        savePreviousPosition();
+        setZ(buffer.getFloat(offset + WorldSnapshot.Z));
+    }
+    
+    /**
+     * Entity saved in one of the record's link slots (0 for LINK, 1 for SECOND_LINK), or null.
+     * World streaming keeps linked entities in memory together.
+     */
+    Entity getLink(int slot) {
+        return null;
+    }
+    
+    /**
+     * Called by the map after this entity is removed, to let go of timers and emitters registered with it
+     */
+    void onRemoved() {
+    }
+    
+    /**
+     * Request an interaction with other entities or shared systems.
+     * Goes through the map so it can be deferred during the parallel update phase.
+     */
+    protected void requestInteraction(Interaction interaction, Entity target, float a, float b, float c) {
+        if (map != null) {
+            map.defer(interaction, this, target, a, b, c);
+        } else {
+            InteractionBuffer.apply(null, interaction, this, target, a, b, c);
+        }
+    }
+    
+    protected void requestInteraction(Interaction interaction, Entity target) {
+        requestInteraction(interaction, target, 0f, 0f, 0f);
+    }
+    
+    protected void requestInteraction(Interaction interaction) {
+        requestInteraction(interaction, null, 0f, 0f, 0f);
+    }
+    
     public void setMap(Map map) {
         this.map = map;
+        if (map != null) {
+            random.setSeed(map.nextEntitySeed());
+        }
+    }
+    
+    /**
+     * Random source for this entity and its components; only used from the entity's own update or the main thread
+     */
+    public SimRandom getRandom() {
+        return random;
     }
     
     public float getX() {
@@ -54,9 +191,14 @@ public abstract class Entity {
     }
     
     public void setZ(float z) {
+        if (this.z == z) return;
         this.z = z;
+        
+        if (map != null) {
+            map.onEntityZChanged(this);
+        }
     }
-
+    
     public void setPosition(float x, float y) {
         if (map != null) {
             x = Math.max(0, Math.min(x, map.getWidth() - width));
@@ -64,5 +206,9 @@ public abstract class Entity {
         }
         this.x = x;
         this.y = y;
+        
+        if (map != null) {
+            map.onEntityMoved(this);
+        }
     }
 }
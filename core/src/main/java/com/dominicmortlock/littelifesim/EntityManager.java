@@ -1,7 +1,6 @@
 package com.dominicmortlock.littelifesim;
 
 import java.util.List;
-import java.util.ArrayList;
 
 /**
  * Utility class for common entity operations and queries.
@@ -13,33 +12,6 @@ public final class EntityManager {
         throw new UnsupportedOperationException("Utility class should not be instantiated");
     }
     
-    /**
-     * Find the first entity of a specific type in the entities list
-     */
-    @SuppressWarnings("unchecked")
-    public static <T extends Entity> T findEntityOfType(List<Entity> entities, Class<T> type) {
-        for (Entity entity : entities) {
-            if (type.isInstance(entity)) {
-                return (T) entity;
-            }
-        }
-        return null;
-    }
-    
-    /**
-     * Find all entities of a specific type in the entities list
-     */
-    @SuppressWarnings("unchecked")
-    public static <T extends Entity> List<T> findEntitiesOfType(List<Entity> entities, Class<T> type) {
-        List<T> result = new ArrayList<>();
-        for (Entity entity : entities) {
-            if (type.isInstance(entity)) {
-                result.add((T) entity);
-            }
-        }
-        return result;
-    }
-    
     /**
      * Check if two entities are intersecting with optional margin
      */
@@ -66,30 +38,59 @@ public final class EntityManager {
     
     /**
      * Calculate the center position of an entity
+     * @param out Receives the [x, y] coordinates
+     * @return out
      */
-    public static float[] getCenter(Entity entity) {
-        return new float[]{
-            entity.getX() + entity.getWidth() / 2,
-            entity.getY() + entity.getHeight() / 2
-        };
+    public static float[] getCenter(Entity entity, float[] out) {
+        out[0] = entity.getX() + entity.getWidth() / 2;
+        out[1] = entity.getY() + entity.getHeight() / 2;
+        return out;
     }
     
     /**
      * Calculate distance between two entities' centers
      */
     public static float getDistance(Entity entity1, Entity entity2) {
-        float[] center1 = getCenter(entity1);
-        float[] center2 = getCenter(entity2);
-        float dx = center1[0] - center2[0];
-        float dy = center1[1] - center2[1];
+        float dx = (entity1.getX() + entity1.getWidth() / 2) - (entity2.getX() + entity2.getWidth() / 2);
+        float dy = (entity1.getY() + entity1.getHeight() / 2) - (entity2.getY() + entity2.getHeight() / 2);
         return (float) Math.sqrt(dx * dx + dy * dy);
     }
     
     /**
-     * Find nearby balls that can be picked up
+     * Find nearby balls that can be picked up, using the map's spatial grid
+     */
+    public static Ball findNearbyPickupableBall(Map map, Entity searcher, float distance) {
+        return findNearbyPickupableBall(map.queryNearby(searcher, distance), searcher, distance);
+    }
+    
+    /**
+     * Find nearby unoccupied beds that can be used, using the map's spatial grid
+     */
+    public static Bed findNearbyAvailableBed(Map map, Entity searcher, float distance) {
+        return findNearbyAvailableBed(map.queryNearby(searcher, distance), searcher, distance);
+    }
+    
+    /**
+     * Find nearby beds that can hold an entity, using the map's spatial grid
+     */
+    public static Bed findNearbyHoldableBed(Map map, Entity searcher, float distance) {
+        return findNearbyHoldableBed(map.queryNearby(searcher, distance), searcher, distance);
+    }
+    
+    /**
+     * Find nearby little guys that can pick up items, using the map's spatial grid
+     */
+    public static LittleGuy findNearbyAvailableLittleGuy(Map map, Entity searcher, float distance) {
+        return findNearbyAvailableLittleGuy(map.queryNearby(searcher, distance), searcher, distance);
+    }
+    
+    /**
+     * Find nearby balls that can be picked up.
+     * These run every tick on query results, so they index rather than iterate to avoid allocating.
      */
     public static Ball findNearbyPickupableBall(List<Entity> entities, Entity searcher, float distance) {
-        for (Entity entity : entities) {
+        for (int i = 0; i < entities.size(); i++) {
+            Entity entity = entities.get(i);
             if (entity instanceof Ball) {
                 Ball ball = (Ball) entity;
                 if (ball.isFree() && isNearby(searcher, ball, distance)) {
@@ -104,7 +105,8 @@ public final class EntityManager {
      * Find nearby unoccupied beds that can be used
      */
     public static Bed findNearbyAvailableBed(List<Entity> entities, Entity searcher, float distance) {
-        for (Entity entity : entities) {
+        for (int i = 0; i < entities.size(); i++) {
+            Entity entity = entities.get(i);
             if (entity instanceof Bed) {
                 Bed bed = (Bed) entity;
                 if (!bed.isOccupied() && 
@@ -121,7 +123,8 @@ public final class EntityManager {
      * Find nearby beds that can hold an entity (using holding system)
      */
     public static Bed findNearbyHoldableBed(List<Entity> entities, Entity searcher, float distance) {
-        for (Entity entity : entities) {
+        for (int i = 0; i < entities.size(); i++) {
+            Entity entity = entities.get(i);
             if (entity instanceof Bed) {
                 Bed bed = (Bed) entity;
                 if (!bed.isHolding() && 
@@ -139,7 +142,8 @@ public final class EntityManager {
      * Find nearby little guys that can pick up items
      */
     public static LittleGuy findNearbyAvailableLittleGuy(List<Entity> entities, Entity searcher, float distance) {
-        for (Entity entity : entities) {
+        for (int i = 0; i < entities.size(); i++) {
+            Entity entity = entities.get(i);
             if (entity instanceof LittleGuy) {
                 LittleGuy littleGuy = (LittleGuy) entity;
                 State state = littleGuy.getCurrentState();
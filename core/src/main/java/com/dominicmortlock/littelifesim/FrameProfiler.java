@@ -0,0 +1,106 @@
+package com.dominicmortlock.littelifesim;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+/**
+ * Per-frame timings of the main subsystems over a rolling window of frames, for the profiler overlay.
+ * Probes call {@link #lap} around each section; a section may run several times a frame (one simulation
+ * step each) and its times add up. Callers hold a null profiler while the overlay is hidden, so a disabled
+ * probe costs one null check. Only used on the main thread.
+ */
+public class FrameProfiler {
+    public static final int INPUT = 0;
+    public static final int UPDATE = 1; // Whole simulation steps, particles included
+    public static final int PARTICLES = 2;
+    public static final int RENDER = 3;
+    public static final int FLUSH = 4; // ShapeRenderer.end, where batched shapes go to the GPU
+    public static final int FRAME = 5;
+    static final int SECTION_COUNT = 6;
+    static final String[] SECTION_NAMES = { "input", "update", "particles", "render", "flush", "frame" };
+    
+    private final int window;
+    private final long[][] samples; // Nanoseconds per section per frame, ring buffer over the window
+    private final long[] current;
+    private final long[] allocatedBytes; // Main-thread allocation per frame, same ring
+    private final long[] drawCalls;
+    private final long[] sorted; // Scratch for percentiles, so reading them allocates nothing
+    private int frameIndex;
+    private int frameCount;
+    private long frameStart;
+    private long allocatedAtFrameStart;
+    private final com.sun.management.ThreadMXBean threads; // Null if the JVM cannot count allocations
+    
+    public FrameProfiler(int window) {
+        this.window = window;
+        this.samples = new long[SECTION_COUNT][window];
+        this.current = new long[SECTION_COUNT];
+        this.allocatedBytes = new long[window];
+        this.drawCalls = new long[window];
+        this.sorted = new long[window];
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        this.threads = bean instanceof com.sun.management.ThreadMXBean &&
+                       ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()
+                       ? (com.sun.management.ThreadMXBean) bean : null;
+    }
+    
+    public void beginFrame() {
+        Arrays.fill(current, 0L);
+        allocatedAtFrameStart = allocatedBytes();
+        frameStart = System.nanoTime();
+    }
+    
+    /**
+     * Add the time since start to a section and return the current time, so consecutive sections can chain
+     */
+    public long lap(int section, long start) {
+        long now = System.nanoTime();
+        current[section] += now - start;
+        return now;
+    }
+    
+    /**
+     * Close the frame and push its totals into the window
+     */
+    public void endFrame(int frameDrawCalls) {
+        lap(FRAME, frameStart);
+        for (int section = 0; section < SECTION_COUNT; section++) {
+            samples[section][frameIndex] = current[section];
+        }
+        allocatedBytes[frameIndex] = allocatedBytes() - allocatedAtFrameStart;
+        drawCalls[frameIndex] = frameDrawCalls;
+        frameIndex = (frameIndex + 1) % window;
+        frameCount = Math.min(frameCount + 1, window);
+    }
+    
+    /**
+     * Section time at a percentile (0-100) over the window, in nanoseconds
+     */
+    public long percentile(int section, float percentile) {
+        return percentileOf(samples[section], percentile);
+    }
+    
+    public long allocatedBytesPercentile(float percentile) {
+        return percentileOf(allocatedBytes, percentile);
+    }
+    
+    public long drawCallsPercentile(float percentile) {
+        return percentileOf(drawCalls, percentile);
+    }
+    
+    private long percentileOf(long[] values, float percentile) {
+        if (frameCount == 0) return 0L;
+        System.arraycopy(values, 0, sorted, 0, frameCount);
+        Arrays.sort(sorted, 0, frameCount);
+        int rank = (int) Math.ceil(percentile / 100f * frameCount) - 1;
+        return sorted[Math.max(0, Math.min(frameCount - 1, rank))];
+    }
+    
+    public boolean isCountingAllocations() {
+        return threads != null;
+    }
+    
+    private long allocatedBytes() {
+        return threads != null ? threads.getThreadAllocatedBytes(Thread.currentThread().getId()) : 0L;
+    }
+}
@@ -1,5 +1,7 @@
 package com.dominicmortlock.littelifesim;
 
+import com.badlogic.gdx.Input;
+
 /**
  * Centralized constants for the game to improve maintainability and consistency.
  */
@@ -8,6 +10,23 @@ public final class GameConstants {
     // Window and game dimensions
     public static final int WINDOW_WIDTH = 800;
     public static final int WINDOW_HEIGHT = 600;
+    public static final float WORLD_WIDTH = 2400f; // New worlds are larger than the window; the camera pans across them
+    public static final float WORLD_HEIGHT = 1800f;
+    
+    // Camera
+    public static final float CAMERA_PAN_SPEED = 600f; // Screen pixels per second for keyboard panning
+    public static final float CAMERA_ZOOM_STEP = 1.1f; // Zoom factor per mouse wheel notch
+    public static final float CAMERA_MIN_ZOOM = 0.25f; // World units per screen pixel, fully zoomed in
+    public static final float CULL_MARGIN = 160f; // Drawing extends past an entity's bounds for text and thought bubbles
+    
+    // Simulation timing
+    public static final float SIMULATION_STEP_RATE = 60f; // Fixed simulation steps per second
+    public static final int MAX_SIMULATION_STEPS_PER_FRAME = 5; // Catch-up cap after a frame hitch
+    public static final int UPDATE_CHUNK_SIZE = 256; // Entities per parallel update task
+    public static final int ARCHETYPE_CHUNK_CAPACITY = 1024; // Rows per archetype storage chunk
+    public static final float SPATIAL_CELL_SIZE = 128f; // Spatial hash cell size, a little over the largest entity
+    public static final int SPATIAL_CELL_CAPACITY = 16; // Initial room per grid cell, several times a typical cell's occupancy
+    public static final int SPATIAL_PRESIZE_MAX_CELLS = 1 << 14; // Larger maps create grid cells as entities reach them instead
     
     // Entity dimensions
     public static final float LITTLE_GUY_WIDTH = 40f;
@@ -31,6 +50,16 @@ public final class GameConstants {
     public static final float WALL_BOUNCE_DAMPING = 0.5f;
     public static final float FRICTION = 0.8f;
     public static final float MIN_BOUNCE_VELOCITY = 20f;
+    public static final float COLLISION_RESTITUTION = 0.5f; // Bounciness of entity-vs-entity hits
+    
+    // Continuous collision: bodies travelling further than this fraction of their smallest side in a step are swept
+    public static final float CCD_TRAVEL_FRACTION = 0.5f;
+    public static final int CCD_MAX_SUBSTEPS = 8; // Physics sub-steps per simulation step for the fastest bodies
+    
+    // Collision layers; a pair collides only if each entity's mask includes the other's layer
+    public static final int COLLISION_LAYER_LITTLE_GUY = 1;
+    public static final int COLLISION_LAYER_BALL = 1 << 1;
+    public static final int COLLISION_LAYER_BED = 1 << 2;
     
     // Movement and timing
     public static final float WALK_SPEED = 50f;
@@ -67,6 +96,7 @@ public final class GameConstants {
     public static final float DUST_VERTICAL_SPREAD = 8f;
     public static final float DUST_MIN_SPEED = 25f;
     public static final float DUST_MAX_SPEED = 60f;
+    public static final int MAX_PARTICLES = 65536; // Live particle budget; new particles are dropped beyond it
     
     // Visual constants
     public static final float PILLOW_WIDTH = 50f;
@@ -79,10 +109,31 @@ public final class GameConstants {
     public static final float CHAR_WIDTH = 12f;
     public static final float CHAR_HEIGHT = 16f;
     public static final float BOLD_THICKNESS = 2f;
+    public static final int GLYPH_CACHE_MAX_LAYOUTS = 64; // Distinct strings kept laid out; the least recently drawn go first
     
     // Ball transition constants
     public static final float BALL_TRANSITION_DURATION = 0.3f;
     
+    // Profiler overlay
+    public static final int PROFILER_TOGGLE_KEY = Input.Keys.F3;
+    public static final int PROFILER_WINDOW_FRAMES = 240; // Rolling window for the percentiles, about 4 s at 60 fps
+    public static final float PROFILER_REFRESH_INTERVAL = 0.5f; // Seconds between overlay text updates
+    
+    // JMX monitoring
+    public static final String MONITOR_OBJECT_NAME = "com.dominicmortlock.littelifesim:type=Simulation";
+    public static final float MONITOR_SAMPLE_INTERVAL = 1f; // Seconds between memory estimates published over JMX
+    
+    // Persistence
+    public static final String WORLD_SAVE_FILE = "littlelifesim.sav"; // Relative to the working directory
+    
+    // World streaming
+    public static final String STREAM_DIRECTORY = "littlelifesim-regions"; // Region files, relative to the working directory
+    public static final float STREAM_CHUNK_SIZE = 1024f; // World units per side of a streamed chunk
+    public static final int STREAM_RESIDENT_RADIUS = 1; // Chunks kept in memory beyond each edge of the view
+    public static final int STREAM_REGION_CHUNKS = 16; // Chunks per side of one region file
+    public static final int STREAM_PASS_TICKS = 30; // Ticks between streaming passes
+    public static final int STREAM_MAX_OPEN_REGIONS = 16; // Region files kept open by the I/O thread
+    
     // Private constructor to prevent instantiation
     private GameConstants() {
         throw new UnsupportedOperationException("Constants class should not be instantiated");
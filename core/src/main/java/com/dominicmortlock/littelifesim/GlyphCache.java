@@ -0,0 +1,192 @@
+package com.dominicmortlock.littelifesim;
+
+import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Pixel-art glyphs for text above entities, rasterised once and laid out once per distinct string.
+ * Each character's pattern is painted into a bitmap and re-emitted as the fewest non-overlapping rectangles,
+ * so strokes no longer double up as text fades. Only touched from the render thread.
+ */
+final class GlyphCache {
+    private static final int CELL_WIDTH = (int) GameConstants.CHAR_WIDTH;
+    private static final int CELL_HEIGHT = (int) GameConstants.CHAR_HEIGHT;
+    private static final float ADVANCE = GameConstants.CHAR_WIDTH + 1f; // Character width + spacing
+    
+    private static final float[][] GLYPHS = new float[128][]; // Indexed by ASCII code; null falls back to the default
+    private static final float[] DEFAULT_GLYPH = rasterise(new float[][]{{0, 0, 3, 4}});
+    
+    // Least recently drawn strings are dropped first, so the few labels on screen stay cached as other text churns
+    private static final LinkedHashMap<String, Layout> layouts =
+        new LinkedHashMap<String, Layout>(GameConstants.GLYPH_CACHE_MAX_LAYOUTS * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(java.util.Map.Entry<String, Layout> eldest) {
+                return size() > GameConstants.GLYPH_CACHE_MAX_LAYOUTS;
+            }
+        };
+    
+    static {
+        float t = GameConstants.BOLD_THICKNESS;
+        
+        // Each pattern is an array of rectangles: [x, y, width, height]
+        define('.', new float[][]{{2, 0, t, t}});
+        define('!', new float[][]{{2, 2, t, 4}, {2, 0, t, t}});
+        define('?', new float[][]{{0, 5, 4, t}, {3, 3, t, t}, {2, 2, t, t}, {2, 0, t, t}});
+        define('z', new float[][]{{0, 3, 4, t}, {3, 2, t, t}, {1, 1, t, t}, {0, 0, 4, t}});
+        define('Z', new float[][]{{0, 5, 4, t}, {3, 4, t, t}, {2, 3, t, t}, {1, 2, t, t}, {0, 0, 4, t}});
+        define('h', new float[][]{{0, 0, t, 6}, {1, 3, t, t}, {3, 0, t, 4}});
+        define('m', new float[][]{{0, 0, t, 4}, {1, 3, t, t}, {3, 0, t, 4}, {4, 3, t, t}, {6, 0, t, 4}});
+    }
+    
+    private GlyphCache() {
+        throw new UnsupportedOperationException("Utility class should not be instantiated");
+    }
+    
+    /**
+     * The laid-out geometry for a string, built on first use
+     */
+    static Layout layout(String text) {
+        Layout layout = layouts.get(text);
+        if (layout == null) {
+            layout = buildLayout(text);
+            layouts.put(text, layout);
+        }
+        return layout;
+    }
+    
+    private static Layout buildLayout(String text) {
+        int inkLength = 0;
+        for (int i = 0; i < text.length(); i++) {
+            inkLength += glyph(text.charAt(i)).length;
+        }
+        
+        float[] ink = new float[inkLength];
+        int written = 0;
+        for (int i = 0; i < text.length(); i++) {
+            float[] glyph = glyph(text.charAt(i));
+            float offsetX = i * ADVANCE;
+            for (int r = 0; r < glyph.length; r += 4) {
+                ink[written + r] = glyph[r] + offsetX;
+                ink[written + r + 1] = glyph[r + 1];
+                ink[written + r + 2] = glyph[r + 2];
+                ink[written + r + 3] = glyph[r + 3];
+            }
+            written += glyph.length;
+        }
+        
+        // One background behind the whole string, covering each character's cell plus a 1px margin
+        float[] fill = {-1f, -1f, text.length() * ADVANCE + 1f, CELL_HEIGHT + 2f};
+        return new Layout(fill, ink);
+    }
+    
+    private static float[] glyph(char c) {
+        float[] glyph = c < GLYPHS.length ? GLYPHS[c] : null;
+        return glyph != null ? glyph : DEFAULT_GLYPH;
+    }
+    
+    private static void define(char c, float[][] pattern) {
+        GLYPHS[c] = rasterise(pattern);
+    }
+    
+    /**
+     * Paint a pattern into a cell-sized bitmap and cover the lit pixels with whichever of row or column runs
+     * needs fewer rectangles, merging runs that span the same pixels on neighbouring rows or columns
+     */
+    private static float[] rasterise(float[][] pattern) {
+        boolean[][] lit = new boolean[CELL_HEIGHT][CELL_WIDTH];
+        for (float[] rect : pattern) {
+            int x0 = Math.max(0, (int) rect[0]);
+            int y0 = Math.max(0, (int) rect[1]);
+            int x1 = Math.min(CELL_WIDTH, (int) (rect[0] + rect[2]));
+            int y1 = Math.min(CELL_HEIGHT, (int) (rect[1] + rect[3]));
+            for (int y = y0; y < y1; y++) {
+                for (int x = x0; x < x1; x++) {
+                    lit[y][x] = true;
+                }
+            }
+        }
+        
+        List<int[]> rows = cover(lit, false);
+        List<int[]> columns = cover(lit, true);
+        List<int[]> runs = columns.size() < rows.size() ? columns : rows;
+        
+        float[] rects = new float[runs.size() * 4];
+        for (int i = 0; i < runs.size(); i++) {
+            int[] run = runs.get(i);
+            for (int j = 0; j < 4; j++) {
+                rects[i * 4 + j] = run[j];
+            }
+        }
+        return rects;
+    }
+    
+    /**
+     * Runs of lit pixels along each row (or column), each grown across the next line while it spans the same pixels
+     */
+    private static List<int[]> cover(boolean[][] lit, boolean byColumn) {
+        int lines = byColumn ? CELL_WIDTH : CELL_HEIGHT;
+        int length = byColumn ? CELL_HEIGHT : CELL_WIDTH;
+        List<int[]> runs = new ArrayList<>(); // Start along the line, line, run length, line count
+        for (int line = 0; line < lines; line++) {
+            int i = 0;
+            while (i < length) {
+                if (!(byColumn ? lit[i][line] : lit[line][i])) {
+                    i++;
+                    continue;
+                }
+                int start = i;
+                while (i < length && (byColumn ? lit[i][line] : lit[line][i])) {
+                    i++;
+                }
+                int[] run = null;
+                for (int[] candidate : runs) {
+                    if (candidate[0] == start && candidate[2] == i - start && candidate[1] + candidate[3] == line) {
+                        run = candidate;
+                        break;
+                    }
+                }
+                if (run != null) {
+                    run[3]++;
+                } else {
+                    runs.add(new int[]{start, line, i - start, 1});
+                }
+            }
+        }
+        
+        // As x, y, width, height
+        List<int[]> rects = new ArrayList<>(runs.size());
+        for (int[] run : runs) {
+            rects.add(byColumn ? new int[]{run[1], run[0], run[3], run[2]} : run);
+        }
+        return rects;
+    }
+    
+    /**
+     * Rectangles relative to an origin, as flat [x, y, width, height] runs: a white fill drawn first
+     * and black ink drawn over it, so a whole piece of text is two colour changes and one pass of rects
+     */
+    static final class Layout {
+        private final float[] fill;
+        private final float[] ink;
+        
+        Layout(float[] fill, float[] ink) {
+            this.fill = fill;
+            this.ink = ink;
+        }
+        
+        void draw(ShapeRenderer shapeRenderer, float x, float y, float alpha) {
+            shapeRenderer.setColor(1f, 1f, 1f, alpha * 0.9f);
+            drawRects(shapeRenderer, fill, x, y);
+            shapeRenderer.setColor(0f, 0f, 0f, alpha);
+            drawRects(shapeRenderer, ink, x, y);
+        }
+        
+        private static void drawRects(ShapeRenderer shapeRenderer, float[] rects, float x, float y) {
+            for (int i = 0; i < rects.length; i += 4) {
+                shapeRenderer.rect(x + rects[i], y + rects[i + 1], rects[i + 2], rects[i + 3]);
+            }
+        }
+    }
+}
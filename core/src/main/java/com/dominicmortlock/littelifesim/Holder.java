@@ -30,9 +30,10 @@ public interface Holder {
     /**
      * Get the position where the held entity should be positioned
      * @param holdable The entity being held
-     * @return Array of [x, y] coordinates
+     * @param out Receives the [x, y] coordinates
+     * @return out
      */
-    float[] getHoldingPosition(Holdable holdable);
+    float[] getHoldingPosition(Holdable holdable, float[] out);
     
     /**
      * Called when the holder starts being dragged - should drop held entity
@@ -4,6 +4,8 @@ package com.dominicmortlock.littelifesim;
  * Utility class for managing holding relationships between entities
  */
 public class HoldingSystem {
+    // Scratch position per update thread, so following a holder does not allocate
+    private static final ThreadLocal<float[]> HOLDING_POSITION = ThreadLocal.withInitial(() -> new float[2]);
     
     /**
      * Establish a holding relationship between holder and holdable
@@ -22,21 +24,38 @@ public class HoldingSystem {
         // Establish the relationship
         holder.pickupHoldable(holdable);
         holdable.startBeingHeld(holder);
+        
+        SimulationTracer tracer = tracerFor(holder);
+        if (tracer != null) {
+            tracer.holdingStarted(holder, holdable);
+        }
     }
     
     /**
      * Break a holding relationship
      */
     public static void stopHolding(Holder holder, Holdable holdable) {
+        boolean released = false;
         if (holder != null && holder.getHeldEntity() == holdable) {
             holder.dropHeldEntity();
+            released = true;
         }
         
         if (holdable != null && holdable.getCurrentHolder() == holder) {
             holdable.releaseFromHolder();
+            released = true;
+        }
+        
+        SimulationTracer tracer = tracerFor(holder);
+        if (released && tracer != null) {
+            tracer.holdingStopped(holder, holdable);
         }
     }
     
+    private static SimulationTracer tracerFor(Holder holder) {
+        return holder instanceof Entity && ((Entity) holder).map != null ? ((Entity) holder).map.getTracer() : null;
+    }
+    
     /**
      * Drop held entity with physics
      */
@@ -54,7 +73,7 @@ public class HoldingSystem {
     public static void updateHeldPosition(Holder holder) {
         if (holder.isHolding()) {
             Holdable held = holder.getHeldEntity();
-            float[] position = holder.getHoldingPosition(held);
+            float[] position = holder.getHoldingPosition(held, HOLDING_POSITION.get());
             
             if (held instanceof Entity) {
                 Entity entity = (Entity) held;
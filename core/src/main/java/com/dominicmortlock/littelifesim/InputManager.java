@@ -1,6 +1,8 @@
 package com.dominicmortlock.littelifesim;
 
 import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.math.Vector3;
 import java.util.List;
 
 /**
@@ -11,78 +13,124 @@ public class InputManager {
     private Draggable currentlyDragged;
     private boolean isDragging;
     private float dragOffsetX, dragOffsetY;
+    private ReplayRecorder recorder; // Optional; every press, drag and release is logged with the current tick
     
     public InputManager() {
         this.isDragging = false;
         this.currentlyDragged = null;
     }
     
+    public void setRecorder(ReplayRecorder recorder) {
+        this.recorder = recorder;
+    }
+    
     /**
-     * Process mouse input and handle drag operations
+     * Process mouse input and handle drag operations, in world coordinates seen through the camera
      */
-    public void handleInput(List<Entity> entities) {
-        float mouseX = Gdx.input.getX();
-        float mouseY = GameConstants.WINDOW_HEIGHT - Gdx.input.getY(); // Flip Y coordinate
+    public void handleInput(Map map, WorldCamera camera) {
+        Vector3 pointer = camera.unproject(Gdx.input.getX(), Gdx.input.getY());
+        float mouseX = pointer.x;
+        float mouseY = pointer.y;
         
-        if (Gdx.input.justTouched()) {
-            handleMouseClick(mouseX, mouseY, entities);
+        // The other buttons pan the camera
+        if (Gdx.input.justTouched() && Gdx.input.isButtonPressed(Input.Buttons.LEFT)) {
+            press(map, mouseX, mouseY);
         }
         
         if (isDragging && currentlyDragged != null) {
             if (Gdx.input.isTouched()) {
-                updateDraggedEntityPosition(mouseX, mouseY);
+                drag(map, mouseX, mouseY);
             } else {
-                handleMouseRelease();
+                release(map);
             }
         }
     }
     
-    private void handleMouseClick(float mouseX, float mouseY, List<Entity> entities) {
-        Draggable clickedEntity = findClickedEntity(mouseX, mouseY, entities);
+    /**
+     * Pick up whatever is under the pointer. Together with {@link #drag} and {@link #release} this is the
+     * whole input surface, so a replay can drive it without a window.
+     */
+    public void press(Map map, float mouseX, float mouseY) {
+        record(ReplayRecorder.PRESS, map, mouseX, mouseY);
+        handleMouseClick(mouseX, mouseY, map);
+    }
+    
+    /**
+     * Move the dragged entity with the pointer
+     */
+    public void drag(Map map, float mouseX, float mouseY) {
+        if (!isDragging || currentlyDragged == null) return;
+        record(ReplayRecorder.DRAG, map, mouseX, mouseY);
+        updateDraggedEntityPosition(mouseX, mouseY);
+    }
+    
+    /**
+     * Let go of the dragged entity
+     */
+    public void release(Map map) {
+        if (!isDragging || currentlyDragged == null) return;
+        record(ReplayRecorder.RELEASE, map, 0f, 0f);
+        handleMouseRelease();
+    }
+    
+    private void record(byte type, Map map, float mouseX, float mouseY) {
+        if (recorder != null) {
+            recorder.recordInput(type, map.getTickCount(), mouseX, mouseY);
+        }
+    }
+    
+    private void handleMouseClick(float mouseX, float mouseY, Map map) {
+        Draggable clickedEntity = findClickedEntity(mouseX, mouseY, map);
         
         if (clickedEntity != null) {
             startDragging(clickedEntity, mouseX, mouseY);
         }
     }
     
-    private Draggable findClickedEntity(float mouseX, float mouseY, List<Entity> entities) {
-        // Check entities in priority order: Ball > LittleGuy (if in bed) > LittleGuy > Bed
-        Ball ball = findEntityOfType(entities, Ball.class);
-        LittleGuy littleGuy = findEntityOfType(entities, LittleGuy.class);
-        Bed bed = findEntityOfType(entities, Bed.class);
+    private Draggable findClickedEntity(float mouseX, float mouseY, Map map) {
+        // Check entities in priority order: Ball > Bed (if a little guy sleeps in it) > LittleGuy > Bed
+        List<Ball> balls = map.getEntitiesOfType(Ball.class);
+        List<LittleGuy> littleGuys = map.getEntitiesOfType(LittleGuy.class);
+        List<Bed> beds = map.getEntitiesOfType(Bed.class);
         
         // Ball has highest priority
-        if (ball != null && ball.isPointInside(mouseX, mouseY)) {
-            return ball;
+        for (int i = 0; i < balls.size(); i++) {
+            Ball ball = balls.get(i);
+            if (ball.isPointInside(mouseX, mouseY)) {
+                return ball;
+            }
         }
         
-        // Special case: if little guy is sleeping in bed, prioritize bed
-        if (littleGuy != null && littleGuy.getCurrentState() == State.SLEEPING_IN_BED && 
-            bed != null && bed.isPointInside(mouseX, mouseY)) {
-            return bed;
+        // Special case: if a little guy is sleeping in the bed, prioritize the bed
+        for (int i = 0; i < beds.size(); i++) {
+            Bed bed = beds.get(i);
+            if (isSleepingInBed(bed.getOccupant(), bed) && bed.isPointInside(mouseX, mouseY)) {
+                return bed;
+            }
         }
         
-        // Then check little guy
-        if (littleGuy != null && littleGuy.isPointInside(mouseX, mouseY)) {
-            return littleGuy;
+        // Then check little guys
+        for (int i = 0; i < littleGuys.size(); i++) {
+            LittleGuy littleGuy = littleGuys.get(i);
+            if (littleGuy.isPointInside(mouseX, mouseY)) {
+                return littleGuy;
+            }
         }
         
-        // Finally check bed
-        if (bed != null && bed.isPointInside(mouseX, mouseY)) {
-            return bed;
+        // Finally check beds
+        for (int i = 0; i < beds.size(); i++) {
+            Bed bed = beds.get(i);
+            if (bed.isPointInside(mouseX, mouseY)) {
+                return bed;
+            }
         }
         
         return null;
     }
     
-    @SuppressWarnings("unchecked")
-    private <T extends Entity> T findEntityOfType(List<Entity> entities, Class<T> type) {
-        for (Entity entity : entities) {
-            if (type.isInstance(entity)) {
-                return (T) entity;
-            }
-        }
-        return null;
+    private boolean isSleepingInBed(Entity occupant, Bed bed) {
+        return occupant instanceof LittleGuy && bed.isOccupied() &&
+               ((LittleGuy) occupant).getCurrentState() == State.SLEEPING_IN_BED;
     }
     
     private void startDragging(Draggable entity, float mouseX, float mouseY) {
@@ -0,0 +1,20 @@
+package com.dominicmortlock.littelifesim;
+
+/**
+ * Cross-entity effects that an entity may request while updating.
+ * During the parallel update phase these are recorded instead of applied, then resolved
+ * one by one in a deterministic order once every entity has finished updating.
+ */
+public enum Interaction {
+    PICKUP_NEARBY_BALL,         // LittleGuy picks up a free ball it is touching
+    ENTER_NEARBY_BED,           // LittleGuy climbs into an available bed it walked into
+    SNAP_TO_NEARBY_BED,         // Settled LittleGuy snaps into a bed that can hold it
+    LEAVE_BED,                  // LittleGuy frees the bed it was sleeping in (target = bed)
+    THROW_BALL,                 // LittleGuy throws its ball (target = ball, a/b = velocity)
+    ATTACH_TO_NEARBY_LITTLE_GUY, // Settled ball snaps to a little guy that can catch it
+    FOLLOW_HOLDER,              // Caught or carried ball moves with its carrier (a = deltaTime)
+    SPAWN_DUST,                 // Physics impact emits dust (a/b = position, c = impact velocity)
+    WAKE,                       // Sleeping entity rejoins the active set
+    WAKE_NEARBY_BALLS,          // Available LittleGuy wakes sleeping balls that could snap to it (a = distance)
+    WAKE_NEARBY_LITTLE_GUYS     // Moving ball or free bed wakes sleeping little guys that could use it (a = distance)
+}
@@ -0,0 +1,214 @@
+package com.dominicmortlock.littelifesim;
+
+/**
+ * Records interactions requested by one chunk of entities during the parallel update phase.
+ * Stored as parallel arrays presized for a full update chunk, so recording a command does not allocate.
+ */
+public class InteractionBuffer {
+    // Each entity moves cell or changes z at most once a step, but may request a few interactions and timers
+    private static final int ENTITY_CAPACITY = GameConstants.UPDATE_CHUNK_SIZE;
+    private static final int COMMAND_CAPACITY = GameConstants.UPDATE_CHUNK_SIZE * 4;
+    
+    private Interaction[] interactions;
+    private Entity[] subjects;
+    private Entity[] targets;
+    private float[] args; // Three float arguments per command
+    private int size;
+    private Entity[] movedEntities; // Entities that crossed a spatial grid cell
+    private int movedCount;
+    private Entity[] restackedEntities; // Entities whose z changed
+    private int restackedCount;
+    private TimerWheel.Timer[] timers; // Timers to schedule or cancel
+    private long[] timerDelays; // Delay in ticks, negative to cancel
+    private int timerCount;
+    
+    public InteractionBuffer() {
+        interactions = new Interaction[COMMAND_CAPACITY];
+        subjects = new Entity[COMMAND_CAPACITY];
+        targets = new Entity[COMMAND_CAPACITY];
+        args = new float[COMMAND_CAPACITY * 3];
+        size = 0;
+        movedEntities = new Entity[ENTITY_CAPACITY];
+        movedCount = 0;
+        restackedEntities = new Entity[ENTITY_CAPACITY];
+        restackedCount = 0;
+        timers = new TimerWheel.Timer[COMMAND_CAPACITY];
+        timerDelays = new long[COMMAND_CAPACITY];
+        timerCount = 0;
+    }
+    
+    public void record(Interaction interaction, Entity subject, Entity target, float a, float b, float c) {
+        if (size == interactions.length) {
+            grow();
+        }
+        interactions[size] = interaction;
+        subjects[size] = subject;
+        targets[size] = target;
+        args[size * 3] = a;
+        args[size * 3 + 1] = b;
+        args[size * 3 + 2] = c;
+        size++;
+    }
+    
+    /**
+     * Record that an entity moved into another spatial grid cell
+     */
+    public void recordMove(Entity entity) {
+        if (movedCount == movedEntities.length) {
+            Entity[] grown = new Entity[movedEntities.length * 2];
+            System.arraycopy(movedEntities, 0, grown, 0, movedCount);
+            movedEntities = grown;
+        }
+        movedEntities[movedCount++] = entity;
+    }
+    
+    /**
+     * Re-index every entity that changed cell, then forget them
+     */
+    public void applyMoves(SpatialHashGrid grid) {
+        for (int i = 0; i < movedCount; i++) {
+            grid.update(movedEntities[i]);
+            movedEntities[i] = null;
+        }
+        movedCount = 0;
+    }
+    
+    /**
+     * Record that an entity's z changed, so it needs to move to another render layer
+     */
+    public void recordRestack(Entity entity) {
+        if (restackedCount == restackedEntities.length) {
+            Entity[] grown = new Entity[restackedEntities.length * 2];
+            System.arraycopy(restackedEntities, 0, grown, 0, restackedCount);
+            restackedEntities = grown;
+        }
+        restackedEntities[restackedCount++] = entity;
+    }
+    
+    /**
+     * Re-bucket every entity whose z changed, then forget them
+     */
+    public void applyRestacks(RenderLayers renderLayers) {
+        for (int i = 0; i < restackedCount; i++) {
+            renderLayers.update(restackedEntities[i]);
+            restackedEntities[i] = null;
+        }
+        restackedCount = 0;
+    }
+    
+    /**
+     * Record a timer to schedule after a delay in ticks, or to cancel when the delay is negative
+     */
+    public void recordTimer(TimerWheel.Timer timer, long delayTicks) {
+        if (timerCount == timers.length) {
+            TimerWheel.Timer[] grownTimers = new TimerWheel.Timer[timers.length * 2];
+            long[] grownDelays = new long[timers.length * 2];
+            System.arraycopy(timers, 0, grownTimers, 0, timerCount);
+            System.arraycopy(timerDelays, 0, grownDelays, 0, timerCount);
+            timers = grownTimers;
+            timerDelays = grownDelays;
+        }
+        timers[timerCount] = timer;
+        timerDelays[timerCount] = delayTicks;
+        timerCount++;
+    }
+    
+    /**
+     * Schedule or cancel every recorded timer in order, then forget them
+     */
+    public void applyTimers(TimerWheel timerWheel) {
+        for (int i = 0; i < timerCount; i++) {
+            if (timerDelays[i] < 0) {
+                timerWheel.cancel(timers[i]);
+            } else {
+                timerWheel.schedule(timers[i], timerDelays[i]);
+            }
+            timers[i] = null;
+        }
+        timerCount = 0;
+    }
+    
+    /**
+     * Apply every recorded interaction in the order it was recorded, then clear the buffer
+     */
+    public void applyAll(Map map) {
+        for (int i = 0; i < size; i++) {
+            apply(map, interactions[i], subjects[i], targets[i], args[i * 3], args[i * 3 + 1], args[i * 3 + 2]);
+        }
+        clear();
+    }
+    
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            interactions[i] = null;
+            subjects[i] = null;
+            targets[i] = null;
+        }
+        size = 0;
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * Apply a single interaction immediately. Each handler re-checks its preconditions, since an
+     * interaction applied earlier in the same tick may have changed the world since it was recorded.
+     */
+    static void apply(Map map, Interaction interaction, Entity subject, Entity target, float a, float b, float c) {
+        switch (interaction) {
+            case PICKUP_NEARBY_BALL:
+                ((LittleGuy) subject).resolveBallPickup();
+                break;
+            case ENTER_NEARBY_BED:
+                ((LittleGuy) subject).resolveBedInteraction();
+                break;
+            case SNAP_TO_NEARBY_BED:
+                ((LittleGuy) subject).resolveImmediateBedSleep();
+                break;
+            case LEAVE_BED:
+                Bed bed = (Bed) target;
+                if (bed.getOccupant() == subject) {
+                    bed.setOccupied(false, null);
+                }
+                break;
+            case THROW_BALL:
+                ((Ball) target).throwBall(a, b);
+                break;
+            case WAKE:
+                map.wake(subject);
+                break;
+            case WAKE_NEARBY_BALLS:
+                map.wakeNearby(subject, a, Ball.class);
+                break;
+            case WAKE_NEARBY_LITTLE_GUYS:
+                map.wakeNearby(subject, a, LittleGuy.class);
+                break;
+            case ATTACH_TO_NEARBY_LITTLE_GUY:
+                ((Ball) subject).resolvePlayerAttachment();
+                break;
+            case FOLLOW_HOLDER:
+                ((Ball) subject).followHolder(a);
+                break;
+            case SPAWN_DUST:
+                PhysicsComponent.spawnDustParticles(map, a, b, c);
+                break;
+        }
+    }
+    
+    private void grow() {
+        int capacity = interactions.length * 2;
+        Interaction[] newInteractions = new Interaction[capacity];
+        Entity[] newSubjects = new Entity[capacity];
+        Entity[] newTargets = new Entity[capacity];
+        float[] newArgs = new float[capacity * 3];
+        System.arraycopy(interactions, 0, newInteractions, 0, size);
+        System.arraycopy(subjects, 0, newSubjects, 0, size);
+        System.arraycopy(targets, 0, newTargets, 0, size);
+        System.arraycopy(args, 0, newArgs, 0, size * 3);
+        interactions = newInteractions;
+        subjects = newSubjects;
+        targets = newTargets;
+        args = newArgs;
+    }
+}
@@ -1,28 +1,31 @@
 package com.dominicmortlock.littelifesim;
 
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
-import java.util.Random;
+import java.nio.ByteBuffer;
 
 /**
  * An autonomous character that can walk around, sleep, carry balls, and be dragged by the player.
  * Features a state machine with behaviors like idle, walking, sleeping, and throwing.
  */
-public class LittleGuy extends Entity implements Draggable, Holder, Holdable {
+public class LittleGuy extends Entity implements Draggable, Holder, Holdable, Collidable {
     private State currentState;
-    private float stateTimer;
+    private final TimerWheel.Timer stateDeadline; // Ends the current timed state (idle, ponder, throw, bed sleep)
+    private boolean becameAvailable; // Just entered a state where balls can snap to us
     private float targetX;
     private float targetY;
     private float speed;
-    private Random random;
     private TrailEmitter trailEmitter;
     private DraggableComponent draggableComponent;
     private PhysicsComponent physicsComponent;
     private Ball carriedBall; // Ball being carried by this little guy
     private float throwTimer; // Timer for deciding when to throw ball
-    private float pickupCooldown; // Cooldown after throwing to prevent immediate pickup
+    private final TimerWheel.Timer pickupCooldownTimer; // Cooldown after throwing to prevent immediate pickup
+    private boolean pickupCoolingDown;
     private TextDisplay textDisplay;
     private Bed currentBed; // Bed currently being used for sleeping
-    private float bedCooldown; // Cooldown after leaving bed to prevent immediate re-entry
+    private final TimerWheel.Timer bedCooldownTimer; // Cooldown after leaving bed to prevent immediate re-entry
+    private boolean bedCoolingDown;
+    private final float[] sleepingPosition = new float[2]; // Reused when snapping into a bed
     
     // Use constants from GameConstants where available
     private static final float WALK_SPEED = GameConstants.WALK_SPEED;
@@ -43,9 +46,9 @@ public class LittleGuy extends Entity implements Draggable, Holder, Holdable {
     public LittleGuy(float x, float y) {
         super(x, y, GameConstants.LITTLE_GUY_WIDTH, GameConstants.LITTLE_GUY_HEIGHT, GameConstants.Z_MIDDLE_LAYER);
         this.currentState = State.IDLE;
-        this.stateTimer = 0f;
+        this.stateDeadline = new TimerWheel.Timer(timer -> onStateDeadline());
+        this.becameAvailable = true;
         this.speed = WALK_SPEED;
-        this.random = new Random();
         this.targetX = x;
         this.targetY = y;
         this.trailEmitter = new TrailEmitter(this, 1f, 3f); // 1-3 particles per second
@@ -56,75 +59,160 @@ public class LittleGuy extends Entity implements Draggable, Holder, Holdable {
         this.physicsComponent = new PhysicsComponent(this);
         this.carriedBall = null;
         this.throwTimer = 0f;
-        this.pickupCooldown = 0f;
+        this.pickupCooldownTimer = new TimerWheel.Timer(timer -> onPickupCooldownEnd());
+        this.pickupCoolingDown = false;
         this.textDisplay = new TextDisplay(this);
         this.currentBed = null;
-        this.bedCooldown = 0f;
+        this.bedCooldownTimer = new TimerWheel.Timer(timer -> onBedCooldownEnd());
+        this.bedCoolingDown = false;
     }
     
     @Override
     public void update(float deltaTime) {
-        stateTimer += deltaTime;
-        
         // Update draggable component and physics
         draggableComponent.update(deltaTime);
         physicsComponent.update(deltaTime);
-        textDisplay.update(deltaTime);
         
+        // Timed states (idle, pondering, throwing, sleeping in bed) end through stateDeadline instead of polling
         switch (currentState) {
-            case IDLE:
-                updateIdleState();
-                break;
             case WALKING:
                 updateWalkingState(deltaTime);
                 break;
             case PICKED_UP:
                 updatePickedUpState(deltaTime);
                 break;
-            case THROWING:
-                updateThrowingState(deltaTime);
-                break;
-            case PONDERING:
-                updatePonderingState();
-                break;
-            case SLEEPING_IN_BED:
-                updateSleepingInBedState();
+            default:
                 break;
         }
         
-        // Update cooldowns
-        if (pickupCooldown > 0f) {
-            pickupCooldown -= deltaTime;
-        }
-        if (bedCooldown > 0f) {
-            bedCooldown -= deltaTime;
-        }
-        
+        // Interactions with other entities are requested here and resolved after every entity has updated
         // Check for ball pickup when not being dragged and cooldown expired
         // Check more frequently for better collision detection
-        if (currentState != State.PICKED_UP && currentState != State.THROWING && 
-            currentState != State.PONDERING && currentState != State.SLEEPING_IN_BED && 
-            carriedBall == null && pickupCooldown <= 0f) {
-            checkForBallPickup();
+        if (canPickupBall()) {
+            requestInteraction(Interaction.PICKUP_NEARBY_BALL);
         }
         
         // Check for bed interaction when idle or walking (with cooldown)
-        if ((currentState == State.IDLE || currentState == State.WALKING) && 
-            currentBed == null && bedCooldown <= 0f) {
-            checkForBedInteraction();
+        if (canEnterBed()) {
+            requestInteraction(Interaction.ENTER_NEARBY_BED);
         }
         
         // Check for bed snapping when not in bed and physics isn't active (like ball snapping)
-        if (currentBed == null && !physicsComponent.isActive() && 
-            currentState != State.PICKED_UP && currentState != State.SLEEPING_IN_BED) {
+        if (canSnapToBed()) {
+            requestInteraction(Interaction.SNAP_TO_NEARBY_BED);
+        }
+        
+        // Sleeping balls no longer look for us, so wake them when we arrive or become able to catch
+        if (canCatchBalls() && (becameAvailable || x != previousX || y != previousY)) {
+            requestInteraction(Interaction.WAKE_NEARBY_BALLS, null, GameConstants.BALL_SNAP_DISTANCE, 0f, 0f);
+        }
+        becameAvailable = false;
+    }
+    
+    /**
+     * Matches the states EntityManager.findNearbyAvailableLittleGuy accepts for balls snapping to us
+     */
+    private boolean canCatchBalls() {
+        return currentState == State.IDLE || currentState == State.WALKING || currentState == State.PONDERING;
+    }
+    
+    private boolean canPickupBall() {
+        return currentState != State.PICKED_UP && currentState != State.THROWING && 
+               currentState != State.PONDERING && currentState != State.SLEEPING_IN_BED && 
+               carriedBall == null && !pickupCoolingDown;
+    }
+    
+    private boolean canEnterBed() {
+        return (currentState == State.IDLE || currentState == State.WALKING) && 
+               currentBed == null && !bedCoolingDown;
+    }
+    
+    private boolean canSnapToBed() {
+        return currentBed == null && !physicsComponent.isActive() && 
+               currentState != State.PICKED_UP && currentState != State.SLEEPING_IN_BED;
+    }
+    
+    // Interaction resolution - conditions are re-checked since earlier interactions may have changed them
+    void resolveBallPickup() {
+        if (canPickupBall()) {
+            checkForBallPickup();
+        }
+    }
+    
+    void resolveBedInteraction() {
+        if (canEnterBed()) {
+            checkForBedInteraction();
+        }
+    }
+    
+    void resolveImmediateBedSleep() {
+        if (canSnapToBed()) {
             checkForImmediateBedSleep(); // Return value not needed for continuous checking
         }
     }
     
-    private void updateIdleState() {
-        float idleTime = getRandomTime(MIN_IDLE_TIME, MAX_IDLE_TIME);
-        if (stateTimer >= idleTime) {
-            decideNextAction();
+    /**
+     * Resting states with nothing in motion only change through a deadline, an interaction or input,
+     * all of which wake us, so there is nothing to poll in between
+     */
+    @Override
+    public boolean canSleep() {
+        return (currentState == State.IDLE || currentState == State.PONDERING || currentState == State.SLEEPING_IN_BED) &&
+               !physicsComponent.isActive() && draggableComponent.isSettled();
+    }
+    
+    private void onStateDeadline() {
+        switch (currentState) {
+            case IDLE:
+                decideNextAction();
+                break;
+            case THROWING:
+            case PONDERING:
+                startIdling();
+                break;
+            case SLEEPING_IN_BED:
+                // Wake up and leave bed
+                wakeUpFromBed();
+                break;
+            default:
+                break;
+        }
+        wake();
+    }
+    
+    private void onPickupCooldownEnd() {
+        pickupCoolingDown = false;
+        wake();
+    }
+    
+    private void onBedCooldownEnd() {
+        bedCoolingDown = false;
+        wake();
+    }
+    
+    private void scheduleStateDeadline(float seconds) {
+        if (map != null) {
+            map.schedule(stateDeadline, seconds);
+        }
+    }
+    
+    private void cancelStateDeadline() {
+        if (map != null) {
+            map.cancel(stateDeadline);
+        }
+    }
+    
+    private void startPickupCooldown() {
+        if (map != null) {
+            pickupCoolingDown = true;
+            map.schedule(pickupCooldownTimer, PICKUP_COOLDOWN_TIME);
+        }
+    }
+    
+    private void startBedCooldown() {
+        if (map != null) {
+            bedCoolingDown = true;
+            map.schedule(bedCooldownTimer, BED_COOLDOWN_TIME);
         }
     }
     
@@ -160,21 +248,20 @@ public class LittleGuy extends Entity implements Draggable, Holder, Holdable {
     private void checkForBedInteraction() {
         if (map == null) return;
         
-        Bed availableBed = EntityManager.findNearbyAvailableBed(
-            map.getEntities(), this, BED_INTERACTION_MARGIN);
+        Bed availableBed = EntityManager.findNearbyAvailableBed(map, this, BED_INTERACTION_MARGIN);
         if (availableBed != null) {
             startSleepingInBed(availableBed);
         }
     }
     
     public void startSleepingInBed(Bed bed) {
-        currentState = State.SLEEPING_IN_BED;
-        stateTimer = 0f;
+        setState(State.SLEEPING_IN_BED);
+        scheduleStateDeadline(BED_SLEEP_TIME);
         currentBed = bed;
         
         // Move to sleeping position in bed
-        float[] sleepingPos = bed.getSleepingPosition(this);
-        setPosition(sleepingPos[0], sleepingPos[1]);
+        bed.getSleepingPosition(this, sleepingPosition);
+        setPosition(sleepingPosition[0], sleepingPosition[1]);
         
         // Occupy the bed
         bed.setOccupied(true, this);
@@ -193,17 +280,17 @@ public class LittleGuy extends Entity implements Draggable, Holder, Holdable {
     
     public void wakeUpFromBed() {
         if (currentBed != null) {
-            currentBed.setOccupied(false, null);
+            requestInteraction(Interaction.LEAVE_BED, currentBed);
             currentBed = null;
         }
-        bedCooldown = BED_COOLDOWN_TIME; // Start cooldown
+        startBedCooldown();
         startIdling();
     }
     
     public void releaseFromBed() {
         // Clear bed reference without calling back to bed (avoid circular calls)
         currentBed = null;
-        bedCooldown = BED_COOLDOWN_TIME; // Start cooldown
+        startBedCooldown();
         startIdling();
     }
     
@@ -212,6 +299,16 @@ public class LittleGuy extends Entity implements Draggable, Holder, Holdable {
         return currentBed;
     }
     
+    /**
+     * Every behaviour transition goes through here so an installed tracer sees it
+     */
+    private void setState(State next) {
+        if (map != null && map.getTracer() != null && next != currentState) {
+            map.getTracer().stateChanged(this, currentState, next);
+        }
+        currentState = next;
+    }
+    
     public State getCurrentState() {
         return currentState;
     }
@@ -232,8 +329,9 @@ public class LittleGuy extends Entity implements Draggable, Holder, Holdable {
     }
     
     private void startWalking() {
-        currentState = State.WALKING;
-        stateTimer = 0f;
+        setState(State.WALKING);
+        cancelStateDeadline(); // Walking ends on arrival, not on a deadline
+        becameAvailable = true;
         
         // Set walking mood (low chance to show)
         textDisplay.setMood("...", 0.1f, 1.5f); // 10% chance when walking, 1.5s duration
@@ -249,8 +347,9 @@ public class LittleGuy extends Entity implements Draggable, Holder, Holdable {
     }
     
     private void startIdling() {
-        currentState = State.IDLE;
-        stateTimer = 0f;
+        setState(State.IDLE);
+        scheduleStateDeadline(getRandomTime(MIN_IDLE_TIME, MAX_IDLE_TIME));
+        becameAvailable = true;
         
         // Set mood based on context (low chance for idle)
         if (carriedBall != null) {
@@ -268,34 +367,13 @@ public class LittleGuy extends Entity implements Draggable, Holder, Holdable {
         draggableComponent.updateDrag(deltaTime);
     }
     
-    private void updateThrowingState(float deltaTime) {
-        // Wait for throw animation to complete
-        if (stateTimer >= THROW_ANIMATION_TIME) {
-            // Throw completed, go to idle
-            startIdling();
-        }
-    }
-    
-    private void updatePonderingState() {
-        float ponderTime = getRandomTime(MIN_PONDER_TIME, MAX_PONDER_TIME);
-        if (stateTimer >= ponderTime) {
-            startIdling();
-        }
-    }
-    
-    private void updateSleepingInBedState() {
-        if (stateTimer >= BED_SLEEP_TIME) {
-            // Wake up and leave bed
-            wakeUpFromBed();
-        }
-    }
-    
     private void startPondering() {
-        currentState = State.PONDERING;
-        stateTimer = 0f;
+        setState(State.PONDERING);
+        becameAvailable = true;
         
         // Show thoughtful mood (match ponder duration)
         float ponderDuration = getRandomTime(MIN_PONDER_TIME, MAX_PONDER_TIME);
+        scheduleStateDeadline(ponderDuration);
         textDisplay.setMood("hmm", 1.0f, ponderDuration);
         
         // Deactivate trail particles
@@ -305,8 +383,7 @@ public class LittleGuy extends Entity implements Draggable, Holder, Holdable {
     private void checkForBallPickup() {
         if (map == null) return;
         
-        Ball nearbyBall = EntityManager.findNearbyPickupableBall(
-            map.getEntities(), this, COLLISION_MARGIN);
+        Ball nearbyBall = EntityManager.findNearbyPickupableBall(map, this, COLLISION_MARGIN);
         if (nearbyBall != null) {
             pickupBall(nearbyBall);
         }
@@ -337,8 +414,8 @@ public class LittleGuy extends Entity implements Draggable, Holder, Holdable {
             return;
         }
         
-        currentState = State.THROWING;
-        stateTimer = 0f;
+        setState(State.THROWING);
+        scheduleStateDeadline(THROW_ANIMATION_TIME); // Back to idle once the throw animation completes
         
         // Set throwing mood (high chance to show)
         textDisplay.setMood("!", 0.9f, 1f); // 90% chance when throwing, 1s duration
@@ -357,12 +434,12 @@ public class LittleGuy extends Entity implements Draggable, Holder, Holdable {
         
         float throwVelocityY = 120f + random.nextFloat() * 80f; // 120-200 pixels/sec upward
         
-        carriedBall.throwBall(throwVelocityX, throwVelocityY);
+        requestInteraction(Interaction.THROW_BALL, carriedBall, throwVelocityX, throwVelocityY, 0f);
         carriedBall = null;
         throwTimer = 0f;
         
         // Start pickup cooldown
-        pickupCooldown = PICKUP_COOLDOWN_TIME;
+        startPickupCooldown();
     }
     
     // Draggable interface implementation
@@ -378,8 +455,8 @@ public class LittleGuy extends Entity implements Draggable, Holder, Holdable {
             wakeUpFromBed();
         }
         
-        currentState = State.PICKED_UP;
-        stateTimer = 0f;
+        setState(State.PICKED_UP);
+        cancelStateDeadline(); // Held by the player until dropped
         trailEmitter.setActive(false);
         
         // Drop any carried ball when picked up (use new system)
@@ -419,17 +496,11 @@ public class LittleGuy extends Entity implements Draggable, Holder, Holdable {
         if (map == null) return false;
         
         // Find nearby beds that can hold (like the ball snapping)
-        for (Entity entity : map.getEntities()) {
-            if (entity instanceof Bed) {
-                Bed bed = (Bed) entity;
-                if (!bed.isHolding() && 
-                    !bed.getDraggableComponent().isBeingDragged() && 
-                    EntityManager.isNearby(this, bed, GameConstants.SNAP_DISTANCE)) {
-                    // Use the holding system for consistency
-                    HoldingSystem.startHolding(bed, this);
-                    return true; // Successfully snapped to bed
-                }
-            }
+        Bed bed = EntityManager.findNearbyHoldableBed(map, this, GameConstants.SNAP_DISTANCE);
+        if (bed != null) {
+            // Use the holding system for consistency
+            HoldingSystem.startHolding(bed, this);
+            return true; // Successfully snapped to bed
         }
         return false; // No bed found
     }
@@ -449,11 +520,70 @@ public class LittleGuy extends Entity implements Draggable, Holder, Holdable {
         if (map != null && trailEmitter != null) {
             map.getParticleSystem().addEmitter(trailEmitter);
         }
+        if (map != null && currentState == State.IDLE) {
+            // The initial idle period could not be scheduled before there was a map
+            scheduleStateDeadline(getRandomTime(MIN_IDLE_TIME, MAX_IDLE_TIME));
+        }
         if (physicsComponent != null) {
             physicsComponent.setMap(map);
         }
     }
     
+    /**
+     * Save slots: LINK carried ball, SECOND_LINK current bed, TIMER state deadline, SECOND_TIMER pickup
+     * cooldown, THIRD_TIMER bed cooldown, VALUE and SECOND_VALUE walk target
+     */
+    @Override
+    void writeSnapshot(ByteBuffer buffer, int offset) {
+        super.writeSnapshot(buffer, offset);
+        // Held by the player: saved as idle where it hangs, since drags are not saved
+        State savedState = currentState == State.PICKED_UP ? State.IDLE : currentState;
+        buffer.put(offset + WorldSnapshot.STATE, (byte) savedState.ordinal());
+        WorldSnapshot.writePhysics(buffer, offset, physicsComponent);
+        buffer.putInt(offset + WorldSnapshot.LINK, WorldSnapshot.indexOf(carriedBall));
+        buffer.putInt(offset + WorldSnapshot.SECOND_LINK, WorldSnapshot.indexOf(currentBed));
+        buffer.putInt(offset + WorldSnapshot.TIMER, WorldSnapshot.ticksUntil(map, stateDeadline));
+        buffer.putInt(offset + WorldSnapshot.SECOND_TIMER, WorldSnapshot.ticksUntil(map, pickupCooldownTimer));
+        buffer.putInt(offset + WorldSnapshot.THIRD_TIMER, WorldSnapshot.ticksUntil(map, bedCooldownTimer));
+        buffer.putFloat(offset + WorldSnapshot.VALUE, targetX);
+        buffer.putFloat(offset + WorldSnapshot.SECOND_VALUE, targetY);
+    }
+    
+    @Override
+    Entity getLink(int slot) {
+        return slot == 0 ? carriedBall : slot == 1 ? currentBed : null;
+    }
+    
+    @Override
+    void onRemoved() {
+        map.cancel(stateDeadline);
+        map.cancel(pickupCooldownTimer);
+        map.cancel(bedCooldownTimer);
+        map.getParticleSystem().removeEmitter(trailEmitter);
+    }
+    
+    @Override
+    void readSnapshot(ByteBuffer buffer, int offset, Entity[] entities) {
+        super.readSnapshot(buffer, offset, entities);
+        currentState = State.values()[buffer.get(offset + WorldSnapshot.STATE)];
+        WorldSnapshot.readPhysics(buffer, offset, physicsComponent);
+        carriedBall = (Ball) WorldSnapshot.entityAt(entities, buffer.getInt(offset + WorldSnapshot.LINK));
+        currentBed = (Bed) WorldSnapshot.entityAt(entities, buffer.getInt(offset + WorldSnapshot.SECOND_LINK));
+        targetX = buffer.getFloat(offset + WorldSnapshot.VALUE);
+        targetY = buffer.getFloat(offset + WorldSnapshot.SECOND_VALUE);
+        
+        WorldSnapshot.restoreTimer(map, stateDeadline, buffer.getInt(offset + WorldSnapshot.TIMER));
+        pickupCoolingDown = WorldSnapshot.restoreTimer(map, pickupCooldownTimer, buffer.getInt(offset + WorldSnapshot.SECOND_TIMER));
+        bedCoolingDown = WorldSnapshot.restoreTimer(map, bedCooldownTimer, buffer.getInt(offset + WorldSnapshot.THIRD_TIMER));
+        if (currentState == State.IDLE && !stateDeadline.isScheduled()) {
+            // Saved while held by the player, so there was no idle period running
+            scheduleStateDeadline(getRandomTime(MIN_IDLE_TIME, MAX_IDLE_TIME));
+        }
+        
+        trailEmitter.setActive(currentState == State.WALKING);
+        becameAvailable = true;
+    }
+    
     @Override
     public void render(ShapeRenderer shapeRenderer) {
         // Change color based on state
@@ -478,10 +608,37 @@ public class LittleGuy extends Entity implements Draggable, Holder, Holdable {
         textDisplay.render(shapeRenderer);
     }
     
+    @Override
     public PhysicsComponent getPhysicsComponent() {
         return physicsComponent;
     }
     
+    // Collidable interface implementation
+    @Override
+    public int getCollisionLayer() {
+        return GameConstants.COLLISION_LAYER_LITTLE_GUY;
+    }
+    
+    @Override
+    public int getCollisionMask() {
+        return GameConstants.COLLISION_LAYER_BALL;
+    }
+    
+    @Override
+    public boolean isCollisionEnabled() {
+        return currentState != State.PICKED_UP && currentState != State.SLEEPING_IN_BED;
+    }
+    
+    @Override
+    public boolean ignoresCollisionWith(Entity other) {
+        return false;
+    }
+    
+    @Override
+    public boolean isKnockable() {
+        return false; // Little guys stand their ground; balls bounce off them
+    }
+    
     // Holder interface implementation (for holding balls)
     @Override
     public void pickupHoldable(Holdable holdable) {
@@ -506,17 +663,19 @@ public class LittleGuy extends Entity implements Draggable, Holder, Holdable {
     }
     
     @Override
-    public float[] getHoldingPosition(Holdable holdable) {
+    public float[] getHoldingPosition(Holdable holdable, float[] out) {
         // Position ball at player's position (x=0 relative) and halfway up (y=0.5*height relative)
         // This matches the original Ball positioning: centered on left edge, halfway up
         if (holdable instanceof Ball) {
             Ball ball = (Ball) holdable;
-            float ballX = getX() - ball.getWidth() / 2; // Centered on left edge of player
-            float ballY = getY() + height / 2 - ball.getHeight() / 2; // Halfway up player, centered on ball
-            return new float[]{ballX, ballY};
+            out[0] = getX() - ball.getWidth() / 2; // Centered on left edge of player
+            out[1] = getY() + height / 2 - ball.getHeight() / 2; // Halfway up player, centered on ball
+            return out;
         }
         // Default positioning for other holdables
-        return new float[]{getX(), getY() + height / 2};
+        out[0] = getX();
+        out[1] = getY() + height / 2;
+        return out;
     }
     
     @Override
@@ -543,8 +702,8 @@ public class LittleGuy extends Entity implements Draggable, Holder, Holdable {
         // Player uses physics component for drops
         if (physicsComponent != null) {
             physicsComponent.launch(
-                (float)(Math.random() - 0.5) * 200, // Random horizontal velocity -100 to +100
-                100 + (float)Math.random() * 100     // Upward velocity 100-200
+                (random.nextFloat() - 0.5f) * 200, // Random horizontal velocity -100 to +100
+                100 + random.nextFloat() * 100      // Upward velocity 100-200
             );
         }
     }
@@ -5,6 +5,13 @@ import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 import com.badlogic.gdx.utils.ScreenUtils;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import javax.management.JMException;
 
 /**
  * Main game class that handles the core game loop and rendering.
@@ -12,45 +19,255 @@ import com.badlogic.gdx.utils.ScreenUtils;
  */
 public class Main extends ApplicationAdapter {
     private ShapeRenderer shapeRenderer;
+    private ParticleMeshRenderer particleMeshRenderer;
     private Map map;
     private InputManager inputManager;
-
+    private WorldCamera camera;
+    private SimulationClock simulationClock;
+    private SimulationMonitor monitor;
+    private ProfilerOverlay profilerOverlay; // Created the first time the overlay is shown
+    private boolean profilerVisible;
+    private final Path recordPath; // Where to log a replay of this session, or null
+    private ReplayRecorder recorder;
+    private WorldStreamer streamer; // Pages far-off chunks to disk; off while recording, since replays run the whole map
+    private List<StoredChunk> regionIndex; // Chunks the map left in region files; null if unknown, and then never saved
+    private boolean streamingFailed; // The map and region files may disagree, so the previous save is kept
+    
+    public Main() {
+        this(null);
+    }
+    
+    /**
+     * @param recordPath start a fresh default world and log its seed and all input there, for replaying headless;
+     *                   that world is not saved, so the player's save is left alone
+     */
+    public Main(Path recordPath) {
+        this.recordPath = recordPath;
+    }
+    
     @Override
     public void create() {
         shapeRenderer = new ShapeRenderer();
-        map = new Map(GameConstants.WINDOW_WIDTH, GameConstants.WINDOW_HEIGHT);
+        map = recordPath != null ? createWorld() : loadOrCreateWorld();
+        map.setTracer(SimulationTracer.findInstalled());
+        particleMeshRenderer = new ParticleMeshRenderer();
+        map.getParticleSystem().setMeshRenderer(particleMeshRenderer);
         inputManager = new InputManager();
+        camera = new WorldCamera(map.getWidth(), map.getHeight());
+        camera.resize(Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
+        Gdx.input.setInputProcessor(camera);
+        simulationClock = new SimulationClock(GameConstants.SIMULATION_STEP_RATE,
+                                              GameConstants.MAX_SIMULATION_STEPS_PER_FRAME);
+        monitor = new SimulationMonitor(map, GameConstants.SIMULATION_STEP_RATE);
+        try {
+            monitor.register();
+        } catch (JMException e) {
+            Gdx.app.error("Main", "Could not register the simulation MBean", e);
+        }
+        if (recordPath == null && regionIndex != null) {
+            try {
+                streamer = new WorldStreamer(map, Paths.get(GameConstants.STREAM_DIRECTORY), regionIndex);
+            } catch (IOException e) {
+                Gdx.app.error("Main", "Could not open " + GameConstants.STREAM_DIRECTORY + ", keeping the whole world in memory", e);
+            }
+        }
+        if (recordPath != null) {
+            try {
+                recorder = new ReplayRecorder(recordPath, map, GameConstants.SIMULATION_STEP_RATE);
+                inputManager.setRecorder(recorder);
+                monitor.setRecorder(recorder);
+            } catch (IOException e) {
+                Gdx.app.error("Main", "Could not record to " + recordPath, e);
+            }
+        }
+    }
+    
+    /**
+     * Pick up where the last session left off, or start the default world if there is no save.
+     * Region files are only trusted, and only cleared, alongside a save that loaded. If the save is there but
+     * does not load, a new world runs without streaming and is not saved over it.
+     */
+    private Map loadOrCreateWorld() {
+        Path savePath = Paths.get(GameConstants.WORLD_SAVE_FILE);
+        if (!Files.exists(savePath)) {
+            // Nothing points into any region files left in the directory; the streamer writes after them
+            regionIndex = new ArrayList<>();
+            return createWorld();
+        }
         
-        // Create entities
-        LittleGuy littleGuy = new LittleGuy(380, 270);
-        map.addEntity(littleGuy);
-        
-        Ball ball = new Ball(200, 200);
-        map.addEntity(ball);
-        
-        Bed bed = new Bed(600, 100);
-        map.addEntity(bed);
+        List<StoredChunk> loadedIndex = new ArrayList<>();
+        Map loaded;
+        try {
+            loaded = WorldSnapshot.load(savePath, loadedIndex);
+        } catch (IOException | RuntimeException e) {
+            Gdx.app.error("Main", "Could not load " + savePath + ", starting a new world that will not be saved over it", e);
+            return createWorld();
+        }
+        if (!hasStoredChunks(loadedIndex)) {
+            // The save keeps the whole world, so whatever is in the region files belongs to no save
+            try {
+                WorldStreamer.deleteRegionFiles(Paths.get(GameConstants.STREAM_DIRECTORY));
+                loadedIndex.clear();
+            } catch (IOException e) {
+                Gdx.app.error("Main", "Could not clear " + GameConstants.STREAM_DIRECTORY, e);
+            }
+        }
+        regionIndex = loadedIndex;
+        return loaded;
     }
-
+    
+    private static boolean hasStoredChunks(List<StoredChunk> index) {
+        for (StoredChunk chunk : index) {
+            if (chunk.isStored()) return true;
+        }
+        return false;
+    }
+    
+    private Map createWorld() {
+        Map world = new Map(GameConstants.WORLD_WIDTH, GameConstants.WORLD_HEIGHT);
+        WorldBuilder.populateDefault(world);
+        return world;
+    }
+    
     @Override
     public void render() {
-        float deltaTime = Gdx.graphics.getDeltaTime();
+        float frameTime = Gdx.graphics.getDeltaTime();
+        
+        if (Gdx.input.isKeyJustPressed(GameConstants.PROFILER_TOGGLE_KEY)) {
+            toggleProfiler();
+        }
+        FrameProfiler profiler = profilerVisible ? profilerOverlay.getProfiler() : null;
+        long sectionStart = 0L;
+        if (profiler != null) {
+            profiler.beginFrame();
+            sectionStart = System.nanoTime();
+        }
         
-        // Handle mouse input
-        inputManager.handleInput(map.getEntities());
+        // Move the camera first so input is unprojected through this frame's view
+        camera.update(frameTime);
+        inputManager.handleInput(map, camera);
+        if (profiler != null) {
+            sectionStart = profiler.lap(FrameProfiler.INPUT, sectionStart);
+        }
         
-        // Update game logic
-        map.updateAll(deltaTime);
+        // Update game logic in fixed steps, independent of the display refresh rate. The monitor's rate
+        // changes how many steps run per second, not their size, so replays and saves stay reproducible
+        monitor.update();
+        simulationClock.setStepRate(monitor.getSimulationRate());
+        int steps = monitor.stepsToRun(simulationClock.advance(frameTime));
+        for (int i = 0; i < steps; i++) {
+            long tickStart = System.nanoTime();
+            map.updateAll(1f / GameConstants.SIMULATION_STEP_RATE);
+            monitor.recordTick(System.nanoTime() - tickStart);
+            if (recorder != null) {
+                recorder.recordTick(map);
+            }
+        }
+        if (profiler != null) {
+            sectionStart = profiler.lap(FrameProfiler.UPDATE, sectionStart);
+        }
+        if (streamer != null) {
+            streamer.update(camera.getView());
+            if (streamer.getError() != null) {
+                Gdx.app.error("Main", "World streaming failed, keeping the rest of the world in memory", streamer.getError());
+                closeStreamer();
+            }
+        }
+        if (recorder != null && recorder.getError() != null) {
+            Gdx.app.error("Main", "Could not write to " + recordPath + ", recording stopped", recorder.getError());
+            inputManager.setRecorder(null);
+            monitor.setRecorder(null);
+            recorder = null;
+        }
         
         // Render
         ScreenUtils.clear(1f, 1f, 1f, 1f);
+        shapeRenderer.setProjectionMatrix(camera.getCombined());
         shapeRenderer.begin(ShapeRenderer.ShapeType.Filled);
-        map.renderAll(shapeRenderer);
+        map.renderAll(shapeRenderer, simulationClock.getAlpha(), camera.getView());
+        if (profiler != null) {
+            sectionStart = profiler.lap(FrameProfiler.RENDER, sectionStart);
+        }
         shapeRenderer.end();
+        
+        if (profiler != null) {
+            profiler.lap(FrameProfiler.FLUSH, sectionStart);
+            profiler.endFrame(profilerOverlay.getDrawCalls());
+            profilerOverlay.render(map, frameTime);
+        }
     }
-
+    
+    @Override
+    public void resize(int width, int height) {
+        if (camera != null) {
+            camera.resize(width, height);
+        }
+        if (profilerOverlay != null) {
+            profilerOverlay.resize(width, height);
+        }
+    }
+    
+    /**
+     * Stop streaming and keep its region index for the save
+     * @return Whether streaming finished cleanly; if not, the map may not match the region files
+     */
+    private boolean closeStreamer() {
+        if (streamer == null) return !streamingFailed;
+        try {
+            streamer.close();
+            regionIndex = streamer.getStoredChunks();
+        } catch (IOException e) {
+            Gdx.app.error("Main", "World streaming failed", e);
+            streamingFailed = true;
+        }
+        streamer = null;
+        return !streamingFailed;
+    }
+    
+    private void toggleProfiler() {
+        if (profilerOverlay == null) {
+            profilerOverlay = new ProfilerOverlay();
+        }
+        profilerVisible = !profilerVisible;
+        profilerOverlay.setVisible(profilerVisible);
+        map.setProfiler(profilerVisible ? profilerOverlay.getProfiler() : null);
+    }
+    
     @Override
     public void dispose() {
+        try {
+            monitor.unregister();
+        } catch (JMException e) {
+            Gdx.app.error("Main", "Could not unregister the simulation MBean", e);
+        }
+        // Finish streaming I/O first; the save points into the region files it leaves behind
+        boolean streamingClean = closeStreamer();
+        if (recordPath != null) {
+            // A recorded session plays a fresh default world, not the player's. Saving it would replace their
+            // save, and the next launch would delete the region files holding the rest of their world
+            Gdx.app.log("Main", "Not saving the recorded world over " + GameConstants.WORLD_SAVE_FILE);
+        } else if (!streamingClean) {
+            Gdx.app.error("Main", "Not saving the world after streaming failed, the previous save is kept");
+        } else if (regionIndex == null) {
+            Gdx.app.error("Main", "Not saving over " + GameConstants.WORLD_SAVE_FILE + ", which could not be loaded");
+        } else {
+            try {
+                WorldSnapshot.save(map, regionIndex, Paths.get(GameConstants.WORLD_SAVE_FILE));
+            } catch (IOException e) {
+                Gdx.app.error("Main", "Could not save the world", e);
+            }
+        }
+        if (recorder != null) {
+            try {
+                recorder.close();
+            } catch (IOException e) {
+                Gdx.app.error("Main", "Could not finish " + recordPath, e);
+            }
+        }
+        if (profilerOverlay != null) {
+            profilerOverlay.dispose();
+        }
         shapeRenderer.dispose();
+        particleMeshRenderer.dispose();
     }
 }
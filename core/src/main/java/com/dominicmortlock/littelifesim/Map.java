@@ -1,56 +1,681 @@
 package com.dominicmortlock.littelifesim;
 
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import com.badlogic.gdx.math.Rectangle;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 public class Map {
     private List<Entity> entities;
+    
+    // Per-type buckets, kept in step with the entity list so typed lookups and update loops need no scans
+    private final List<LittleGuy> littleGuys;
+    private final List<Ball> balls;
+    private final List<Bed> beds;
+    private final List<Entity> otherEntities;
+    
+    // Active subsets of the buckets; only these are updated, settled entities sleep until woken
+    private final List<LittleGuy> activeLittleGuys;
+    private final List<Ball> activeBalls;
+    private final List<Bed> activeBeds;
+    private final List<Entity> activeOtherEntities;
+    private final IdentityHashMap<Class<?>, List<? extends Entity>> typeViews;
+    
     private ParticleSystem particleSystem;
+    private ArchetypeStore archetypeStore;
+    private ArchetypePhysicsSystem archetypePhysics;
+    private ArchetypeRenderSystem archetypeRender;
+    private SpatialHashGrid spatialGrid;
+    private RenderLayers renderLayers; // Render order, kept apart from update order
+    private TimerWheel timerWheel; // Agent deadlines, advanced once per step
+    private CollisionSystem collisionSystem; // Entity-vs-entity contacts, resolved in the interaction phase
+    private FrameProfiler profiler; // Null unless the profiler overlay is shown
+    private SimulationTracer tracer; // Null unless a tracer is installed
+    private float stepSize;
+    private double simulationTime;
+    private long tickCount;
+    private final long seed; // Master seed; every entity and the particle system split their random streams from it
+    private final SimRandom random;
+    private List<Entity> queryResults; // Reused by proximity queries, which only run single-threaded
     private float width;
     private float height;
     
+    // Two-phase update: entities update in parallel chunks, then recorded interactions are applied in order
+    private final ThreadLocal<InteractionBuffer> currentBuffer;
+    private InteractionBuffer[] chunkBuffers;
+    private ForkJoinPool updatePool;
+    private int updateParallelism;
+    private int littleGuyChunks;
+    private int ballChunks;
+    private int bedChunks;
+    
+    /**
+     * A map with a fresh master seed, so every session plays out differently
+     */
     public Map(float width, float height) {
+        this(width, height, SimRandom.mix(System.nanoTime()));
+    }
+    
+    /**
+     * A map whose random behaviour is fully determined by the seed, for replays and reproducible runs
+     */
+    public Map(float width, float height, long seed) {
         this.width = width;
         this.height = height;
+        this.seed = seed;
+        this.random = new SimRandom(seed);
         entities = new ArrayList<>();
+        littleGuys = new ArrayList<>();
+        balls = new ArrayList<>();
+        beds = new ArrayList<>();
+        otherEntities = new ArrayList<>();
+        activeLittleGuys = new ArrayList<>();
+        activeBalls = new ArrayList<>();
+        activeBeds = new ArrayList<>();
+        activeOtherEntities = new ArrayList<>();
+        typeViews = new IdentityHashMap<>();
+        typeViews.put(Entity.class, Collections.unmodifiableList(entities));
+        typeViews.put(LittleGuy.class, Collections.unmodifiableList(littleGuys));
+        typeViews.put(Ball.class, Collections.unmodifiableList(balls));
+        typeViews.put(Bed.class, Collections.unmodifiableList(beds));
         particleSystem = new ParticleSystem();
+        particleSystem.setSeed(random.splitSeed());
+        archetypeStore = new ArchetypeStore();
+        archetypePhysics = new ArchetypePhysicsSystem();
+        archetypeRender = new ArchetypeRenderSystem();
+        spatialGrid = new SpatialHashGrid(GameConstants.SPATIAL_CELL_SIZE);
+        // Create every cell inside the map up front, so entities wandering into new cells never allocate
+        long gridCells = ((long) Math.ceil(width / GameConstants.SPATIAL_CELL_SIZE) + 1) *
+                         ((long) Math.ceil(height / GameConstants.SPATIAL_CELL_SIZE) + 1);
+        if (gridCells <= GameConstants.SPATIAL_PRESIZE_MAX_CELLS) {
+            spatialGrid.reserve(0f, 0f, width, height);
+        }
+        renderLayers = new RenderLayers();
+        timerWheel = new TimerWheel();
+        collisionSystem = new CollisionSystem();
+        stepSize = 1f / GameConstants.SIMULATION_STEP_RATE;
+        simulationTime = 0.0;
+        queryResults = new ArrayList<>(GameConstants.SPATIAL_CELL_CAPACITY * 9); // A nearby query spans about 3x3 cells
+        currentBuffer = new ThreadLocal<>();
+        chunkBuffers = new InteractionBuffer[0];
+        updateParallelism = Runtime.getRuntime().availableProcessors();
     }
     
     public void addEntity(Entity entity) {
         entity.setMap(this);
         entities.add(entity);
+        if (entity instanceof LittleGuy) {
+            littleGuys.add((LittleGuy) entity);
+        } else if (entity instanceof Ball) {
+            balls.add((Ball) entity);
+        } else if (entity instanceof Bed) {
+            beds.add((Bed) entity);
+        } else {
+            otherEntities.add(entity);
+        }
+        entity.sleeping = false;
+        activate(entity);
+        spatialGrid.insert(entity);
+        renderLayers.add(entity);
+        collisionSystem.add(entity);
+        
+        // Presize the per-chunk buffers for every entity being awake at once, so waking never grows them mid-tick
+        ensureChunkBuffers(chunksFor(littleGuys.size()) + chunksFor(balls.size()) + chunksFor(beds.size()) +
+                           chunksFor(otherEntities.size()));
     }
     
     public void removeEntity(Entity entity) {
         entities.remove(entity);
+        if (entity instanceof LittleGuy) {
+            littleGuys.remove(entity);
+        } else if (entity instanceof Ball) {
+            balls.remove(entity);
+        } else if (entity instanceof Bed) {
+            beds.remove(entity);
+        } else {
+            otherEntities.remove(entity);
+        }
+        if (entity.active) {
+            deactivate(entity);
+        }
+        spatialGrid.remove(entity);
+        renderLayers.remove(entity);
+        collisionSystem.remove(entity);
+        entity.onRemoved();
+    }
+    
+    /**
+     * Remove many entities at once. Entities are marked, then every list is compacted in a single pass,
+     * so removing k entities costs one walk over each list rather than k of them.
+     */
+    public void removeEntities(List<? extends Entity> removed) {
+        if (removed.isEmpty()) return;
+        for (int i = 0; i < removed.size(); i++) {
+            removed.get(i).removing = true;
+        }
+        
+        removeMarked(entities);
+        removeMarked(littleGuys);
+        removeMarked(balls);
+        removeMarked(beds);
+        removeMarked(otherEntities);
+        removeMarked(activeLittleGuys);
+        removeMarked(activeBalls);
+        removeMarked(activeBeds);
+        removeMarked(activeOtherEntities);
+        renderLayers.removeMarked();
+        collisionSystem.removeMarked();
+        
+        for (int i = 0; i < removed.size(); i++) {
+            Entity entity = removed.get(i);
+            entity.removing = false;
+            entity.active = false;
+            spatialGrid.remove(entity);
+            entity.onRemoved();
+        }
+    }
+    
+    /**
+     * Drop entities marked for removal from a list, keeping the order of the rest
+     */
+    static <T extends Entity> void removeMarked(List<T> list) {
+        int kept = 0;
+        for (int i = 0; i < list.size(); i++) {
+            T entity = list.get(i);
+            if (!entity.removing) {
+                list.set(kept++, entity);
+            }
+        }
+        for (int i = list.size() - 1; i >= kept; i--) {
+            list.remove(i);
+        }
     }
     
     public List<Entity> getEntities() {
         return entities;
     }
     
+    /**
+     * Read-only view of all entities of a bucketed type (LittleGuy, Ball, Bed, or Entity for everything).
+     * The view is live and shared, so no list is allocated per call.
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends Entity> List<T> getEntitiesOfType(Class<T> type) {
+        List<? extends Entity> view = typeViews.get(type);
+        if (view == null) {
+            throw new IllegalArgumentException("Entities are not bucketed by type: " + type.getName());
+        }
+        return (List<T>) view;
+    }
+    
+    /**
+     * First entity of a bucketed type, or null if there is none
+     */
+    public <T extends Entity> T findEntityOfType(Class<T> type) {
+        List<T> view = getEntitiesOfType(type);
+        return view.isEmpty() ? null : view.get(0);
+    }
+    
+    /**
+     * Advance the simulation by one step.
+     * Entities update in parallel in fixed-size chunks and only record interactions that touch other
+     * entities or shared systems. The recorded interactions are then applied chunk by chunk on the
+     * calling thread, so the outcome does not depend on how many threads took part.
+     * Chunks never mix types: each type bucket is split separately, in the order little guys, balls,
+     * beds, then anything else, so every update loop stays monomorphic.
+     * Only active entities are updated; sleeping ones cost nothing until something wakes them.
+     */
     public void updateAll(float deltaTime) {
-        for (Entity entity : entities) {
-            entity.update(deltaTime);
+        stepSize = deltaTime;
+        simulationTime += deltaTime;
+        tickCount++;
+        if (tracer != null) {
+            tracer.beginTick(tickCount);
+        }
+        
+        // Deadlines fire first, on this thread; their owners are woken so they update this step
+        beginPhase(SimulationTracer.Phase.TIMERS);
+        timerWheel.advance();
+        endPhase(SimulationTracer.Phase.TIMERS);
+        
+        littleGuyChunks = chunksFor(activeLittleGuys.size());
+        ballChunks = chunksFor(activeBalls.size());
+        bedChunks = chunksFor(activeBeds.size());
+        int chunkCount = littleGuyChunks + ballChunks + bedChunks + chunksFor(activeOtherEntities.size());
+        ensureChunkBuffers(chunkCount);
+        
+        // Phase 1: per-entity updates, interactions recorded into per-chunk buffers
+        beginPhase(SimulationTracer.Phase.ENTITY_UPDATE);
+        if (chunkCount > 1 && updateParallelism > 1) {
+            getUpdatePool().invoke(new UpdateChunksTask(0, chunkCount, deltaTime));
+        } else {
+            for (int chunk = 0; chunk < chunkCount; chunk++) {
+                updateChunk(chunk, deltaTime);
+            }
+        }
+        endPhase(SimulationTracer.Phase.ENTITY_UPDATE);
+        
+        // Phase 2: bring the spatial grid and render layers up to date, then resolve interactions in chunk order
+        beginPhase(SimulationTracer.Phase.APPLY_INTERACTIONS);
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            chunkBuffers[chunk].applyMoves(spatialGrid);
+            chunkBuffers[chunk].applyRestacks(renderLayers);
+            chunkBuffers[chunk].applyTimers(timerWheel);
         }
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            chunkBuffers[chunk].applyAll(this);
+        }
+        endPhase(SimulationTracer.Phase.APPLY_INTERACTIONS);
+        
+        // Entity-vs-entity contacts, once catches and pickups have settled who is free to collide
+        beginPhase(SimulationTracer.Phase.COLLISIONS);
+        collisionSystem.update(deltaTime);
+        endPhase(SimulationTracer.Phase.COLLISIONS);
+        
+        // Entities that settled this step and were not woken by an interaction leave the active set
+        beginPhase(SimulationTracer.Phase.RETIRE_SLEEPERS);
+        retireSleepers(activeLittleGuys);
+        retireSleepers(activeBalls);
+        retireSleepers(activeBeds);
+        retireSleepers(activeOtherEntities);
+        endPhase(SimulationTracer.Phase.RETIRE_SLEEPERS);
+        
+        // Archetype-stored entities are simulated per component column rather than per object
+        beginPhase(SimulationTracer.Phase.ARCHETYPE_PHYSICS);
+        archetypePhysics.update(archetypeStore, deltaTime, width, height);
+        endPhase(SimulationTracer.Phase.ARCHETYPE_PHYSICS);
+        
+        long particlesStart = profiler != null ? System.nanoTime() : 0L;
+        beginPhase(SimulationTracer.Phase.PARTICLES);
         particleSystem.update(deltaTime);
+        endPhase(SimulationTracer.Phase.PARTICLES);
+        if (profiler != null) {
+            profiler.lap(FrameProfiler.PARTICLES, particlesStart);
+        }
+        
+        if (tracer != null) {
+            tracer.endTick(tickCount, getActiveEntityCount());
+        }
     }
     
-    public void renderAll(ShapeRenderer shapeRenderer) {
-        // Render particles first (behind entities)
-        particleSystem.render(shapeRenderer);
+    private void beginPhase(SimulationTracer.Phase phase) {
+        if (tracer != null) {
+            tracer.beginPhase(phase);
+        }
+    }
+    
+    private void endPhase(SimulationTracer.Phase phase) {
+        if (tracer != null) {
+            tracer.endPhase(phase);
+        }
+    }
+    
+    private static int chunksFor(int size) {
+        return (size + GameConstants.UPDATE_CHUNK_SIZE - 1) / GameConstants.UPDATE_CHUNK_SIZE;
+    }
+    
+    private void updateChunk(int chunk, float deltaTime) {
+        currentBuffer.set(chunkBuffers[chunk]);
+        try {
+            // Separate loops per concrete type give each update call site a single receiver class
+            if (chunk < littleGuyChunks) {
+                updateLittleGuys(chunk * GameConstants.UPDATE_CHUNK_SIZE, deltaTime);
+                return;
+            }
+            chunk -= littleGuyChunks;
+            if (chunk < ballChunks) {
+                updateBalls(chunk * GameConstants.UPDATE_CHUNK_SIZE, deltaTime);
+                return;
+            }
+            chunk -= ballChunks;
+            if (chunk < bedChunks) {
+                updateBeds(chunk * GameConstants.UPDATE_CHUNK_SIZE, deltaTime);
+                return;
+            }
+            chunk -= bedChunks;
+            updateOtherEntities(chunk * GameConstants.UPDATE_CHUNK_SIZE, deltaTime);
+        } finally {
+            // Clear rather than remove, so the thread's entry is reused instead of reallocated next time
+            currentBuffer.set(null);
+        }
+    }
+    
+    private void updateLittleGuys(int start, float deltaTime) {
+        int end = Math.min(start + GameConstants.UPDATE_CHUNK_SIZE, activeLittleGuys.size());
+        for (int i = start; i < end; i++) {
+            LittleGuy littleGuy = activeLittleGuys.get(i);
+            littleGuy.savePreviousPosition();
+            littleGuy.update(deltaTime);
+            littleGuy.sleeping = littleGuy.canSleep();
+        }
+    }
+    
+    private void updateBalls(int start, float deltaTime) {
+        int end = Math.min(start + GameConstants.UPDATE_CHUNK_SIZE, activeBalls.size());
+        for (int i = start; i < end; i++) {
+            Ball ball = activeBalls.get(i);
+            ball.savePreviousPosition();
+            ball.update(deltaTime);
+            ball.sleeping = ball.canSleep();
+        }
+    }
+    
+    private void updateBeds(int start, float deltaTime) {
+        int end = Math.min(start + GameConstants.UPDATE_CHUNK_SIZE, activeBeds.size());
+        for (int i = start; i < end; i++) {
+            Bed bed = activeBeds.get(i);
+            bed.savePreviousPosition();
+            bed.update(deltaTime);
+            bed.sleeping = bed.canSleep();
+        }
+    }
+    
+    private void updateOtherEntities(int start, float deltaTime) {
+        int end = Math.min(start + GameConstants.UPDATE_CHUNK_SIZE, activeOtherEntities.size());
+        for (int i = start; i < end; i++) {
+            Entity entity = activeOtherEntities.get(i);
+            entity.savePreviousPosition();
+            entity.update(deltaTime);
+            entity.sleeping = entity.canSleep();
+        }
+    }
+    
+    /**
+     * Fire a timer after a delay in simulated seconds, rounded to the nearest step (at least one).
+     * Recorded during the parallel update phase and applied in chunk order, so firing order stays deterministic.
+     */
+    public void schedule(TimerWheel.Timer timer, float delaySeconds) {
+        long delayTicks = Math.max(1L, Math.round(delaySeconds / stepSize));
+        InteractionBuffer buffer = currentBuffer.get();
+        if (buffer != null) {
+            buffer.recordTimer(timer, delayTicks);
+        } else {
+            timerWheel.schedule(timer, delayTicks);
+        }
+    }
+    
+    public void cancel(TimerWheel.Timer timer) {
+        InteractionBuffer buffer = currentBuffer.get();
+        if (buffer != null) {
+            buffer.recordTimer(timer, -1L);
+        } else {
+            timerWheel.cancel(timer);
+        }
+    }
+    
+    /**
+     * Simulated seconds since the map was created
+     */
+    public double getSimulationTime() {
+        return simulationTime;
+    }
+    
+    /**
+     * Steps taken since the map was created; input recorded for replays is stamped with this
+     */
+    public long getTickCount() {
+        return tickCount;
+    }
+    
+    public long getSeed() {
+        return seed;
+    }
+    
+    /**
+     * Seed for the next entity added, so each entity's random stream depends only on the master seed and insertion order.
+     * Entities are only added from the main thread.
+     */
+    long nextEntitySeed() {
+        return random.splitSeed();
+    }
+    
+    /**
+     * Carry the simulation clock over from a save
+     */
+    void restoreSimulationTime(double simulationTime) {
+        this.simulationTime = simulationTime;
+    }
+    
+    /**
+     * Time the map's own sections into the given profiler, or stop timing them with null
+     */
+    public void setProfiler(FrameProfiler profiler) {
+        this.profiler = profiler;
+    }
+    
+    /**
+     * Report ticks, phases and behaviour events to the given tracer, or stop with null
+     */
+    public void setTracer(SimulationTracer tracer) {
+        this.tracer = tracer;
+    }
+    
+    public SimulationTracer getTracer() {
+        return tracer;
+    }
+    
+    public TimerWheel getTimerWheel() {
+        return timerWheel;
+    }
+    
+    public CollisionSystem getCollisionSystem() {
+        return collisionSystem;
+    }
+    
+    /**
+     * Put a sleeping entity back into the active set.
+     * During the parallel update phase the active lists are being iterated, so the wake is recorded instead.
+     */
+    void wake(Entity entity) {
+        InteractionBuffer buffer = currentBuffer.get();
+        if (buffer != null) {
+            buffer.record(Interaction.WAKE, entity, null, 0f, 0f, 0f);
+            return;
+        }
         
-        // Sort entities by Z-axis (back to front: lower Z first)
-        entities.sort(Comparator.comparing(Entity::getZ));
+        entity.sleeping = false;
+        if (!entity.active) {
+            activate(entity);
+        }
+    }
+    
+    /**
+     * Wake every sleeping entity of a type within a distance of the given entity
+     */
+    void wakeNearby(Entity entity, float distance, Class<? extends Entity> type) {
+        List<Entity> nearby = queryNearby(entity, distance);
+        for (int i = 0; i < nearby.size(); i++) {
+            Entity other = nearby.get(i);
+            if (other.sleeping && type.isInstance(other)) {
+                wake(other);
+            }
+        }
+    }
+    
+    public int getActiveEntityCount() {
+        return activeLittleGuys.size() + activeBalls.size() + activeBeds.size() + activeOtherEntities.size();
+    }
+    
+    private void activate(Entity entity) {
+        entity.active = true;
+        if (entity instanceof LittleGuy) {
+            activeLittleGuys.add((LittleGuy) entity);
+        } else if (entity instanceof Ball) {
+            activeBalls.add((Ball) entity);
+        } else if (entity instanceof Bed) {
+            activeBeds.add((Bed) entity);
+        } else {
+            activeOtherEntities.add(entity);
+        }
+    }
+    
+    private void deactivate(Entity entity) {
+        entity.active = false;
+        if (entity instanceof LittleGuy) {
+            activeLittleGuys.remove(entity);
+        } else if (entity instanceof Ball) {
+            activeBalls.remove(entity);
+        } else if (entity instanceof Bed) {
+            activeBeds.remove(entity);
+        } else {
+            activeOtherEntities.remove(entity);
+        }
+    }
+    
+    /**
+     * Drop sleeping entities from an active list, keeping the order of the rest
+     */
+    private static <T extends Entity> void retireSleepers(List<T> active) {
+        int kept = 0;
+        for (int i = 0; i < active.size(); i++) {
+            T entity = active.get(i);
+            if (entity.sleeping) {
+                entity.active = false;
+                // Stop render interpolation from blending toward a position it already reached
+                entity.savePreviousPosition();
+            } else {
+                active.set(kept++, entity);
+            }
+        }
+        for (int i = active.size() - 1; i >= kept; i--) {
+            active.remove(i);
+        }
+    }
+    
+    /**
+     * Keep the spatial grid in step with an entity's position.
+     * During the parallel update phase the grid is shared, so the move is recorded and applied afterwards.
+     */
+    void onEntityMoved(Entity entity) {
+        if (!spatialGrid.needsUpdate(entity)) return;
         
-        // Then render entities in Z-order
-        for (Entity entity : entities) {
-            entity.render(shapeRenderer);
+        InteractionBuffer buffer = currentBuffer.get();
+        if (buffer != null) {
+            buffer.recordMove(entity);
+        } else {
+            spatialGrid.update(entity);
+        }
+    }
+    
+    /**
+     * Keep the render layers in step with an entity's z, deferred like moves during the parallel phase
+     */
+    void onEntityZChanged(Entity entity) {
+        InteractionBuffer buffer = currentBuffer.get();
+        if (buffer != null) {
+            buffer.recordRestack(entity);
+        } else {
+            renderLayers.update(entity);
         }
     }
     
+    /**
+     * Find entities whose bounds come within a margin of the given entity's bounds (including itself).
+     * The returned list is reused by the next query, so consume it before querying again.
+     */
+    public List<Entity> queryNearby(Entity entity, float margin) {
+        return spatialGrid.queryAabb(entity.getX() - margin, entity.getY() - margin,
+                                     entity.getX() + entity.getWidth() + margin,
+                                     entity.getY() + entity.getHeight() + margin, queryResults);
+    }
+    
+    public SpatialHashGrid getSpatialGrid() {
+        return spatialGrid;
+    }
+    
+    /**
+     * Request an interaction that affects other entities or shared systems.
+     * Recorded for later if called during the parallel update phase, applied immediately otherwise
+     * (for example from input handling or while resolving other interactions).
+     */
+    public void defer(Interaction interaction, Entity subject, Entity target, float a, float b, float c) {
+        InteractionBuffer buffer = currentBuffer.get();
+        if (buffer != null) {
+            buffer.record(interaction, subject, target, a, b, c);
+        } else {
+            InteractionBuffer.apply(this, interaction, subject, target, a, b, c);
+        }
+    }
+    
+    public void defer(Interaction interaction, Entity subject, Entity target) {
+        defer(interaction, subject, target, 0f, 0f, 0f);
+    }
+    
+    public void defer(Interaction interaction, Entity subject) {
+        defer(interaction, subject, null, 0f, 0f, 0f);
+    }
+    
+    /**
+     * Set how many threads the per-entity update phase may use (1 updates everything on the calling thread)
+     */
+    public void setUpdateParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1: " + parallelism);
+        }
+        if (updatePool != null && updatePool.getParallelism() != parallelism) {
+            updatePool.shutdown();
+            updatePool = null;
+        }
+        this.updateParallelism = parallelism;
+    }
+    
+    public int getUpdateParallelism() {
+        return updateParallelism;
+    }
+    
+    private ForkJoinPool getUpdatePool() {
+        if (updatePool == null) {
+            updatePool = new ForkJoinPool(updateParallelism);
+        }
+        return updatePool;
+    }
+    
+    private void ensureChunkBuffers(int chunkCount) {
+        if (chunkBuffers.length >= chunkCount) return;
+        
+        InteractionBuffer[] buffers = new InteractionBuffer[chunkCount];
+        System.arraycopy(chunkBuffers, 0, buffers, 0, chunkBuffers.length);
+        for (int i = chunkBuffers.length; i < chunkCount; i++) {
+            buffers[i] = new InteractionBuffer();
+        }
+        chunkBuffers = buffers;
+    }
+    
+    public void renderAll(ShapeRenderer shapeRenderer) {
+        renderAll(shapeRenderer, 1f);
+    }
+    
+    /**
+     * Render all entities interpolated between the last two simulation steps
+     * @param alpha Blend factor from the simulation clock (0 = previous step, 1 = current step)
+     */
+    public void renderAll(ShapeRenderer shapeRenderer, float alpha) {
+        renderAll(shapeRenderer, alpha, null);
+    }
+    
+    /**
+     * Render what is inside the view, interpolated between the last two simulation steps
+     * @param view World-space area on screen; anything outside it is skipped. Null draws the whole map.
+     */
+    public void renderAll(ShapeRenderer shapeRenderer, float alpha, Rectangle view) {
+        // Render particles first (behind entities)
+        beginPhase(SimulationTracer.Phase.RENDER_PARTICLES);
+        particleSystem.render(shapeRenderer, view);
+        endPhase(SimulationTracer.Phase.RENDER_PARTICLES);
+        beginPhase(SimulationTracer.Phase.RENDER_ARCHETYPES);
+        archetypeRender.render(archetypeStore, shapeRenderer, alpha, view);
+        endPhase(SimulationTracer.Phase.RENDER_ARCHETYPES);
+        
+        // Then render entities in Z-order (back to front: lower Z first)
+        beginPhase(SimulationTracer.Phase.RENDER_ENTITIES);
+        renderLayers.render(shapeRenderer, alpha, view);
+        endPhase(SimulationTracer.Phase.RENDER_ENTITIES);
+    }
+    
     public float getWidth() {
         return width;
     }
@@ -62,4 +687,38 @@ public class Map {
     public ParticleSystem getParticleSystem() {
         return particleSystem;
     }
+    
+    public RenderLayers getRenderLayers() {
+        return renderLayers;
+    }
+    
+    public ArchetypeStore getArchetypeStore() {
+        return archetypeStore;
+    }
+    
+    /**
+     * Splits a range of chunks in half until a single chunk remains, then updates it
+     */
+    private class UpdateChunksTask extends RecursiveAction {
+        private final int startChunk;
+        private final int endChunk;
+        private final float deltaTime;
+        
+        UpdateChunksTask(int startChunk, int endChunk, float deltaTime) {
+            this.startChunk = startChunk;
+            this.endChunk = endChunk;
+            this.deltaTime = deltaTime;
+        }
+        
+        @Override
+        protected void compute() {
+            if (endChunk - startChunk == 1) {
+                updateChunk(startChunk, deltaTime);
+                return;
+            }
+            int middle = (startChunk + endChunk) >>> 1;
+            invokeAll(new UpdateChunksTask(startChunk, middle, deltaTime),
+                      new UpdateChunksTask(middle, endChunk, deltaTime));
+        }
+    }
 }
@@ -0,0 +1,157 @@
+package com.dominicmortlock.littelifesim;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Mesh;
+import com.badlogic.gdx.graphics.VertexAttribute;
+import com.badlogic.gdx.graphics.VertexAttributes;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.math.Matrix4;
+import java.nio.Buffer;
+import java.nio.FloatBuffer;
+
+/**
+ * Draws particles as quads from a single reusable mesh instead of one ShapeRenderer rect each.
+ * Every particle writes its centre, size and colour straight into the mesh's direct vertex buffer
+ * once per corner; the vertex shader expands the corners into a quad, so a whole batch is one draw call.
+ */
+public class ParticleMeshRenderer {
+    // 16-bit indices address at most 65536 vertices, four per quad
+    public static final int MAX_PARTICLES_PER_BATCH = 16383;
+    
+    private static final int VERTICES_PER_PARTICLE = 4;
+    private static final int INDICES_PER_PARTICLE = 6;
+    
+    private static final String VERTEX_SHADER =
+        "attribute vec2 a_center;\n" +
+        "attribute vec2 a_corner;\n" +
+        "attribute float a_size;\n" +
+        "attribute vec4 " + ShaderProgram.COLOR_ATTRIBUTE + ";\n" +
+        "uniform mat4 u_projTrans;\n" +
+        "varying vec4 v_color;\n" +
+        "void main() {\n" +
+        "    v_color = " + ShaderProgram.COLOR_ATTRIBUTE + ";\n" +
+        "    gl_Position = u_projTrans * vec4(a_center + a_corner * a_size, 0.0, 1.0);\n" +
+        "}\n";
+    
+    private static final String FRAGMENT_SHADER =
+        "#ifdef GL_ES\n" +
+        "precision mediump float;\n" +
+        "#endif\n" +
+        "varying vec4 v_color;\n" +
+        "void main() {\n" +
+        "    gl_FragColor = v_color;\n" +
+        "}\n";
+    
+    // Corner offsets in units of particle size, in the same order as the quad indices expect
+    private static final float[] CORNERS = {-0.5f, -0.5f, 0.5f, -0.5f, 0.5f, 0.5f, -0.5f, 0.5f};
+    
+    // Each vertex holds centre x/y, corner x/y, size and a packed colour
+    private final Mesh mesh;
+    private final ShaderProgram shader;
+    private final Matrix4 combined;
+    private FloatBuffer vertices;
+    private int batchCount;
+    private boolean drawing;
+    
+    public ParticleMeshRenderer() {
+        shader = new ShaderProgram(VERTEX_SHADER, FRAGMENT_SHADER);
+        if (!shader.isCompiled()) {
+            Gdx.app.error("ParticleMeshRenderer", "Particle shader failed to compile, using ShapeRenderer: " + shader.getLog());
+        }
+        
+        mesh = new Mesh(false, MAX_PARTICLES_PER_BATCH * VERTICES_PER_PARTICLE,
+                        MAX_PARTICLES_PER_BATCH * INDICES_PER_PARTICLE,
+                        new VertexAttribute(VertexAttributes.Usage.Position, 2, "a_center"),
+                        new VertexAttribute(VertexAttributes.Usage.Generic, 2, "a_corner"),
+                        new VertexAttribute(VertexAttributes.Usage.Generic, 1, "a_size"),
+                        VertexAttribute.ColorPacked());
+        mesh.setIndices(createQuadIndices());
+        combined = new Matrix4();
+    }
+    
+    /**
+     * Whether the shader compiled; when it did not, callers should fall back to ShapeRenderer
+     */
+    public boolean isAvailable() {
+        return shader.isCompiled();
+    }
+    
+    /**
+     * Start a batch drawn with the given projection and transform (typically the ShapeRenderer's)
+     */
+    public void begin(Matrix4 projection, Matrix4 transform) {
+        combined.set(projection).mul(transform);
+        vertices = mesh.getVerticesBuffer(true);
+        ((Buffer) vertices).clear();
+        batchCount = 0;
+        drawing = true;
+    }
+    
+    /**
+     * Queue one particle; the batch is flushed automatically when the mesh is full
+     */
+    public void add(float centerX, float centerY, float size, float r, float g, float b, float alpha) {
+        if (batchCount == MAX_PARTICLES_PER_BATCH) {
+            flush();
+        }
+        
+        float color = Color.toFloatBits(r, g, b, alpha);
+        for (int corner = 0; corner < VERTICES_PER_PARTICLE; corner++) {
+            vertices.put(centerX);
+            vertices.put(centerY);
+            vertices.put(CORNERS[corner * 2]);
+            vertices.put(CORNERS[corner * 2 + 1]);
+            vertices.put(size);
+            vertices.put(color);
+        }
+        batchCount++;
+    }
+    
+    public void end() {
+        flush();
+        drawing = false;
+    }
+    
+    public boolean isDrawing() {
+        return drawing;
+    }
+    
+    public void dispose() {
+        mesh.dispose();
+        shader.dispose();
+    }
+    
+    private void flush() {
+        if (batchCount == 0) return;
+        
+        // Limit the buffer to what was written; the mesh uploads it when bound
+        ((Buffer) vertices).flip();
+        
+        Gdx.gl.glEnable(GL20.GL_BLEND);
+        Gdx.gl.glBlendFunc(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+        shader.bind();
+        shader.setUniformMatrix("u_projTrans", combined);
+        mesh.render(shader, GL20.GL_TRIANGLES, 0, batchCount * INDICES_PER_PARTICLE);
+        Gdx.gl.glDisable(GL20.GL_BLEND);
+        
+        vertices = mesh.getVerticesBuffer(true);
+        ((Buffer) vertices).clear();
+        batchCount = 0;
+    }
+    
+    private static short[] createQuadIndices() {
+        short[] indices = new short[MAX_PARTICLES_PER_BATCH * INDICES_PER_PARTICLE];
+        for (int quad = 0, vertex = 0; quad < MAX_PARTICLES_PER_BATCH; quad++, vertex += VERTICES_PER_PARTICLE) {
+            int i = quad * INDICES_PER_PARTICLE;
+            indices[i] = (short) vertex;
+            indices[i + 1] = (short) (vertex + 1);
+            indices[i + 2] = (short) (vertex + 2);
+            indices[i + 3] = (short) (vertex + 2);
+            indices[i + 4] = (short) (vertex + 3);
+            indices[i + 5] = (short) vertex;
+        }
+        return indices;
+    }
+}
@@ -1,28 +1,144 @@
 package com.dominicmortlock.littelifesim;
 
+import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import com.badlogic.gdx.math.Rectangle;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 
 /**
  * Manages particles and particle emitters for visual effects.
- * Efficiently handles particle lifecycle and rendering.
+ * Particles are stored as parallel primitive arrays rather than objects, so spawning, updating and
+ * expiring them allocates nothing once the arrays have grown to the working size.
  */
 public class ParticleSystem {
-    private List<Particle> particles;
     private List<ParticleEmitter> emitters;
     
-    private static final int INITIAL_PARTICLE_CAPACITY = 50;
+    // Particle state, one slot per live particle in [0, particleCount)
+    private float[] x;
+    private float[] y;
+    private float[] velocityX;
+    private float[] velocityY;
+    private float[] lifetime;
+    private float[] maxLifetime;
+    private float[] size;
+    private float[] groundLevel; // The level where the particle stops falling
+    private int[] color; // Packed RGBA8888; alpha comes from the remaining lifetime instead
+    private int particleCount;
+    private int maxParticles;
+    private final SimRandom random;
+    private float[] spawnNoise; // Reused by randomFloats, so batched spawns draw their spread in one pass
+    private ParticleMeshRenderer meshRenderer; // Null until a GL context provides one
+    private float viewLeft, viewBottom, viewRight, viewTop; // Culling bounds for the render in progress
+    
+    private static final int INITIAL_PARTICLE_CAPACITY = 1024;
     private static final int INITIAL_EMITTER_CAPACITY = 10;
+    private static final int INITIAL_SPAWN_NOISE_CAPACITY = 64;
+    
+    private static final float GRAVITY = -120f; // pixels per second squared (downward)
+    private static final float BOUNCE_DAMPING = 0.3f; // How much velocity is retained after bounce
+    private static final float GROUND_VARIATION = 20f; // Ground level spread around the spawn height
     
     public ParticleSystem() {
-        particles = new ArrayList<>(INITIAL_PARTICLE_CAPACITY);
         emitters = new ArrayList<>(INITIAL_EMITTER_CAPACITY);
+        allocate(INITIAL_PARTICLE_CAPACITY);
+        particleCount = 0;
+        maxParticles = GameConstants.MAX_PARTICLES;
+        random = new SimRandom(0L);
+        spawnNoise = new float[INITIAL_SPAWN_NOISE_CAPACITY];
+    }
+    
+    /**
+     * Spawn a particle; dropped silently once the particle budget is used up
+     */
+    public void addParticle(float x, float y, float velocityX, float velocityY, float lifetime, float size, Color color) {
+        addParticle(x, y, velocityX, velocityY, lifetime, size, Color.rgba8888(color.r, color.g, color.b, 1f));
+    }
+    
+    /**
+     * Spawn a particle with a packed RGBA8888 colour; dropped silently once the particle budget is used up
+     */
+    public void addParticle(float x, float y, float velocityX, float velocityY, float lifetime, float size, int packedColor) {
+        if (particleCount >= maxParticles) return;
+        if (particleCount == this.x.length) {
+            allocate(Math.min(this.x.length * 2, maxParticles));
+        }
+        
+        int i = particleCount++;
+        this.x[i] = x;
+        this.y[i] = y;
+        this.velocityX[i] = velocityX;
+        this.velocityY[i] = velocityY;
+        this.lifetime[i] = lifetime;
+        this.maxLifetime[i] = lifetime;
+        this.size[i] = size;
+        this.color[i] = packedColor;
+        
+        // Set ground level with some randomness around starting height, never below 0
+        this.groundLevel[i] = Math.max(0, y + (random.nextFloat() - 0.5f) * GROUND_VARIATION);
+    }
+    
+    /**
+     * Write one live particle into its save record; see WorldSnapshot for the layout
+     */
+    void writeSnapshot(int i, ByteBuffer buffer, int offset) {
+        buffer.putFloat(offset + WorldSnapshot.PARTICLE_X, x[i]);
+        buffer.putFloat(offset + WorldSnapshot.PARTICLE_Y, y[i]);
+        buffer.putFloat(offset + WorldSnapshot.PARTICLE_VELOCITY_X, velocityX[i]);
+        buffer.putFloat(offset + WorldSnapshot.PARTICLE_VELOCITY_Y, velocityY[i]);
+        buffer.putFloat(offset + WorldSnapshot.PARTICLE_LIFETIME, lifetime[i]);
+        buffer.putFloat(offset + WorldSnapshot.PARTICLE_MAX_LIFETIME, maxLifetime[i]);
+        buffer.putFloat(offset + WorldSnapshot.PARTICLE_SIZE, size[i]);
+        buffer.putFloat(offset + WorldSnapshot.PARTICLE_GROUND_LEVEL, groundLevel[i]);
+        buffer.putInt(offset + WorldSnapshot.PARTICLE_COLOR, color[i]);
+    }
+    
+    /**
+     * Append a particle from its save record; dropped silently once the particle budget is used up
+     */
+    void restoreParticle(ByteBuffer buffer, int offset) {
+        if (particleCount >= maxParticles) return;
+        if (particleCount == x.length) {
+            allocate(Math.min(x.length * 2, maxParticles));
+        }
+        
+        int i = particleCount++;
+        x[i] = buffer.getFloat(offset + WorldSnapshot.PARTICLE_X);
+        y[i] = buffer.getFloat(offset + WorldSnapshot.PARTICLE_Y);
+        velocityX[i] = buffer.getFloat(offset + WorldSnapshot.PARTICLE_VELOCITY_X);
+        velocityY[i] = buffer.getFloat(offset + WorldSnapshot.PARTICLE_VELOCITY_Y);
+        lifetime[i] = buffer.getFloat(offset + WorldSnapshot.PARTICLE_LIFETIME);
+        maxLifetime[i] = buffer.getFloat(offset + WorldSnapshot.PARTICLE_MAX_LIFETIME);
+        size[i] = buffer.getFloat(offset + WorldSnapshot.PARTICLE_SIZE);
+        groundLevel[i] = buffer.getFloat(offset + WorldSnapshot.PARTICLE_GROUND_LEVEL);
+        color[i] = buffer.getInt(offset + WorldSnapshot.PARTICLE_COLOR);
     }
     
-    public void addParticle(Particle particle) {
-        particles.add(particle);
+    /**
+     * Restart the random source used for particle spread, for reproducible runs
+     */
+    public void setSeed(long seed) {
+        random.setSeed(seed);
+    }
+    
+    /**
+     * Random source for particle spawns; only used on the main thread
+     */
+    SimRandom getRandom() {
+        return random;
+    }
+    
+    /**
+     * Fill the shared scratch array with count floats uniform in [0, 1) and return it.
+     * Valid until the next call; only used on the main thread.
+     */
+    float[] randomFloats(int count) {
+        if (spawnNoise.length < count) {
+            spawnNoise = new float[Math.max(count, spawnNoise.length * 2)];
+        }
+        random.nextFloats(spawnNoise, 0, count);
+        return spawnNoise;
     }
     
     public void addEmitter(ParticleEmitter emitter) {
@@ -35,32 +151,182 @@ public class ParticleSystem {
     
     public void update(float deltaTime) {
         // Update emitters
-        for (ParticleEmitter emitter : emitters) {
-            emitter.update(deltaTime, this);
-        }
-        
-        // Update particles
-        for (Particle particle : particles) {
-            particle.update(deltaTime);
+        for (int e = 0; e < emitters.size(); e++) {
+            emitters.get(e).update(deltaTime, this);
         }
         
-        // Remove dead particles
-        Iterator<Particle> iterator = particles.iterator();
-        while (iterator.hasNext()) {
-            Particle particle = iterator.next();
-            if (!particle.isAlive()) {
-                iterator.remove();
+        // Update particles; a dead particle is replaced by the last one, so the slot is checked again
+        int i = 0;
+        while (i < particleCount) {
+            lifetime[i] -= deltaTime;
+            if (lifetime[i] <= 0) {
+                removeParticle(i);
+                continue;
             }
+            
+            // Apply gravity to velocity, then update position
+            velocityY[i] += GRAVITY * deltaTime;
+            x[i] += velocityX[i] * deltaTime;
+            y[i] += velocityY[i] * deltaTime;
+            
+            // Ground collision detection
+            if (y[i] <= groundLevel[i] && velocityY[i] < 0) {
+                y[i] = groundLevel[i]; // Place on ground
+                velocityY[i] = -velocityY[i] * BOUNCE_DAMPING; // Small bounce with damping
+                
+                // If bounce is too small, stop bouncing
+                if (Math.abs(velocityY[i]) < 10f) {
+                    velocityY[i] = 0f;
+                }
+                
+                // Reduce horizontal velocity when hitting ground (friction)
+                velocityX[i] *= 0.8f;
+            }
+            i++;
         }
     }
     
+    /**
+     * Draw all particles, through the mesh renderer when one is set and usable, otherwise with the ShapeRenderer
+     */
     public void render(ShapeRenderer shapeRenderer) {
-        for (Particle particle : particles) {
-            particle.render(shapeRenderer);
+        render(shapeRenderer, null);
+    }
+    
+    /**
+     * Draw the particles inside the view, which is in world space; null draws them all
+     */
+    public void render(ShapeRenderer shapeRenderer, Rectangle view) {
+        if (view != null) {
+            viewLeft = view.x;
+            viewBottom = view.y;
+            viewRight = view.x + view.width;
+            viewTop = view.y + view.height;
+        } else {
+            viewLeft = Float.NEGATIVE_INFINITY;
+            viewBottom = Float.NEGATIVE_INFINITY;
+            viewRight = Float.POSITIVE_INFINITY;
+            viewTop = Float.POSITIVE_INFINITY;
+        }
+        if (meshRenderer != null && meshRenderer.isAvailable()) {
+            renderMesh(shapeRenderer);
+            return;
+        }
+        
+        for (int i = 0; i < particleCount; i++) {
+            if (!isVisible(i)) continue;
+            int packed = color[i];
+            float r = ((packed >>> 24) & 0xff) / 255f;
+            float g = ((packed >>> 16) & 0xff) / 255f;
+            float b = ((packed >>> 8) & 0xff) / 255f;
+            
+            // Fade out over the particle's lifetime
+            float alpha = lifetime[i] / maxLifetime[i];
+            float halfSize = size[i] / 2;
+            shapeRenderer.setColor(r, g, b, alpha);
+            shapeRenderer.rect(x[i] - halfSize, y[i] - halfSize, size[i], size[i]);
         }
     }
     
+    private void renderMesh(ShapeRenderer shapeRenderer) {
+        if (particleCount == 0) return;
+        
+        // Anything already queued in the ShapeRenderer belongs underneath the particles
+        if (shapeRenderer.isDrawing()) {
+            shapeRenderer.flush();
+        }
+        
+        meshRenderer.begin(shapeRenderer.getProjectionMatrix(), shapeRenderer.getTransformMatrix());
+        for (int i = 0; i < particleCount; i++) {
+            if (!isVisible(i)) continue;
+            int packed = color[i];
+            float r = ((packed >>> 24) & 0xff) / 255f;
+            float g = ((packed >>> 16) & 0xff) / 255f;
+            float b = ((packed >>> 8) & 0xff) / 255f;
+            meshRenderer.add(x[i], y[i], size[i], r, g, b, lifetime[i] / maxLifetime[i]);
+        }
+        meshRenderer.end();
+    }
+    
+    private boolean isVisible(int i) {
+        float halfSize = size[i] / 2;
+        return x[i] + halfSize >= viewLeft && x[i] - halfSize <= viewRight &&
+               y[i] + halfSize >= viewBottom && y[i] - halfSize <= viewTop;
+    }
+    
+    public void setMeshRenderer(ParticleMeshRenderer meshRenderer) {
+        this.meshRenderer = meshRenderer;
+    }
+    
+    public ParticleMeshRenderer getMeshRenderer() {
+        return meshRenderer;
+    }
+    
     public int getParticleCount() {
-        return particles.size();
+        return particleCount;
+    }
+    
+    public int getMaxParticles() {
+        return maxParticles;
+    }
+    
+    public int getEmitterCount() {
+        return emitters.size();
+    }
+    
+    /**
+     * Approximate bytes held by the particle arrays, ignoring object headers
+     */
+    long estimateBytes() {
+        // Eight float columns and one int column per slot of capacity
+        return (long) x.length * 9 * 4 + (long) spawnNoise.length * 4;
+    }
+    
+    /**
+     * Cap the number of live particles; excess live particles are dropped immediately
+     */
+    public void setMaxParticles(int maxParticles) {
+        if (maxParticles < 0) {
+            throw new IllegalArgumentException("Particle budget cannot be negative: " + maxParticles);
+        }
+        this.maxParticles = maxParticles;
+        particleCount = Math.min(particleCount, maxParticles);
+    }
+    
+    private void removeParticle(int i) {
+        int last = --particleCount;
+        x[i] = x[last];
+        y[i] = y[last];
+        velocityX[i] = velocityX[last];
+        velocityY[i] = velocityY[last];
+        lifetime[i] = lifetime[last];
+        maxLifetime[i] = maxLifetime[last];
+        size[i] = size[last];
+        groundLevel[i] = groundLevel[last];
+        color[i] = color[last];
+    }
+    
+    private void allocate(int capacity) {
+        x = grow(x, capacity);
+        y = grow(y, capacity);
+        velocityX = grow(velocityX, capacity);
+        velocityY = grow(velocityY, capacity);
+        lifetime = grow(lifetime, capacity);
+        maxLifetime = grow(maxLifetime, capacity);
+        size = grow(size, capacity);
+        groundLevel = grow(groundLevel, capacity);
+        int[] grownColor = new int[capacity];
+        if (color != null) {
+            System.arraycopy(color, 0, grownColor, 0, particleCount);
+        }
+        color = grownColor;
+    }
+    
+    private float[] grow(float[] array, int capacity) {
+        float[] grown = new float[capacity];
+        if (array != null) {
+            System.arraycopy(array, 0, grown, 0, particleCount);
+        }
+        return grown;
     }
 }
@@ -21,13 +21,26 @@ public class PhysicsComponent {
     private static final float FRICTION = GameConstants.FRICTION;
     private static final float MIN_BOUNCE_VELOCITY = GameConstants.MIN_BOUNCE_VELOCITY;
     private static final float DUST_VELOCITY_THRESHOLD = GameConstants.DUST_VELOCITY_THRESHOLD;
+    private static final float CCD_TRAVEL_FRACTION = GameConstants.CCD_TRAVEL_FRACTION;
+    private static final int CCD_MAX_SUBSTEPS = GameConstants.CCD_MAX_SUBSTEPS;
+    private static final int MAX_CONTACTS_PER_STEP = 4; // Enough for a corner plus the ground
+    
+    // Contacts a step can end at
+    private static final int NO_CONTACT = 0;
+    private static final int GROUND = 1;
+    private static final int LEFT_WALL = 2;
+    private static final int RIGHT_WALL = 3;
+    private static final int CEILING = 4;
+    private static final int FLOOR = 5;
     
     // Particle constants from GameConstants
     private static final int MAX_DUST_PARTICLES = GameConstants.MAX_DUST_PARTICLES;
+    private static final int DUST_RANDOMS_PER_PARTICLE = 6;
     private static final float DUST_SPREAD_RADIUS = GameConstants.DUST_SPREAD_RADIUS;
     private static final float DUST_VERTICAL_SPREAD = GameConstants.DUST_VERTICAL_SPREAD;
     private static final float DUST_MIN_SPEED = GameConstants.DUST_MIN_SPEED;
     private static final float DUST_MAX_SPEED = GameConstants.DUST_MAX_SPEED;
+    private static final int DUST_COLOR = Color.rgba8888(0f, 0f, 0f, 1f); // Black; particles fade by lifetime
     
     public PhysicsComponent(Entity owner) {
         this.owner = owner;
@@ -41,44 +54,133 @@ public class PhysicsComponent {
     public void update(float deltaTime) {
         if (!hasPhysics) return;
         
+        // Fast bodies are split into sub-steps so gravity and bounce timing hold up at low step rates
+        int subSteps = subStepsFor(deltaTime);
+        float subStep = deltaTime / subSteps;
+        for (int i = 0; i < subSteps && hasPhysics; i++) {
+            integrate(subStep);
+        }
+    }
+    
+    /**
+     * Number of sub-steps that keeps each one's travel within a fraction of the body's smallest side.
+     * Slow bodies, and bodies sliding along the ground, take a single step.
+     */
+    private int subStepsFor(float deltaTime) {
+        boolean sliding = velocityY == 0f && owner.getY() <= groundLevel;
+        float maxTravel = Math.min(owner.getWidth(), owner.getHeight()) * CCD_TRAVEL_FRACTION;
+        if (sliding || maxTravel <= 0f) return 1;
+        
+        float speed = Math.max(Math.abs(velocityX), Math.abs(velocityY + GRAVITY * deltaTime));
+        float travel = speed * deltaTime;
+        if (travel <= maxTravel) return 1;
+        return Math.min(CCD_MAX_SUBSTEPS, (int) Math.ceil(travel / maxTravel));
+    }
+    
+    /**
+     * Advance one step, moving to each wall or ground contact in turn and bouncing there.
+     * The time left after a bounce is spent travelling away from it, so no momentum is lost to clamping.
+     */
+    private void integrate(float deltaTime) {
         // Apply gravity to Y velocity
         velocityY += GRAVITY * deltaTime;
         
-        // Update position
-        float newX = owner.getX() + velocityX * deltaTime;
-        float newY = owner.getY() + velocityY * deltaTime;
+        float x = owner.getX();
+        float y = owner.getY();
+        float width = owner.getWidth();
+        float height = owner.getHeight();
+        float remaining = deltaTime;
         
-        // Handle wall collisions
-        if (map != null) {
-            float[] newPosition = handleWallCollisions(newX, newY);
-            newX = newPosition[0];
-            newY = newPosition[1];
-        }
-        
-        // Ground collision detection
-        if (newY <= groundLevel && velocityY < 0) {
-            newY = groundLevel;
-            float bounceVelocity = Math.abs(velocityY);
-            velocityY = -velocityY * BOUNCE_DAMPING; // Bounce with damping
-            
-            // Emit dust particles on ground bounce
-            emitDustParticles(newX + owner.getWidth()/2, newY + owner.getHeight(), bounceVelocity);
+        for (int i = 0; i < MAX_CONTACTS_PER_STEP && remaining > 0f; i++) {
+            // Earliest contact within the time left; walls win ties with the ground
+            int contact = NO_CONTACT;
+            float contactTime = remaining;
+            if (velocityY < 0f) {
+                float time = timeToReach(y, groundLevel, velocityY);
+                if (time <= contactTime) {
+                    contact = GROUND;
+                    contactTime = time;
+                }
+            }
+            if (map != null) {
+                if (velocityX < 0f) {
+                    float time = timeToReach(x, 0f, velocityX);
+                    if (time <= contactTime) {
+                        contact = LEFT_WALL;
+                        contactTime = time;
+                    }
+                } else if (velocityX > 0f) {
+                    float time = timeToReach(x, map.getWidth() - width, velocityX);
+                    if (time <= contactTime) {
+                        contact = RIGHT_WALL;
+                        contactTime = time;
+                    }
+                }
+                if (velocityY > 0f) {
+                    float time = timeToReach(y, map.getHeight() - height, velocityY);
+                    if (time <= contactTime) {
+                        contact = CEILING;
+                        contactTime = time;
+                    }
+                } else if (velocityY < 0f) {
+                    // Floor boundary - different from ground level
+                    float time = timeToReach(y, 0f, velocityY);
+                    if (time <= contactTime) {
+                        contact = FLOOR;
+                        contactTime = time;
+                    }
+                }
+            }
             
-            // Apply friction to horizontal movement
-            velocityX *= FRICTION;
+            x += velocityX * contactTime;
+            y += velocityY * contactTime;
+            remaining -= contactTime;
             
-            // Stop bouncing if velocity is too small
-            if (Math.abs(velocityY) < MIN_BOUNCE_VELOCITY) {
-                velocityY = 0f;
-                // Stop horizontal movement if very slow
-                if (Math.abs(velocityX) < MIN_BOUNCE_VELOCITY) {
-                    velocityX = 0f;
-                    hasPhysics = false; // Stop physics when settled
-                }
+            if (contact == NO_CONTACT) break;
+            if (contact == GROUND) {
+                y = groundLevel;
+                bounceOffGround(x, y);
+                if (!hasPhysics) break;
+            } else if (contact == LEFT_WALL || contact == RIGHT_WALL) {
+                x = contact == LEFT_WALL ? 0f : map.getWidth() - width;
+                velocityX = -velocityX * WALL_BOUNCE_DAMPING;
+                emitDustParticles(x + width/2, y + height/2, Math.abs(velocityX));
+            } else {
+                y = contact == FLOOR ? 0f : map.getHeight() - height;
+                velocityY = -velocityY * WALL_BOUNCE_DAMPING;
+                emitDustParticles(x + width/2, y + height/2, Math.abs(velocityY));
             }
         }
         
-        owner.setPosition(newX, newY);
+        owner.setPosition(x, y);
+    }
+    
+    private void bounceOffGround(float x, float y) {
+        float bounceVelocity = Math.abs(velocityY);
+        velocityY = -velocityY * BOUNCE_DAMPING; // Bounce with damping
+        
+        // Emit dust particles on ground bounce
+        emitDustParticles(x + owner.getWidth()/2, y + owner.getHeight(), bounceVelocity);
+        
+        // Apply friction to horizontal movement
+        velocityX *= FRICTION;
+        
+        // Stop bouncing if velocity is too small
+        if (Math.abs(velocityY) < MIN_BOUNCE_VELOCITY) {
+            velocityY = 0f;
+            // Stop horizontal movement if very slow
+            if (Math.abs(velocityX) < MIN_BOUNCE_VELOCITY) {
+                velocityX = 0f;
+                hasPhysics = false; // Stop physics when settled
+            }
+        }
+    }
+    
+    /**
+     * Time for a coordinate moving at a velocity to reach a target; zero if it is already there or past it
+     */
+    private static float timeToReach(float from, float to, float velocity) {
+        return Math.max(0f, (to - from) / velocity);
     }
     
     public void launch(float velocityX, float velocityY) {
@@ -86,6 +188,7 @@ public class PhysicsComponent {
         this.velocityY = velocityY;
         this.groundLevel = owner.getY(); // Set current position as ground reference
         this.hasPhysics = true;
+        owner.wake();
     }
     
     public void launch(float velocityX, float velocityY, float groundLevel) {
@@ -93,6 +196,7 @@ public class PhysicsComponent {
         this.velocityY = velocityY;
         this.groundLevel = groundLevel;
         this.hasPhysics = true;
+        owner.wake();
     }
     
     public void stop() {
@@ -101,6 +205,16 @@ public class PhysicsComponent {
         this.hasPhysics = false;
     }
     
+    /**
+     * Put the body back into a saved state
+     */
+    void restore(float velocityX, float velocityY, float groundLevel, boolean active) {
+        this.velocityX = velocityX;
+        this.velocityY = velocityY;
+        this.groundLevel = groundLevel;
+        this.hasPhysics = active;
+    }
+    
     public void setMap(Map map) {
         this.map = map;
     }
@@ -117,6 +231,15 @@ public class PhysicsComponent {
         return velocityY;
     }
     
+    public void setVelocity(float velocityX, float velocityY) {
+        this.velocityX = velocityX;
+        this.velocityY = velocityY;
+    }
+    
+    public float getGroundLevel() {
+        return groundLevel;
+    }
+    
     public void setGroundLevel(float groundLevel) {
         this.groundLevel = groundLevel;
     }
@@ -124,6 +247,13 @@ public class PhysicsComponent {
     private void emitDustParticles(float x, float y, float impactVelocity) {
         if (map == null || impactVelocity < DUST_VELOCITY_THRESHOLD) return;
         
+        // The particle system is shared, so spawning waits until the interaction phase
+        map.defer(Interaction.SPAWN_DUST, owner, null, x, y, impactVelocity);
+    }
+    
+    static void spawnDustParticles(Map map, float x, float y, float impactVelocity) {
+        if (map == null) return;
+        
         ParticleSystem particleSystem = map.getParticleSystem();
         if (particleSystem == null) return;
         
@@ -131,64 +261,32 @@ public class PhysicsComponent {
         int particleCount = 1 + (int)(impactVelocity / 150f);
         particleCount = Math.min(particleCount, MAX_DUST_PARTICLES);
         
+        // Draw every particle's spread in one pass
+        float[] noise = particleSystem.randomFloats(particleCount * DUST_RANDOMS_PER_PARTICLE);
         for (int i = 0; i < particleCount; i++) {
-            createDustParticle(particleSystem, x, y);
-        }
-    }
-    
-    private float[] handleWallCollisions(float newX, float newY) {
-        // Left wall
-        if (newX < 0 && velocityX < 0) {
-            newX = 0;
-            velocityX = -velocityX * WALL_BOUNCE_DAMPING;
-            emitDustParticles(newX + owner.getWidth()/2, newY + owner.getHeight()/2, Math.abs(velocityX));
-        }
-        // Right wall
-        else if (newX + owner.getWidth() > map.getWidth() && velocityX > 0) {
-            newX = map.getWidth() - owner.getWidth();
-            velocityX = -velocityX * WALL_BOUNCE_DAMPING;
-            emitDustParticles(newX + owner.getWidth()/2, newY + owner.getHeight()/2, Math.abs(velocityX));
+            createDustParticle(particleSystem, x, y, noise, i * DUST_RANDOMS_PER_PARTICLE);
         }
-        
-        // Top wall (ceiling)
-        if (newY + owner.getHeight() > map.getHeight() && velocityY > 0) {
-            newY = map.getHeight() - owner.getHeight();
-            velocityY = -velocityY * WALL_BOUNCE_DAMPING;
-            emitDustParticles(newX + owner.getWidth()/2, newY + owner.getHeight()/2, Math.abs(velocityY));
-        }
-        
-        // Bottom wall (floor boundary - different from ground level)
-        if (newY < 0 && velocityY < 0) {
-            newY = 0;
-            velocityY = -velocityY * WALL_BOUNCE_DAMPING;
-            emitDustParticles(newX + owner.getWidth()/2, newY + owner.getHeight()/2, Math.abs(velocityY));
-        }
-        
-        return new float[]{newX, newY};
     }
     
-    private void createDustParticle(ParticleSystem particleSystem, float x, float y) {
+    private static void createDustParticle(ParticleSystem particleSystem, float x, float y, float[] noise, int n) {
         // Random spread around impact point
-        float particleX = x + (float)(Math.random() - 0.5) * DUST_SPREAD_RADIUS;
-        float particleY = y + (float)(Math.random() - 0.5) * DUST_VERTICAL_SPREAD;
+        float particleX = x + (noise[n] - 0.5f) * DUST_SPREAD_RADIUS;
+        float particleY = y + (noise[n + 1] - 0.5f) * DUST_VERTICAL_SPREAD;
         
         // Random velocity outward from impact
-        float angle = (float)(Math.random() * Math.PI * 2);
-        float speed = DUST_MIN_SPEED + (float)Math.random() * (DUST_MAX_SPEED - DUST_MIN_SPEED);
+        float angle = (float)(noise[n + 2] * Math.PI * 2);
+        float speed = DUST_MIN_SPEED + noise[n + 3] * (DUST_MAX_SPEED - DUST_MIN_SPEED);
         float velX = (float)Math.cos(angle) * speed;
         float velY = Math.abs((float)Math.sin(angle)) * speed * 0.4f; // Mostly upward
         
         // Create dust particle (fixed sizes, black)
-        Color dustColor = new Color(0f, 0f, 0f, 0.8f);
-        float particleSize = Math.random() < 0.5f ? 2f : 3f;
-        Particle dustParticle = new Particle(
+        float particleSize = noise[n + 4] < 0.5f ? 2f : 3f;
+        particleSystem.addParticle(
             particleX, particleY, 
             velX, velY,
-            0.6f + (float)Math.random() * 0.3f, // 0.6-0.9 second lifetime
+            0.6f + noise[n + 5] * 0.3f, // 0.6-0.9 second lifetime
             particleSize,
-            dustColor
+            DUST_COLOR
         );
-        
-        particleSystem.addParticle(dustParticle);
     }
 }
@@ -0,0 +1,116 @@
+package com.dominicmortlock.littelifesim;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.profiling.GLProfiler;
+
+/**
+ * Text overlay showing the frame profiler's rolling p50/p99 section times, draw calls, main-thread
+ * allocation per frame and entity counts. The text is rebuilt a few times a second rather than every
+ * frame, so drawing it barely shows up in the numbers it reports.
+ */
+public class ProfilerOverlay {
+    private static final float MARGIN = 8f;
+    private static final int BYTES_PER_KB = 1024;
+    
+    private final FrameProfiler profiler;
+    private final SpriteBatch batch;
+    private final BitmapFont font;
+    private final GLProfiler glProfiler; // Counts draw calls; ShapeRenderer issues one per flush
+    private final StringBuilder text;
+    private float sinceRefresh;
+    
+    public ProfilerOverlay() {
+        profiler = new FrameProfiler(GameConstants.PROFILER_WINDOW_FRAMES);
+        batch = new SpriteBatch();
+        font = new BitmapFont();
+        font.setColor(Color.BLACK);
+        glProfiler = new GLProfiler(Gdx.graphics);
+        text = new StringBuilder();
+        sinceRefresh = GameConstants.PROFILER_REFRESH_INTERVAL;
+    }
+    
+    public FrameProfiler getProfiler() {
+        return profiler;
+    }
+    
+    /**
+     * Draw-call counting wraps every GL call, so it only runs while the overlay is shown
+     */
+    public void setVisible(boolean visible) {
+        if (visible) {
+            glProfiler.enable();
+            glProfiler.reset();
+        } else {
+            glProfiler.disable();
+        }
+    }
+    
+    /**
+     * Keep the text pinned to the top-left corner of a resized window
+     */
+    public void resize(int width, int height) {
+        batch.getProjectionMatrix().setToOrtho2D(0f, 0f, width, height);
+    }
+    
+    /**
+     * Draw calls issued since the overlay was last drawn, i.e. by the frame's scene alone
+     */
+    public int getDrawCalls() {
+        return glProfiler.getDrawCalls();
+    }
+    
+    public void render(Map map, float frameTime) {
+        sinceRefresh += frameTime;
+        if (sinceRefresh >= GameConstants.PROFILER_REFRESH_INTERVAL) {
+            sinceRefresh = 0f;
+            rebuildText(map);
+        }
+    
+        batch.begin();
+        font.draw(batch, text, MARGIN, Gdx.graphics.getHeight() - MARGIN);
+        batch.end();
+    
+        // The overlay's own draw calls are not part of the next frame's scene
+        glProfiler.reset();
+    }
+    
+    private void rebuildText(Map map) {
+        text.setLength(0);
+        text.append("Profiler (F3)          p50        p99\n");
+        for (int section = 0; section < FrameProfiler.SECTION_COUNT; section++) {
+            text.append(FrameProfiler.SECTION_NAMES[section]).append("    ");
+            appendMillis(profiler.percentile(section, 50f));
+            text.append("    ");
+            appendMillis(profiler.percentile(section, 99f));
+            text.append('\n');
+        }
+        text.append("draw calls    ").append(profiler.drawCallsPercentile(50f))
+            .append("    ").append(profiler.drawCallsPercentile(99f)).append('\n');
+        if (profiler.isCountingAllocations()) {
+            text.append("alloc/frame    ").append(profiler.allocatedBytesPercentile(50f) / BYTES_PER_KB)
+                .append(" KB    ").append(profiler.allocatedBytesPercentile(99f) / BYTES_PER_KB).append(" KB\n");
+        }
+        text.append("entities ").append(map.getEntities().size())
+            .append(" (").append(map.getActiveEntityCount()).append(" active), particles ")
+            .append(map.getParticleSystem().getParticleCount());
+    }
+    
+    private void appendMillis(long nanos) {
+        long hundredths = nanos / 10000L;
+        text.append(hundredths / 100L).append('.');
+        long fraction = hundredths % 100L;
+        if (fraction < 10L) {
+            text.append('0');
+        }
+        text.append(fraction).append(" ms");
+    }
+    
+    public void dispose() {
+        glProfiler.disable();
+        batch.dispose();
+        font.dispose();
+    }
+}
@@ -0,0 +1,115 @@
+package com.dominicmortlock.littelifesim;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * One file of streamed-out chunks covering a square of {@link GameConstants#STREAM_REGION_CHUNKS} chunks per side.
+ * After a short header the file is a heap of extents, each holding one chunk's entity records followed by its
+ * archetype records in the {@link WorldSnapshot} layouts. Which extent belongs to which chunk is not kept here
+ * but in the {@link StoredChunk} region index, which is saved with the world, so the region files and the save
+ * that points into them always agree. New extents go at the end of the file; an outgrown one is left unused.
+ * Only used from the streaming I/O thread.
+ */
+final class RegionFile implements Closeable {
+    static final int MAGIC = 0x4C4C5247; // "LLRG"
+    static final int VERSION = 2;
+    
+    static final int HEADER_SIZE = 16;
+    private static final int HEADER_MAGIC = 0;
+    private static final int HEADER_VERSION = 4;
+    private static final int HEADER_ENTITY_RECORD_SIZE = 8;
+    private static final int HEADER_ARCHETYPE_RECORD_SIZE = 12;
+    
+    private final Path path;
+    private final FileChannel channel;
+    private long end; // Where the next new extent goes
+    
+    RegionFile(Path path) throws IOException {
+        this.path = path;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                        StandardOpenOption.WRITE);
+        try {
+            if (channel.size() == 0L) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                header.putInt(HEADER_MAGIC, MAGIC);
+                header.putInt(HEADER_VERSION, VERSION);
+                header.putInt(HEADER_ENTITY_RECORD_SIZE, WorldSnapshot.ENTITY_RECORD_SIZE);
+                header.putInt(HEADER_ARCHETYPE_RECORD_SIZE, WorldSnapshot.ARCHETYPE_RECORD_SIZE);
+                write(0L, header, HEADER_SIZE);
+            } else if (!isCurrentVersion()) {
+                throw new IOException("Not a region file for this version: " + path);
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        this.end = Math.max(HEADER_SIZE, channel.size());
+    }
+    
+    private boolean isCurrentVersion() throws IOException {
+        if (channel.size() < HEADER_SIZE) return false;
+        ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        return header.getInt(HEADER_MAGIC) == MAGIC && header.getInt(HEADER_VERSION) == VERSION &&
+               header.getInt(HEADER_ENTITY_RECORD_SIZE) == WorldSnapshot.ENTITY_RECORD_SIZE &&
+               header.getInt(HEADER_ARCHETYPE_RECORD_SIZE) == WorldSnapshot.ARCHETYPE_RECORD_SIZE;
+    }
+    
+    /**
+     * Reserve a new extent at the end of the file
+     * @return Its file position
+     */
+    long allocate(int capacity) {
+        long offset = end;
+        end += capacity;
+        return offset;
+    }
+    
+    /**
+     * Read a chunk's records out of an extent, leaving the extent as it is
+     */
+    ChunkRecords read(long key, long offset, int entityCount, int archetypeCount) throws IOException {
+        int size = ChunkRecords.sizeOf(entityCount, archetypeCount);
+        ByteBuffer records = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        if (size > 0) {
+            if (offset < HEADER_SIZE || offset + size > channel.size()) {
+                throw new IOException("Region index points outside " + path);
+            }
+            // Copied out of the mapping, since the extent may be rewritten once the chunk is resident
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, offset, size);
+            records.put(mapped);
+            records.clear();
+        }
+        return new ChunkRecords(key, entityCount, archetypeCount, records);
+    }
+    
+    /**
+     * Write the first {@code size} bytes of a buffer at a file position
+     */
+    void write(long offset, ByteBuffer records, int size) throws IOException {
+        ByteBuffer source = records.duplicate();
+        source.position(0).limit(size);
+        long position = offset;
+        while (source.hasRemaining()) {
+            position += channel.write(source, position);
+        }
+    }
+    
+    /**
+     * Flush the extents to disk and close the file, so a save written afterwards never points at lost records
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            channel.force(false);
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.dominicmortlock.littelifesim;
+
+import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import com.badlogic.gdx.math.Rectangle;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Render order kept as buckets of entities sharing a z value, ordered back to front.
+ * Entities only change bucket when their z changes, so drawing in z-order needs no per-frame sort.
+ * Within a bucket entities keep the order they were added in, matching the old stable sort.
+ */
+public class RenderLayers {
+    private static final int INITIAL_LAYER_CAPACITY = 4;
+    
+    private float[] layerZ; // Sorted ascending
+    private List<List<Entity>> layers;
+    private int layerCount;
+    
+    public RenderLayers() {
+        layerZ = new float[INITIAL_LAYER_CAPACITY];
+        layers = new ArrayList<>();
+        layerCount = 0;
+    }
+    
+    public void add(Entity entity) {
+        layerFor(entity.getZ()).add(entity);
+        entity.renderZ = entity.getZ();
+        entity.inRenderLayers = true;
+    }
+    
+    public void remove(Entity entity) {
+        if (!entity.inRenderLayers) return;
+        int layer = findLayer(entity.renderZ);
+        if (layer >= 0) {
+            layers.get(layer).remove(entity);
+        }
+        entity.inRenderLayers = false;
+    }
+    
+    /**
+     * Remove every entity marked for removal by {@link Map#removeEntities}, compacting each bucket once
+     */
+    void removeMarked() {
+        for (int layer = 0; layer < layerCount; layer++) {
+            List<Entity> entities = layers.get(layer);
+            for (int i = 0; i < entities.size(); i++) {
+                Entity entity = entities.get(i);
+                if (entity.removing) {
+                    entity.inRenderLayers = false;
+                }
+            }
+            Map.removeMarked(entities);
+        }
+    }
+    
+    /**
+     * Move an entity to the bucket for its current z; does nothing if it is already there
+     */
+    public void update(Entity entity) {
+        if (!entity.inRenderLayers || entity.renderZ == entity.getZ()) return;
+        remove(entity);
+        add(entity);
+    }
+    
+    /**
+     * Render every entity back to front, interpolated between the last two simulation steps
+     */
+    public void render(ShapeRenderer shapeRenderer, float alpha) {
+        render(shapeRenderer, alpha, null);
+    }
+    
+    /**
+     * Render the entities within {@link GameConstants#CULL_MARGIN} of the view back to front
+     * @param view World-space area on screen, or null to draw everything
+     */
+    public void render(ShapeRenderer shapeRenderer, float alpha, Rectangle view) {
+        float left = Float.NEGATIVE_INFINITY;
+        float bottom = Float.NEGATIVE_INFINITY;
+        float right = Float.POSITIVE_INFINITY;
+        float top = Float.POSITIVE_INFINITY;
+        if (view != null) {
+            left = view.x - GameConstants.CULL_MARGIN;
+            bottom = view.y - GameConstants.CULL_MARGIN;
+            right = view.x + view.width + GameConstants.CULL_MARGIN;
+            top = view.y + view.height + GameConstants.CULL_MARGIN;
+        }
+        
+        for (int layer = 0; layer < layerCount; layer++) {
+            List<Entity> entities = layers.get(layer);
+            for (int i = 0; i < entities.size(); i++) {
+                Entity entity = entities.get(i);
+                float x = entity.getX();
+                float y = entity.getY();
+                if (x + entity.getWidth() < left || x > right || y + entity.getHeight() < bottom || y > top) {
+                    continue;
+                }
+                entity.renderInterpolated(shapeRenderer, alpha);
+            }
+        }
+    }
+    
+    public int getLayerCount() {
+        return layerCount;
+    }
+    
+    private int findLayer(float z) {
+        for (int layer = 0; layer < layerCount; layer++) {
+            if (layerZ[layer] == z) return layer;
+        }
+        return -1;
+    }
+    
+    private List<Entity> layerFor(float z) {
+        // Layers are few, so a linear walk is cheaper than a search structure
+        int insertAt = 0;
+        while (insertAt < layerCount && layerZ[insertAt] < z) {
+            insertAt++;
+        }
+        if (insertAt < layerCount && layerZ[insertAt] == z) {
+            return layers.get(insertAt);
+        }
+        
+        if (layerCount == layerZ.length) {
+            float[] grown = new float[layerZ.length * 2];
+            System.arraycopy(layerZ, 0, grown, 0, layerCount);
+            layerZ = grown;
+        }
+        System.arraycopy(layerZ, insertAt, layerZ, insertAt + 1, layerCount - insertAt);
+        layerZ[insertAt] = z;
+        List<Entity> layer = new ArrayList<>();
+        layers.add(insertAt, layer);
+        layerCount++;
+        return layer;
+    }
+}
@@ -0,0 +1,141 @@
+package com.dominicmortlock.littelifesim;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Reads a log written by {@link ReplayRecorder} one record at a time.
+ * A record cut short by the game exiting mid-write ends the log rather than failing it.
+ */
+public class ReplayReader implements Closeable {
+    private final DataInputStream in;
+    private final long seed;
+    private final float stepRate;
+    private final float width;
+    private final float height;
+    
+    // Current record
+    private byte type;
+    private long tick;
+    private float x;
+    private float y;
+    private long checksum;
+    private int particleBudget;
+    private boolean truncated;
+    
+    public ReplayReader(Path file) throws IOException {
+        in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)));
+        if (in.readInt() != ReplayRecorder.MAGIC) {
+            in.close();
+            throw new IOException(file + " is not a replay log");
+        }
+        int version = in.readInt();
+        if (version < 1 || version > ReplayRecorder.VERSION) {
+            in.close();
+            throw new IOException("Unsupported replay log version " + version);
+        }
+        seed = in.readLong();
+        stepRate = in.readFloat();
+        width = in.readFloat();
+        height = in.readFloat();
+    }
+    
+    /**
+     * Build the map the log was recorded on, before any input
+     */
+    public Map createMap() {
+        Map map = new Map(width, height, seed);
+        WorldBuilder.populateDefault(map);
+        return map;
+    }
+    
+    /**
+     * Advance to the next record, returning false at the end of the log
+     */
+    public boolean next() throws IOException {
+        int nextType = in.read();
+        if (nextType < 0) {
+            return false;
+        }
+        if (nextType < ReplayRecorder.PRESS || nextType > ReplayRecorder.PARTICLE_BUDGET) {
+            throw new IOException("Unknown replay record type " + nextType + " after tick " + tick);
+        }
+        try {
+            type = (byte) nextType;
+            tick += readVarLong();
+            if (type == ReplayRecorder.CHECKSUM) {
+                checksum = in.readLong();
+            } else if (type == ReplayRecorder.PARTICLE_BUDGET) {
+                particleBudget = in.readInt();
+            } else if (type != ReplayRecorder.RELEASE) {
+                x = in.readFloat();
+                y = in.readFloat();
+            }
+        } catch (EOFException e) {
+            truncated = true;
+            return false;
+        }
+        return true;
+    }
+    
+    private long readVarLong() throws IOException {
+        long value = 0L;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed tick delta");
+    }
+    
+    public long getSeed() {
+        return seed;
+    }
+    
+    public float getStepRate() {
+        return stepRate;
+    }
+    
+    public byte getType() {
+        return type;
+    }
+    
+    public long getTick() {
+        return tick;
+    }
+    
+    public float getX() {
+        return x;
+    }
+    
+    public float getY() {
+        return y;
+    }
+    
+    public long getChecksum() {
+        return checksum;
+    }
+    
+    public int getParticleBudget() {
+        return particleBudget;
+    }
+    
+    /**
+     * Whether the log ended part-way through a record
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -0,0 +1,115 @@
+package com.dominicmortlock.littelifesim;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Append-only log of everything needed to replay a session: the map's master seed and size, then the
+ * pointer input, particle budget changes and a rolling world checksum, each stamped with the tick it happened on.
+ * <p>
+ * Layout, big-endian: a header of magic, version, seed, step rate, width and height; then records of a
+ * type byte and the ticks since the previous record as an unsigned varint. Input records carry the pointer
+ * position as two floats (releases carry none), budget records the new maximum particle count as an int and
+ * checksum records the rolled value as a long.
+ * The world is the default scene built by {@link WorldBuilder#populateDefault}.
+ * <p>
+ * Like {@link java.io.PrintStream}, writes do not throw: the first failure stops the log and is kept for
+ * {@link #getError()}, so input handling never has to deal with I/O.
+ */
+public class ReplayRecorder implements Closeable {
+    static final int MAGIC = 0x4C4C5352; // "LLSR"
+    static final int VERSION = 2; // Version 1 logs have no budget records and still replay
+    
+    public static final byte PRESS = 1;
+    public static final byte DRAG = 2;
+    public static final byte RELEASE = 3;
+    public static final byte CHECKSUM = 4;
+    public static final byte PARTICLE_BUDGET = 5;
+    
+    private final DataOutputStream out;
+    private final WorldChecksum checksum;
+    private long lastTick;
+    private IOException error;
+    
+    public ReplayRecorder(Path file, Map map, float stepRate) throws IOException {
+        out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)));
+        checksum = new WorldChecksum();
+        lastTick = map.getTickCount();
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeLong(map.getSeed());
+        out.writeFloat(stepRate);
+        out.writeFloat(map.getWidth());
+        out.writeFloat(map.getHeight());
+    }
+    
+    /**
+     * Log a press, drag or release at the given tick; releases ignore the position
+     */
+    public void recordInput(byte type, long tick, float x, float y) {
+        if (error != null) return;
+        try {
+            writeHeader(type, tick);
+            if (type != RELEASE) {
+                out.writeFloat(x);
+                out.writeFloat(y);
+            }
+        } catch (IOException e) {
+            error = e;
+        }
+    }
+    
+    /**
+     * Log a change to the particle budget, which takes effect before the next step
+     */
+    public void recordParticleBudget(long tick, int maxParticles) {
+        if (error != null) return;
+        try {
+            writeHeader(PARTICLE_BUDGET, tick);
+            out.writeInt(maxParticles);
+        } catch (IOException e) {
+            error = e;
+        }
+    }
+    
+    /**
+     * Roll the map's state into the checksum and log it; call after every step
+     */
+    public void recordTick(Map map) {
+        if (error != null) return;
+        long value = checksum.update(map);
+        try {
+            writeHeader(CHECKSUM, map.getTickCount());
+            out.writeLong(value);
+        } catch (IOException e) {
+            error = e;
+        }
+    }
+    
+    /**
+     * The write failure that stopped the log, or null while it is still being written
+     */
+    public IOException getError() {
+        return error;
+    }
+    
+    private void writeHeader(byte type, long tick) throws IOException {
+        out.writeByte(type);
+        long delta = tick - lastTick;
+        while ((delta & ~0x7FL) != 0L) {
+            out.writeByte((int) (delta & 0x7F) | 0x80);
+            delta >>>= 7;
+        }
+        out.writeByte((int) delta);
+        lastTick = tick;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
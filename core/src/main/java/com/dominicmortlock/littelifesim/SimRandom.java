@@ -0,0 +1,93 @@
+package com.dominicmortlock.littelifesim;
+
+/**
+ * Splittable SplitMix64 generator for everything random in the simulation.
+ * Each map holds one root stream seeded from its master seed and splits a child stream off for every
+ * entity and for the particle system, so draws never depend on thread scheduling or on other entities.
+ * Not thread-safe and not synchronized: a stream belongs to whoever owns it, which is what makes it
+ * cheaper than {@link java.util.Random} and free of contention in the parallel update.
+ */
+public final class SimRandom {
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    private static final float FLOAT_UNIT = 0x1.0p-24f;
+    private static final double DOUBLE_UNIT = 0x1.0p-53;
+
+    private long state;
+
+    public SimRandom(long seed) {
+        this.state = seed;
+    }
+
+    public void setSeed(long seed) {
+        this.state = seed;
+    }
+
+    /**
+     * A new, independent stream; this stream advances by one draw
+     */
+    public SimRandom split() {
+        return new SimRandom(splitSeed());
+    }
+
+    /**
+     * Seed for a new, independent stream, for owners that reseed a stream they already hold
+     */
+    public long splitSeed() {
+        return mix(nextLong());
+    }
+
+    public long nextLong() {
+        return mix(state += GOLDEN_GAMMA);
+    }
+
+    public int nextInt() {
+        return (int) (nextLong() >>> 32);
+    }
+
+    /**
+     * Uniform in [0, bound); bound must be positive
+     */
+    public int nextInt(int bound) {
+        // Multiply-shift on the top 31 bits; bias is below 2^-31 and irrelevant for gameplay
+        return (int) (((nextLong() >>> 33) * bound) >>> 31);
+    }
+
+    /**
+     * Uniform in [0, 1)
+     */
+    public float nextFloat() {
+        return (nextLong() >>> 40) * FLOAT_UNIT;
+    }
+
+    /**
+     * Uniform in [0, 1)
+     */
+    public double nextDouble() {
+        return (nextLong() >>> 11) * DOUBLE_UNIT;
+    }
+
+    public boolean nextBoolean() {
+        return nextLong() < 0L;
+    }
+
+    /**
+     * Fill a range with floats uniform in [0, 1), for spawning many particles at once
+     */
+    public void nextFloats(float[] values, int offset, int length) {
+        long s = state;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            s += GOLDEN_GAMMA;
+            values[i] = (mix(s) >>> 40) * FLOAT_UNIT;
+        }
+        state = s;
+    }
+
+    /**
+     * SplitMix64 finaliser; also used to spread seeds and hashes so neighbouring inputs give unrelated outputs
+     */
+    public static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,66 @@
+package com.dominicmortlock.littelifesim;
+
+/**
+ * Fixed-rate simulation clock that decouples simulation steps from the render frame rate.
+ * Frame time is accumulated and consumed in whole steps, with a cap on catch-up steps so a
+ * long frame hitch cannot spiral into an ever-growing backlog.
+ */
+public class SimulationClock {
+    private float stepSize;
+    private int maxStepsPerFrame;
+    private float accumulator;
+    private long tickCount;
+
+    public SimulationClock(float stepRate, int maxStepsPerFrame) {
+        setStepRate(stepRate);
+        this.maxStepsPerFrame = maxStepsPerFrame;
+        this.accumulator = 0f;
+        this.tickCount = 0L;
+    }
+
+    /**
+     * Add elapsed frame time and return how many fixed steps should be simulated this frame
+     */
+    public int advance(float frameTime) {
+        accumulator += frameTime;
+
+        int steps = (int) (accumulator / stepSize);
+        if (steps > maxStepsPerFrame) {
+            // Too far behind - drop the excess time instead of trying to catch up
+            steps = maxStepsPerFrame;
+            accumulator = stepSize * steps;
+        }
+
+        accumulator -= stepSize * steps;
+        tickCount += steps;
+        return steps;
+    }
+
+    /**
+     * Fraction of a step left in the accumulator, used to interpolate between the
+     * previous and current simulation state at render time
+     */
+    public float getAlpha() {
+        return Math.min(accumulator / stepSize, 1f);
+    }
+
+    public float getStepSize() {
+        return stepSize;
+    }
+
+    public float getStepRate() {
+        return 1f / stepSize;
+    }
+
+    public void setStepRate(float stepRate) {
+        this.stepSize = 1f / stepRate;
+    }
+
+    public int getMaxStepsPerFrame() {
+        return maxStepsPerFrame;
+    }
+
+    public long getTickCount() {
+        return tickCount;
+    }
+}
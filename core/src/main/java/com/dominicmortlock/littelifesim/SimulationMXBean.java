@@ -0,0 +1,79 @@
+package com.dominicmortlock.littelifesim;
+
+import java.util.Map;
+
+/**
+ * Live simulation stats and controls, registered with the platform MBean server so a running game or
+ * headless soak can be watched and steered from JConsole or VisualVM.
+ * Stats are sampled on the simulation thread once per frame; controls take effect on the next frame.
+ */
+public interface SimulationMXBean {
+    
+    long getTickCount();
+    
+    double getSimulationTime();
+    
+    int getEntityCount();
+    
+    int getLittleGuyCount();
+    
+    int getBallCount();
+    
+    int getBedCount();
+    
+    int getActiveEntityCount();
+    
+    int getArchetypeEntityCount();
+    
+    int getParticleCount();
+    
+    int getEmitterCount();
+    
+    /**
+     * Ticks per bucket of {@link #getTickTimeBucketBoundsMicros()}
+     */
+    long[] getTickTimeCounts();
+    
+    /**
+     * Exclusive upper bound of each tick-time bucket in microseconds
+     */
+    long[] getTickTimeBucketBoundsMicros();
+    
+    double getTickTimeP50Millis();
+    
+    double getTickTimeP99Millis();
+    
+    double getTickTimeP999Millis();
+    
+    double getTickTimeMaxMillis();
+    
+    double getTickTimeMeanMillis();
+    
+    /**
+     * Rough bytes held per subsystem, refreshed about once a second; object headers are not counted
+     */
+    Map<String, Long> getEstimatedBytes();
+    
+    float getSimulationRate();
+    
+    /**
+     * Ticks run per real second. Each tick still advances the world by the fixed step, so this changes
+     * how fast simulated time passes without changing its results; headless runs are unpaced and ignore it.
+     */
+    void setSimulationRate(float stepsPerSecond);
+    
+    int getParticleBudget();
+    
+    void setParticleBudget(int maxParticles);
+    
+    boolean isPaused();
+    
+    void setPaused(boolean paused);
+    
+    /**
+     * Run the given number of ticks on the next frame; only allowed while paused
+     */
+    void step(int ticks);
+    
+    void resetTickTimes();
+}
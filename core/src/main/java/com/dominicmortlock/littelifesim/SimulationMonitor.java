@@ -0,0 +1,293 @@
+package com.dominicmortlock.littelifesim;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * JMX view of one map. The frontend driving the map calls {@link #update()} once per frame, asks
+ * {@link #stepsToRun(int)} how many of its scheduled steps to run and times each one with
+ * {@link #recordTick(long)}, all on the simulation thread. JMX calls arrive on other threads and only
+ * read the published samples or leave requests for the next frame, so the map itself is never touched
+ * off the simulation thread.
+ */
+public class SimulationMonitor implements SimulationMXBean {
+    private static final double NANOS_PER_MILLI = 1e6;
+    // Rough retained size per entity including its components, behaviour state and text buffers
+    private static final long LITTLE_GUY_BYTES = 640L;
+    private static final long BALL_BYTES = 320L;
+    private static final long BED_BYTES = 240L;
+    private static final long TIMER_BYTES = 32L;
+    
+    private final Map map;
+    private final TickTimeHistogram tickTimes;
+    private final AtomicInteger pendingSteps;
+    private volatile float simulationRate;
+    private volatile int particleBudget;
+    private volatile boolean paused;
+    private volatile boolean resetRequested;
+    private ObjectName registeredName;
+    private long lastSampleNanos;
+    private ReplayRecorder recorder; // Optional; budget changes are logged so a recorded session replays the same
+    
+    // Published by update() on the simulation thread
+    private volatile long tickCount;
+    private volatile double simulationTime;
+    private volatile int entityCount;
+    private volatile int littleGuyCount;
+    private volatile int ballCount;
+    private volatile int bedCount;
+    private volatile int activeEntityCount;
+    private volatile int archetypeEntityCount;
+    private volatile int particleCount;
+    private volatile int emitterCount;
+    private volatile java.util.Map<String, Long> estimatedBytes;
+    
+    public SimulationMonitor(Map map, float simulationRate) {
+        this.map = map;
+        this.tickTimes = new TickTimeHistogram();
+        this.pendingSteps = new AtomicInteger();
+        this.simulationRate = simulationRate;
+        this.particleBudget = map.getParticleSystem().getMaxParticles();
+        this.estimatedBytes = Collections.emptyMap();
+        this.lastSampleNanos = System.nanoTime() - (long) (GameConstants.MONITOR_SAMPLE_INTERVAL * 1e9);
+        update();
+    }
+    
+    public void setRecorder(ReplayRecorder recorder) {
+        this.recorder = recorder;
+    }
+    
+    /**
+     * Apply pending controls and publish fresh stats; call once per frame on the simulation thread
+     */
+    public void update() {
+        ParticleSystem particles = map.getParticleSystem();
+        int budget = particleBudget;
+        if (particles.getMaxParticles() != budget) {
+            particles.setMaxParticles(budget);
+            if (recorder != null) {
+                recorder.recordParticleBudget(map.getTickCount(), budget); // It changes the simulation, so replays need it
+            }
+        }
+        if (resetRequested) {
+            resetRequested = false;
+            tickTimes.reset();
+        }
+        
+        tickCount = map.getTickCount();
+        simulationTime = map.getSimulationTime();
+        entityCount = map.getEntities().size();
+        littleGuyCount = map.getEntitiesOfType(LittleGuy.class).size();
+        ballCount = map.getEntitiesOfType(Ball.class).size();
+        bedCount = map.getEntitiesOfType(Bed.class).size();
+        activeEntityCount = map.getActiveEntityCount();
+        archetypeEntityCount = map.getArchetypeStore().getEntityCount();
+        particleCount = particles.getParticleCount();
+        emitterCount = particles.getEmitterCount();
+        
+        // Walking the grid cells costs more than the counts, so the estimates are refreshed less often
+        long now = System.nanoTime();
+        if (now - lastSampleNanos >= (long) (GameConstants.MONITOR_SAMPLE_INTERVAL * 1e9)) {
+            lastSampleNanos = now;
+            estimatedBytes = sampleBytes();
+        }
+    }
+    
+    private java.util.Map<String, Long> sampleBytes() {
+        java.util.Map<String, Long> bytes = new LinkedHashMap<>();
+        bytes.put("entities", littleGuyCount * LITTLE_GUY_BYTES + ballCount * BALL_BYTES + bedCount * BED_BYTES);
+        bytes.put("archetypes", map.getArchetypeStore().estimateBytes());
+        bytes.put("particles", map.getParticleSystem().estimateBytes());
+        bytes.put("spatialGrid", map.getSpatialGrid().estimateBytes());
+        bytes.put("collisions", map.getCollisionSystem().estimateBytes());
+        bytes.put("timers", map.getTimerWheel().getScheduledCount() * TIMER_BYTES);
+        return Collections.unmodifiableMap(bytes);
+    }
+    
+    /**
+     * How many of the frame's scheduled steps to actually run: all of them normally, none while paused
+     * unless {@link #step(int)} asked for some
+     */
+    public int stepsToRun(int scheduledSteps) {
+        return paused ? pendingSteps.getAndSet(0) : scheduledSteps;
+    }
+    
+    /**
+     * Add one tick's duration to the histogram; call on the simulation thread
+     */
+    public void recordTick(long nanos) {
+        tickTimes.record(nanos);
+    }
+    
+    /**
+     * Register with the platform MBean server, replacing any earlier simulation registered there
+     */
+    public void register() throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(GameConstants.MONITOR_OBJECT_NAME);
+        if (server.isRegistered(name)) {
+            server.unregisterMBean(name);
+        }
+        server.registerMBean(this, name);
+        registeredName = name;
+    }
+    
+    public void unregister() throws JMException {
+        if (registeredName == null) return;
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        if (server.isRegistered(registeredName)) {
+            server.unregisterMBean(registeredName);
+        }
+        registeredName = null;
+    }
+    
+    @Override
+    public long getTickCount() {
+        return tickCount;
+    }
+    
+    @Override
+    public double getSimulationTime() {
+        return simulationTime;
+    }
+    
+    @Override
+    public int getEntityCount() {
+        return entityCount;
+    }
+    
+    @Override
+    public int getLittleGuyCount() {
+        return littleGuyCount;
+    }
+    
+    @Override
+    public int getBallCount() {
+        return ballCount;
+    }
+    
+    @Override
+    public int getBedCount() {
+        return bedCount;
+    }
+    
+    @Override
+    public int getActiveEntityCount() {
+        return activeEntityCount;
+    }
+    
+    @Override
+    public int getArchetypeEntityCount() {
+        return archetypeEntityCount;
+    }
+    
+    @Override
+    public int getParticleCount() {
+        return particleCount;
+    }
+    
+    @Override
+    public int getEmitterCount() {
+        return emitterCount;
+    }
+    
+    @Override
+    public long[] getTickTimeCounts() {
+        return tickTimes.getCounts();
+    }
+    
+    @Override
+    public long[] getTickTimeBucketBoundsMicros() {
+        return TickTimeHistogram.getBucketBoundsMicros();
+    }
+    
+    @Override
+    public double getTickTimeP50Millis() {
+        return tickTimes.percentileNanos(50.0) / NANOS_PER_MILLI;
+    }
+    
+    @Override
+    public double getTickTimeP99Millis() {
+        return tickTimes.percentileNanos(99.0) / NANOS_PER_MILLI;
+    }
+    
+    @Override
+    public double getTickTimeP999Millis() {
+        return tickTimes.percentileNanos(99.9) / NANOS_PER_MILLI;
+    }
+    
+    @Override
+    public double getTickTimeMaxMillis() {
+        return tickTimes.getMaxNanos() / NANOS_PER_MILLI;
+    }
+    
+    @Override
+    public double getTickTimeMeanMillis() {
+        return tickTimes.getMeanNanos() / NANOS_PER_MILLI;
+    }
+    
+    @Override
+    public java.util.Map<String, Long> getEstimatedBytes() {
+        return estimatedBytes;
+    }
+    
+    @Override
+    public float getSimulationRate() {
+        return simulationRate;
+    }
+    
+    @Override
+    public void setSimulationRate(float stepsPerSecond) {
+        if (!(stepsPerSecond > 0f) || Float.isInfinite(stepsPerSecond)) {
+            throw new IllegalArgumentException("Simulation rate must be positive: " + stepsPerSecond);
+        }
+        simulationRate = stepsPerSecond;
+    }
+    
+    @Override
+    public int getParticleBudget() {
+        return particleBudget;
+    }
+    
+    @Override
+    public void setParticleBudget(int maxParticles) {
+        if (maxParticles < 0) {
+            throw new IllegalArgumentException("Particle budget cannot be negative: " + maxParticles);
+        }
+        particleBudget = maxParticles;
+    }
+    
+    @Override
+    public boolean isPaused() {
+        return paused;
+    }
+    
+    @Override
+    public void setPaused(boolean paused) {
+        if (!paused) {
+            pendingSteps.set(0);
+        }
+        this.paused = paused;
+    }
+    
+    @Override
+    public void step(int ticks) {
+        if (ticks < 1) {
+            throw new IllegalArgumentException("Step at least one tick: " + ticks);
+        }
+        if (!paused) {
+            throw new IllegalStateException("Pause the simulation before stepping it");
+        }
+        pendingSteps.addAndGet(ticks);
+    }
+    
+    @Override
+    public void resetTickTimes() {
+        resetRequested = true;
+    }
+}
@@ -0,0 +1,57 @@
+package com.dominicmortlock.littelifesim;
+
+import java.util.Iterator;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+/**
+ * Receives tick, phase and behaviour events from a map, for tracing long runs.
+ * Maps hold a null tracer unless one is installed, so tracing costs nothing by default.
+ * Ticks and phases are reported on the thread calling {@link Map#updateAll} or {@link Map#renderAll};
+ * state transitions and holding changes may come from update worker threads.
+ */
+public interface SimulationTracer {
+
+    /**
+     * Sections of a step and of a frame, in the order they run
+     */
+    enum Phase {
+        TIMERS,
+        ENTITY_UPDATE,
+        APPLY_INTERACTIONS,
+        COLLISIONS,
+        RETIRE_SLEEPERS,
+        ARCHETYPE_PHYSICS,
+        PARTICLES,
+        RENDER_PARTICLES,
+        RENDER_ARCHETYPES,
+        RENDER_ENTITIES
+    }
+
+    void beginTick(long tick);
+
+    void endTick(long tick, int activeEntities);
+
+    void beginPhase(Phase phase);
+
+    void endPhase(Phase phase);
+
+    void stateChanged(LittleGuy littleGuy, State from, State to);
+
+    void holdingStarted(Holder holder, Holdable holdable);
+
+    void holdingStopped(Holder holder, Holdable holdable);
+
+    /**
+     * The tracer provided on the classpath through {@link ServiceLoader}, or null if there is none
+     * or it cannot run on this JVM (the Flight Recorder tracer needs Java 11).
+     */
+    static SimulationTracer findInstalled() {
+        try {
+            Iterator<SimulationTracer> tracers = ServiceLoader.load(SimulationTracer.class).iterator();
+            return tracers.hasNext() ? tracers.next() : null;
+        } catch (ServiceConfigurationError | LinkageError e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package com.dominicmortlock.littelifesim;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Uniform spatial hash over entity centres for near-constant-time proximity queries.
+ * Each entity lives in the cell containing its centre; queries are padded by the largest
+ * half-extent seen so entities overlapping a query box from a neighbouring cell are still found.
+ * Cells are kept in an open-addressing table keyed by packed cell coordinates, so the world
+ * does not need fixed bounds and lookups do not box keys.
+ */
+public class SpatialHashGrid {
+    private static final int INITIAL_TABLE_CAPACITY = 256; // Must be a power of two
+    private static final long EMPTY_KEY = Long.MIN_VALUE;
+    
+    private final float cellSize;
+    private final float inverseCellSize;
+    private float maxHalfExtent;
+    
+    // Open-addressing table from packed cell coordinates to cell slot
+    private long[] tableKeys;
+    private int[] tableCells;
+    private int tableSize;
+    
+    // Cell contents, indexed by cell slot
+    private Entity[][] cellEntities;
+    private int[] cellSizes;
+    private int cellCount;
+    
+    public SpatialHashGrid(float cellSize) {
+        this.cellSize = cellSize;
+        this.inverseCellSize = 1f / cellSize;
+        this.maxHalfExtent = 0f;
+        this.tableKeys = new long[INITIAL_TABLE_CAPACITY];
+        this.tableCells = new int[INITIAL_TABLE_CAPACITY];
+        Arrays.fill(tableKeys, EMPTY_KEY);
+        this.tableSize = 0;
+        this.cellEntities = new Entity[INITIAL_TABLE_CAPACITY][];
+        this.cellSizes = new int[INITIAL_TABLE_CAPACITY];
+        this.cellCount = 0;
+    }
+    
+    /**
+     * Create every cell covering a region up front, each with room for a few entities,
+     * so entities spreading out across it do not allocate cells as they go
+     */
+    public void reserve(float minX, float minY, float maxX, float maxY) {
+        int minCellX = cellCoordinate(minX);
+        int minCellY = cellCoordinate(minY);
+        int maxCellX = cellCoordinate(maxX);
+        int maxCellY = cellCoordinate(maxY);
+        for (int cellY = minCellY; cellY <= maxCellY; cellY++) {
+            for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+                getOrCreateCell(packKey(cellX, cellY));
+            }
+        }
+    }
+    
+    public void insert(Entity entity) {
+        maxHalfExtent = Math.max(maxHalfExtent, Math.max(entity.getWidth(), entity.getHeight()) / 2);
+        long key = cellKeyOf(entity);
+        addToCell(getOrCreateCell(key), entity);
+        entity.gridCellKey = key;
+    }
+    
+    public void remove(Entity entity) {
+        if (entity.gridCell < 0) return;
+        removeFromCell(entity);
+    }
+    
+    /**
+     * Whether the entity has moved into a different cell since it was last indexed
+     */
+    public boolean needsUpdate(Entity entity) {
+        return entity.gridCell >= 0 && entity.gridCellKey != cellKeyOf(entity);
+    }
+    
+    /**
+     * Re-index an entity after it moved; does nothing if it is still in the same cell
+     */
+    public void update(Entity entity) {
+        if (!needsUpdate(entity)) return;
+        removeFromCell(entity);
+        long key = cellKeyOf(entity);
+        addToCell(getOrCreateCell(key), entity);
+        entity.gridCellKey = key;
+    }
+    
+    /**
+     * Collect entities whose bounds overlap the given box (edges touching count as overlapping)
+     * @param out Cleared and filled with the results
+     */
+    public List<Entity> queryAabb(float minX, float minY, float maxX, float maxY, List<Entity> out) {
+        out.clear();
+        int minCellX = cellCoordinate(minX - maxHalfExtent);
+        int minCellY = cellCoordinate(minY - maxHalfExtent);
+        int maxCellX = cellCoordinate(maxX + maxHalfExtent);
+        int maxCellY = cellCoordinate(maxY + maxHalfExtent);
+        
+        for (int cellY = minCellY; cellY <= maxCellY; cellY++) {
+            for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+                int cell = findCell(packKey(cellX, cellY));
+                if (cell < 0) continue;
+                
+                Entity[] entities = cellEntities[cell];
+                int size = cellSizes[cell];
+                for (int i = 0; i < size; i++) {
+                    Entity entity = entities[i];
+                    if (entity.getX() <= maxX && entity.getX() + entity.getWidth() >= minX &&
+                        entity.getY() <= maxY && entity.getY() + entity.getHeight() >= minY) {
+                        out.add(entity);
+                    }
+                }
+            }
+        }
+        return out;
+    }
+    
+    /**
+     * Collect entities whose bounds come within a radius of a point
+     * @param out Cleared and filled with the results
+     */
+    public List<Entity> queryRadius(float centerX, float centerY, float radius, List<Entity> out) {
+        queryAabb(centerX - radius, centerY - radius, centerX + radius, centerY + radius, out);
+        float radiusSquared = radius * radius;
+        
+        // Drop the box corners: keep entities whose closest point lies within the radius
+        int kept = 0;
+        for (int i = 0; i < out.size(); i++) {
+            Entity entity = out.get(i);
+            float closestX = Math.max(entity.getX(), Math.min(centerX, entity.getX() + entity.getWidth()));
+            float closestY = Math.max(entity.getY(), Math.min(centerY, entity.getY() + entity.getHeight()));
+            float dx = closestX - centerX;
+            float dy = closestY - centerY;
+            if (dx * dx + dy * dy <= radiusSquared) {
+                out.set(kept++, entity);
+            }
+        }
+        for (int i = out.size() - 1; i >= kept; i--) {
+            out.remove(i);
+        }
+        return out;
+    }
+    
+    public float getCellSize() {
+        return cellSize;
+    }
+    
+    public int getCellCount() {
+        return cellCount;
+    }
+    
+    /**
+     * Approximate bytes held by the hash table and cell lists, ignoring object headers
+     */
+    long estimateBytes() {
+        long bytes = (long) tableKeys.length * 8 + (long) tableCells.length * 4 + (long) cellSizes.length * 4 +
+                     (long) cellEntities.length * 4;
+        for (int i = 0; i < cellCount; i++) {
+            bytes += (long) cellEntities[i].length * 4; // Compressed references
+        }
+        return bytes;
+    }
+    
+    private long cellKeyOf(Entity entity) {
+        return packKey(cellCoordinate(entity.getX() + entity.getWidth() / 2),
+                       cellCoordinate(entity.getY() + entity.getHeight() / 2));
+    }
+    
+    private int cellCoordinate(float position) {
+        return (int) Math.floor(position * inverseCellSize);
+    }
+    
+    private static long packKey(int cellX, int cellY) {
+        return ((long) cellX << 32) | (cellY & 0xFFFFFFFFL);
+    }
+    
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+    
+    private int findCell(long key) {
+        int mask = tableKeys.length - 1;
+        int index = hash(key) & mask;
+        while (tableKeys[index] != EMPTY_KEY) {
+            if (tableKeys[index] == key) {
+                return tableCells[index];
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+    
+    private int getOrCreateCell(long key) {
+        int cell = findCell(key);
+        if (cell >= 0) return cell;
+        
+        // Cells are never removed; an emptied cell is simply reused when something moves back in
+        if ((tableSize + 1) * 2 > tableKeys.length) {
+            growTable();
+        }
+        if (cellCount == cellEntities.length) {
+            int capacity = cellEntities.length * 2;
+            Entity[][] entities = new Entity[capacity][];
+            int[] sizes = new int[capacity];
+            System.arraycopy(cellEntities, 0, entities, 0, cellCount);
+            System.arraycopy(cellSizes, 0, sizes, 0, cellCount);
+            cellEntities = entities;
+            cellSizes = sizes;
+        }
+        
+        cell = cellCount++;
+        cellEntities[cell] = new Entity[GameConstants.SPATIAL_CELL_CAPACITY];
+        cellSizes[cell] = 0;
+        putKey(key, cell);
+        return cell;
+    }
+    
+    private void putKey(long key, int cell) {
+        int mask = tableKeys.length - 1;
+        int index = hash(key) & mask;
+        while (tableKeys[index] != EMPTY_KEY) {
+            index = (index + 1) & mask;
+        }
+        tableKeys[index] = key;
+        tableCells[index] = cell;
+        tableSize++;
+    }
+    
+    private void growTable() {
+        long[] oldKeys = tableKeys;
+        int[] oldCells = tableCells;
+        tableKeys = new long[oldKeys.length * 2];
+        tableCells = new int[oldKeys.length * 2];
+        Arrays.fill(tableKeys, EMPTY_KEY);
+        tableSize = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY_KEY) {
+                putKey(oldKeys[i], oldCells[i]);
+            }
+        }
+    }
+    
+    private void addToCell(int cell, Entity entity) {
+        Entity[] entities = cellEntities[cell];
+        int size = cellSizes[cell];
+        if (size == entities.length) {
+            Entity[] grown = new Entity[entities.length * 2];
+            System.arraycopy(entities, 0, grown, 0, size);
+            cellEntities[cell] = grown;
+            entities = grown;
+        }
+        entities[size] = entity;
+        cellSizes[cell] = size + 1;
+        entity.gridCell = cell;
+        entity.gridSlot = size;
+    }
+    
+    private void removeFromCell(Entity entity) {
+        int cell = entity.gridCell;
+        int slot = entity.gridSlot;
+        Entity[] entities = cellEntities[cell];
+        int last = cellSizes[cell] - 1;
+        
+        // Swap the last entity of the cell into the freed slot
+        if (slot != last) {
+            Entity moved = entities[last];
+            entities[slot] = moved;
+            moved.gridSlot = slot;
+        }
+        entities[last] = null;
+        cellSizes[cell] = last;
+        entity.gridCell = -1;
+        entity.gridSlot = -1;
+    }
+}
@@ -0,0 +1,85 @@
+package com.dominicmortlock.littelifesim;
+
+/**
+ * One chunk's entry in the region index: where its records sit in its {@link RegionFile} and how many there are.
+ * The index is saved with the world, so a save holds the resident chunks plus this list of streamed-out ones.
+ * <p>
+ * Each chunk has two extents. The one its records were in when the world was last saved is never written
+ * during a session, so that save still loads if the session ends without saving again; evictions write the
+ * other one. Loading a chunk leaves its extent as it was.
+ */
+final class StoredChunk {
+    final long key;
+    private final long[] offsets;
+    private final int[] capacities;
+    private final int committedSide; // Extent the last save points at, or -1
+    private int liveSide; // Extent holding the chunk's records, or -1 while the chunk is resident
+    private int entityCount;
+    private int archetypeCount;
+    
+    StoredChunk(long key) {
+        this(key, 0L, 0, 0L, 0, -1, 0, 0);
+    }
+    
+    StoredChunk(long key, long offset, int capacity, long secondOffset, int secondCapacity,
+                int liveSide, int entityCount, int archetypeCount) {
+        this.key = key;
+        this.offsets = new long[]{offset, secondOffset};
+        this.capacities = new int[]{capacity, secondCapacity};
+        this.committedSide = liveSide;
+        this.liveSide = liveSide;
+        this.entityCount = entityCount;
+        this.archetypeCount = archetypeCount;
+    }
+    
+    boolean isStored() {
+        return liveSide >= 0;
+    }
+    
+    /**
+     * The extent evictions write to: whichever one the last save does not point at
+     */
+    int writableSide() {
+        return committedSide == 0 ? 1 : 0;
+    }
+    
+    /**
+     * Record that the chunk's records were written to an extent
+     */
+    void stored(int side, long offset, int capacity, int entityCount, int archetypeCount) {
+        offsets[side] = offset;
+        capacities[side] = capacity;
+        this.liveSide = side;
+        this.entityCount = entityCount;
+        this.archetypeCount = archetypeCount;
+    }
+    
+    /**
+     * Record that the chunk's records were read back into the map; its extents stay reserved for it
+     */
+    void resident() {
+        liveSide = -1;
+        entityCount = 0;
+        archetypeCount = 0;
+    }
+    
+    long getOffset(int side) {
+        return offsets[side];
+    }
+    
+    int getCapacity(int side) {
+        return capacities[side];
+    }
+    
+    int getLiveSide() {
+        return liveSide;
+    }
+    
+    int getEntityCount() {
+        return entityCount;
+    }
+    
+    int getArchetypeCount() {
+        return archetypeCount;
+    }
+}
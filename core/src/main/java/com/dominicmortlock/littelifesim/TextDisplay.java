@@ -1,10 +1,6 @@
 package com.dominicmortlock.littelifesim;
 
-import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Random;
 
 /**
  * Displays text above entities using simple pixel art characters.
@@ -13,48 +9,40 @@ import java.util.Random;
 public class TextDisplay {
     private String text;
     private float x, y;
-    private float lifetime;
+    private double shownAt; // Simulation time the text appeared; lifetime is derived from it, not ticked
     private float maxLifetime;
     private boolean active;
     private Entity owner;
     private String currentMood;
-    private Random random;
-    private static Map<Character, float[][]> characterPatterns;
+    private GlyphCache.Layout layout; // Resolved on the render thread the first time the text is drawn
     
     // Visual properties from GameConstants
     private static final float OFFSET_X = GameConstants.TEXT_OFFSET_X;
     private static final float OFFSET_Y = GameConstants.TEXT_OFFSET_Y;
-    private static final float CHAR_WIDTH = GameConstants.CHAR_WIDTH;
-    private static final float CHAR_HEIGHT = GameConstants.CHAR_HEIGHT;
-    private static final float BOLD_THICKNESS = GameConstants.BOLD_THICKNESS;
-    
-    static {
-        initializeCharacterPatterns();
-    }
     
     public TextDisplay(Entity owner) {
         this.owner = owner;
         this.text = "";
-        this.lifetime = 0f;
+        this.shownAt = 0.0;
         this.maxLifetime = 2f;
         this.active = false;
         this.currentMood = "";
-        this.random = new Random();
     }
     
     public void setMood(String mood, float likelihood, float duration) {
         this.currentMood = mood;
         
         // Show thought based on likelihood
-        if (random.nextFloat() < likelihood) {
+        if (owner.getRandom().nextFloat() < likelihood) {
             show(mood, duration);
         }
     }
     
     public void show(String text, float duration) {
         this.text = text;
+        this.layout = null;
         this.maxLifetime = duration;
-        this.lifetime = 0f;
+        this.shownAt = currentTime();
         this.active = true;
         updatePosition();
     }
@@ -63,15 +51,11 @@ public class TextDisplay {
         show(text, 2f);
     }
     
-    public void update(float deltaTime) {
-        if (!active) return;
-        
-        lifetime += deltaTime;
-        if (lifetime >= maxLifetime) {
-            active = false;
-        }
-        
-        updatePosition();
+    /**
+     * Simulation time from the owner's map, so an owner that is not updating still has its text expire
+     */
+    private double currentTime() {
+        return owner != null && owner.map != null ? owner.map.getSimulationTime() : 0.0;
     }
     
     private void updatePosition() {
@@ -84,6 +68,15 @@ public class TextDisplay {
     public void render(ShapeRenderer shapeRenderer) {
         if (!active || text.isEmpty()) return;
         
+        float lifetime = (float) (currentTime() - shownAt);
+        if (lifetime >= maxLifetime) {
+            active = false;
+            return;
+        }
+        
+        // Follow the owner's (possibly interpolated) render position
+        updatePosition();
+        
         // Calculate fade effect
         float alpha = 1f;
         if (lifetime > maxLifetime * 0.7f) {
@@ -91,66 +84,15 @@ public class TextDisplay {
             alpha = 1f - fadeProgress;
         }
         
-        // Draw text as simple pixel rectangles
-        drawText(shapeRenderer, text, x, y, alpha);
-    }
-    
-    private void drawText(ShapeRenderer shapeRenderer, String text, float startX, float startY, float alpha) {
-        float currentX = startX;
-        
-        // First pass: Draw white background/outline for each character
-        shapeRenderer.setColor(1f, 1f, 1f, alpha * 0.9f); // White background
-        for (int i = 0; i < text.length(); i++) {
-            char c = text.charAt(i);
-            // Draw background rectangle for each character
-            shapeRenderer.rect(currentX - 1, startY - 1, CHAR_WIDTH + 2, CHAR_HEIGHT + 2);
-            currentX += CHAR_WIDTH + 1f;
-        }
-        
-        // Second pass: Draw black text on top
-        shapeRenderer.setColor(0f, 0f, 0f, alpha); // Black text
-        currentX = startX;
-        for (int i = 0; i < text.length(); i++) {
-            char c = text.charAt(i);
-            drawCharacter(shapeRenderer, c, currentX, startY);
-            currentX += CHAR_WIDTH + 1f; // Character width + spacing
-        }
-    }
-    
-    private static void initializeCharacterPatterns() {
-        characterPatterns = new HashMap<>();
-        
-        // Each pattern is an array of rectangles: [x, y, width, height]
-        characterPatterns.put('.', new float[][]{{2, 0, BOLD_THICKNESS, BOLD_THICKNESS}});
-        characterPatterns.put('!', new float[][]{{2, 2, BOLD_THICKNESS, 4}, {2, 0, BOLD_THICKNESS, BOLD_THICKNESS}});
-        characterPatterns.put('?', new float[][]{{0, 5, 4, BOLD_THICKNESS}, {3, 3, BOLD_THICKNESS, BOLD_THICKNESS}, 
-                                                {2, 2, BOLD_THICKNESS, BOLD_THICKNESS}, {2, 0, BOLD_THICKNESS, BOLD_THICKNESS}});
-        characterPatterns.put('z', new float[][]{{0, 3, 4, BOLD_THICKNESS}, {3, 2, BOLD_THICKNESS, BOLD_THICKNESS}, 
-                                                {1, 1, BOLD_THICKNESS, BOLD_THICKNESS}, {0, 0, 4, BOLD_THICKNESS}});
-        characterPatterns.put('Z', new float[][]{{0, 5, 4, BOLD_THICKNESS}, {3, 4, BOLD_THICKNESS, BOLD_THICKNESS}, 
-                                                {2, 3, BOLD_THICKNESS, BOLD_THICKNESS}, {1, 2, BOLD_THICKNESS, BOLD_THICKNESS}, 
-                                                {0, 0, 4, BOLD_THICKNESS}});
-        characterPatterns.put('h', new float[][]{{0, 0, BOLD_THICKNESS, 6}, {1, 3, BOLD_THICKNESS, BOLD_THICKNESS}, 
-                                                {3, 0, BOLD_THICKNESS, 4}});
-        characterPatterns.put('m', new float[][]{{0, 0, BOLD_THICKNESS, 4}, {1, 3, BOLD_THICKNESS, BOLD_THICKNESS}, 
-                                                {3, 0, BOLD_THICKNESS, 4}, {4, 3, BOLD_THICKNESS, BOLD_THICKNESS}, 
-                                                {6, 0, BOLD_THICKNESS, 4}});
-    }
-    
-    private void drawCharacter(ShapeRenderer shapeRenderer, char c, float x, float y) {
-        float[][] pattern = characterPatterns.get(c);
-        if (pattern != null) {
-            for (float[] rect : pattern) {
-                shapeRenderer.rect(x + rect[0], y + rect[1], rect[2], rect[3]);
-            }
-        } else {
-            // Default rectangle for unknown characters
-            shapeRenderer.rect(x, y, 3, 4);
+        // Draw text as simple pixel rectangles, laid out once per distinct string
+        if (layout == null) {
+            layout = GlyphCache.layout(text);
         }
+        layout.draw(shapeRenderer, x, y, alpha);
     }
     
     public boolean isActive() {
-        return active;
+        return active && currentTime() - shownAt < maxLifetime;
     }
     
     public void hide() {
@@ -1,6 +1,5 @@
 package com.dominicmortlock.littelifesim;
 
-import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 
 public class ThoughtBubble {
@@ -17,6 +16,20 @@ public class ThoughtBubble {
     private static final float OFFSET_X = 5f; // Offset from entity
     private static final float OFFSET_Y = 10f; // Above entity
     
+    // Bubble, border and tail relative to the bubble's anchor; the border strips do not overlap, so corners fade evenly
+    private static final GlyphCache.Layout FRAME = new GlyphCache.Layout(
+        new float[]{
+            -BUBBLE_WIDTH/2, 0, BUBBLE_WIDTH, BUBBLE_HEIGHT, // Background
+            -5f, -3f, 3, 3                                   // Tail pointing to character
+        },
+        new float[]{
+            -BUBBLE_WIDTH/2, BUBBLE_HEIGHT - 1, BUBBLE_WIDTH, 1, // Top border
+            -BUBBLE_WIDTH/2, 0, BUBBLE_WIDTH, 1,                 // Bottom border
+            -BUBBLE_WIDTH/2, 1, 1, BUBBLE_HEIGHT - 2,            // Left border
+            BUBBLE_WIDTH/2 - 1, 1, 1, BUBBLE_HEIGHT - 2,         // Right border
+            -5f, -1f, 3, 1                                       // Tail border
+        });
+    
     public ThoughtBubble(Entity owner) {
         this.owner = owner;
         this.text = "";
@@ -66,28 +79,8 @@ public class ThoughtBubble {
             alpha = 1f - fadeProgress;
         }
         
-        // Draw bubble background (white with border)
-        shapeRenderer.setColor(1f, 1f, 1f, alpha * 0.9f); // White background
-        shapeRenderer.rect(x - BUBBLE_WIDTH/2, y, BUBBLE_WIDTH, BUBBLE_HEIGHT);
-        
-        // Draw bubble border
-        shapeRenderer.setColor(0f, 0f, 0f, alpha); // Black border
-        // Top border
-        shapeRenderer.rect(x - BUBBLE_WIDTH/2, y + BUBBLE_HEIGHT - 1, BUBBLE_WIDTH, 1);
-        // Bottom border  
-        shapeRenderer.rect(x - BUBBLE_WIDTH/2, y, BUBBLE_WIDTH, 1);
-        // Left border
-        shapeRenderer.rect(x - BUBBLE_WIDTH/2, y, 1, BUBBLE_HEIGHT);
-        // Right border
-        shapeRenderer.rect(x + BUBBLE_WIDTH/2 - 1, y, 1, BUBBLE_HEIGHT);
-        
-        // Draw small tail pointing to character
-        float tailX = x - 5f;
-        float tailY = y - 3f;
-        shapeRenderer.setColor(1f, 1f, 1f, alpha * 0.9f);
-        shapeRenderer.rect(tailX, tailY, 3, 3);
-        shapeRenderer.setColor(0f, 0f, 0f, alpha);
-        shapeRenderer.rect(tailX, tailY + 2, 3, 1); // Tail border
+        // Draw bubble, border and tail in one pass
+        FRAME.draw(shapeRenderer, x, y, alpha);
     }
     
     public boolean isActive() {
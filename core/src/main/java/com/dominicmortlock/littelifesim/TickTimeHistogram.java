@@ -0,0 +1,97 @@
+package com.dominicmortlock.littelifesim;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of simulation tick durations in power-of-two microsecond buckets.
+ * Recorded on the simulation thread and read from monitoring threads without locking, so a reading
+ * taken mid-tick may be one sample behind. Percentiles are the upper bound of the bucket they fall in.
+ */
+public class TickTimeHistogram {
+    static final int BUCKETS = 24; // Bucket i holds ticks under 2^(i+1) microseconds; the last also holds anything slower
+    
+    private final AtomicLongArray counts;
+    private volatile long maxNanos;
+    private volatile long totalNanos;
+    private volatile long sampleCount;
+    
+    public TickTimeHistogram() {
+        counts = new AtomicLongArray(BUCKETS);
+    }
+    
+    /**
+     * Add one tick; only called from the simulation thread
+     */
+    public void record(long nanos) {
+        long micros = Math.max(1L, nanos / 1000L);
+        int bucket = Math.min(BUCKETS - 1, 63 - Long.numberOfLeadingZeros(micros));
+        counts.incrementAndGet(bucket);
+        if (nanos > maxNanos) {
+            maxNanos = nanos;
+        }
+        totalNanos += nanos;
+        sampleCount++;
+    }
+    
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0L);
+        }
+        maxNanos = 0L;
+        totalNanos = 0L;
+        sampleCount = 0L;
+    }
+    
+    public long[] getCounts() {
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+        }
+        return snapshot;
+    }
+    
+    /**
+     * Exclusive upper bound of each bucket in microseconds
+     */
+    public static long[] getBucketBoundsMicros() {
+        long[] bounds = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            bounds[i] = 1L << (i + 1);
+        }
+        return bounds;
+    }
+    
+    /**
+     * Tick time at a percentile (0-100) in nanoseconds, rounded up to its bucket bound and capped at the slowest tick
+     */
+    public long percentileNanos(double percentile) {
+        long[] snapshot = getCounts();
+        long total = 0L;
+        for (long count : snapshot) {
+            total += count;
+        }
+        if (total == 0L) return 0L;
+        long rank = (long) Math.ceil(percentile / 100.0 * total);
+        long seen = 0L;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min((1L << (i + 1)) * 1000L, maxNanos);
+            }
+        }
+        return maxNanos;
+    }
+    
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+    
+    public long getSampleCount() {
+        return sampleCount;
+    }
+    
+    public double getMeanNanos() {
+        long samples = sampleCount;
+        return samples == 0L ? 0.0 : (double) totalNanos / samples;
+    }
+}
@@ -0,0 +1,177 @@
+package com.dominicmortlock.littelifesim;
+
+/**
+ * Hierarchical timing wheel for tick-based deadlines.
+ * Four levels of 256 slots each cover 2^32 ticks; a timer sits on the lowest level whose window
+ * contains its deadline and trickles down a level each time the level below wraps. Scheduling and
+ * cancelling are O(1) and advancing a tick only touches the timers that are due.
+ * Timers are intrusive list nodes owned by whoever schedules them, so rescheduling allocates nothing.
+ */
+public class TimerWheel {
+    private static final int SLOT_BITS = 8;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final int OVERFLOW_LEVEL = LEVELS; // Deadlines beyond the top level's window, single slot
+    
+    private final Timer[][] heads;
+    private final Timer[][] tails;
+    private long currentTick;
+    private int scheduledCount;
+    
+    public TimerWheel() {
+        heads = new Timer[LEVELS + 1][SLOTS];
+        tails = new Timer[LEVELS + 1][SLOTS];
+        currentTick = 0L;
+        scheduledCount = 0;
+    }
+    
+    /**
+     * Callback run when a timer's deadline is reached
+     */
+    public interface Listener {
+        void onTimer(Timer timer);
+    }
+    
+    /**
+     * A reusable deadline. Belongs to at most one wheel slot at a time.
+     */
+    public static class Timer {
+        private final Listener listener;
+        private Timer previous;
+        private Timer next;
+        private long deadline;
+        private int level;
+        private int slot;
+        private boolean scheduled;
+        
+        public Timer(Listener listener) {
+            this.listener = listener;
+        }
+        
+        public boolean isScheduled() {
+            return scheduled;
+        }
+        
+        public long getDeadline() {
+            return deadline;
+        }
+    }
+    
+    /**
+     * Fire the timer after the given number of ticks (at least one), replacing any earlier deadline
+     */
+    public void schedule(Timer timer, long delayTicks) {
+        if (timer.scheduled) {
+            cancel(timer);
+        }
+        timer.deadline = currentTick + Math.max(1L, delayTicks);
+        timer.scheduled = true;
+        scheduledCount++;
+        place(timer);
+    }
+    
+    public void cancel(Timer timer) {
+        if (!timer.scheduled) return;
+        unlink(timer);
+        timer.scheduled = false;
+        scheduledCount--;
+    }
+    
+    /**
+     * Move to the next tick and fire every timer due on it, in the order they were scheduled
+     */
+    public void advance() {
+        currentTick++;
+        
+        // When the lower digits wrap to zero, pull the now-current slot of each higher level down, top level first
+        if ((currentTick & SLOT_MASK) == 0) {
+            int top = 1;
+            while (top < LEVELS && digit(currentTick, top) == 0) {
+                top++;
+            }
+            if (top == LEVELS) {
+                cascade(OVERFLOW_LEVEL, 0);
+                top = LEVELS - 1;
+            }
+            for (int level = top; level >= 1; level--) {
+                cascade(level, digit(currentTick, level));
+            }
+        }
+        
+        int slot = digit(currentTick, 0);
+        Timer timer;
+        while ((timer = heads[0][slot]) != null) {
+            unlink(timer);
+            timer.scheduled = false;
+            scheduledCount--;
+            timer.listener.onTimer(timer);
+        }
+    }
+    
+    public long getCurrentTick() {
+        return currentTick;
+    }
+    
+    public int getScheduledCount() {
+        return scheduledCount;
+    }
+    
+    private void place(Timer timer) {
+        // Lowest level whose window (the digits above it) is shared by the deadline and the current tick
+        int level = 0;
+        while (level < LEVELS && (timer.deadline >>> ((level + 1) * SLOT_BITS)) != (currentTick >>> ((level + 1) * SLOT_BITS))) {
+            level++;
+        }
+        if (level == LEVELS) {
+            append(timer, OVERFLOW_LEVEL, 0);
+        } else {
+            append(timer, level, digit(timer.deadline, level));
+        }
+    }
+    
+    private void cascade(int level, int slot) {
+        Timer timer = heads[level][slot];
+        heads[level][slot] = null;
+        tails[level][slot] = null;
+        while (timer != null) {
+            Timer next = timer.next;
+            timer.previous = null;
+            timer.next = null;
+            place(timer);
+            timer = next;
+        }
+    }
+    
+    private void append(Timer timer, int level, int slot) {
+        timer.level = level;
+        timer.slot = slot;
+        timer.next = null;
+        timer.previous = tails[level][slot];
+        if (timer.previous != null) {
+            timer.previous.next = timer;
+        } else {
+            heads[level][slot] = timer;
+        }
+        tails[level][slot] = timer;
+    }
+    
+    private void unlink(Timer timer) {
+        if (timer.previous != null) {
+            timer.previous.next = timer.next;
+        } else {
+            heads[timer.level][timer.slot] = timer.next;
+        }
+        if (timer.next != null) {
+            timer.next.previous = timer.previous;
+        } else {
+            tails[timer.level][timer.slot] = timer.previous;
+        }
+        timer.previous = null;
+        timer.next = null;
+    }
+    
+    private static int digit(long tick, int level) {
+        return (int) (tick >>> (level * SLOT_BITS)) & SLOT_MASK;
+    }
+}
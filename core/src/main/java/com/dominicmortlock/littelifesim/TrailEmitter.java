@@ -1,7 +1,6 @@
 package com.dominicmortlock.littelifesim;
 
 import com.badlogic.gdx.graphics.Color;
-import java.util.Random;
 
 public class TrailEmitter implements ParticleEmitter {
     private Entity entity;
@@ -10,7 +9,6 @@ public class TrailEmitter implements ParticleEmitter {
     private float currentEmissionInterval; // current interval between emissions
     private float timeSinceLastEmission;
     private boolean active;
-    private Random random;
     private float lastX, lastY; // Track previous position for direction calculation
     
     private static final float PARTICLE_LIFETIME = 2f; // seconds (shorter for cleaner look)
@@ -24,7 +22,6 @@ public class TrailEmitter implements ParticleEmitter {
         this.maxEmissionRate = maxEmissionRate;
         this.timeSinceLastEmission = 0f;
         this.active = true;
-        this.random = new Random();
         this.lastX = entity.getX();
         this.lastY = entity.getY();
         this.currentEmissionInterval = calculateRandomInterval();
@@ -46,7 +43,7 @@ public class TrailEmitter implements ParticleEmitter {
     }
     
     private float calculateRandomInterval() {
-        float randomRate = minEmissionRate + random.nextFloat() * (maxEmissionRate - minEmissionRate);
+        float randomRate = minEmissionRate + entity.getRandom().nextFloat() * (maxEmissionRate - minEmissionRate);
         return 1f / randomRate; // Convert rate to interval
     }
     
@@ -72,21 +69,21 @@ public class TrailEmitter implements ParticleEmitter {
         float particleY = currentY; // Bottom of the entity (feet level)
         
         // Add some random offset around the feet
-        particleX += (random.nextFloat() - 0.5f) * entity.getWidth() * 0.8f;
-        particleY += random.nextFloat() * entity.getHeight() * 0.2f; // Slight vertical variation near feet
+        particleX += (entity.getRandom().nextFloat() - 0.5f) * entity.getWidth() * 0.8f;
+        particleY += entity.getRandom().nextFloat() * entity.getHeight() * 0.2f; // Slight vertical variation near feet
         
         // Calculate velocity: opposite to movement direction + upward + random
         float baseVelocityX = -normalizedDx * OPPOSITE_VELOCITY_FACTOR * 30f; // opposite to movement
         float baseVelocityY = BASE_UPWARD_VELOCITY; // upward
         
         // Add random variation
-        float velocityX = baseVelocityX + (random.nextFloat() - 0.5f) * 40f;
-        float velocityY = baseVelocityY + (random.nextFloat() - 0.5f) * 20f;
+        float velocityX = baseVelocityX + (entity.getRandom().nextFloat() - 0.5f) * 40f;
+        float velocityY = baseVelocityY + (entity.getRandom().nextFloat() - 0.5f) * 20f;
         
         // Fixed size options (either 2 or 3 pixels)
-        float size = random.nextFloat() < 0.5f ? 2f : 3f;
+        float size = entity.getRandom().nextFloat() < 0.5f ? 2f : 3f;
         
-        Particle particle = new Particle(
+        particleSystem.addParticle(
             particleX, particleY,
             velocityX, velocityY,
             PARTICLE_LIFETIME,
@@ -94,8 +91,6 @@ public class TrailEmitter implements ParticleEmitter {
             TRAIL_COLOR
         );
         
-        particleSystem.addParticle(particle);
-        
         // Update last position for next frame
         lastX = currentX;
         lastY = currentY;
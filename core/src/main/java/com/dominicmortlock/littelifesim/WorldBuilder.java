@@ -0,0 +1,79 @@
+package com.dominicmortlock.littelifesim;
+
+import java.util.Random;
+
+/**
+ * Utility class for populating a map with entities.
+ * Shared by the desktop game and the headless tools so every frontend builds worlds the same way.
+ */
+public final class WorldBuilder {
+    
+    private WorldBuilder() {
+        throw new UnsupportedOperationException("Utility class should not be instantiated");
+    }
+    
+    /**
+     * Populate the map with the default starting scene: one little guy, one ball and one bed
+     */
+    public static void populateDefault(Map map) {
+        map.addEntity(new LittleGuy(380, 270));
+        map.addEntity(new Ball(200, 200));
+        map.addEntity(new Bed(600, 100));
+    }
+    
+    /**
+     * Populate the map with the given number of each entity at random positions within its bounds
+     */
+    public static void populateRandom(Map map, int littleGuys, int balls, int beds, long seed) {
+        Random random = new Random(seed);
+        
+        for (int i = 0; i < littleGuys; i++) {
+            map.addEntity(new LittleGuy(randomX(map, random, GameConstants.LITTLE_GUY_WIDTH),
+                                        randomY(map, random, GameConstants.LITTLE_GUY_HEIGHT)));
+        }
+        for (int i = 0; i < balls; i++) {
+            map.addEntity(new Ball(randomX(map, random, GameConstants.BALL_SIZE),
+                                   randomY(map, random, GameConstants.BALL_SIZE)));
+        }
+        for (int i = 0; i < beds; i++) {
+            map.addEntity(new Bed(randomX(map, random, GameConstants.BED_WIDTH),
+                                  randomY(map, random, GameConstants.BED_HEIGHT)));
+        }
+    }
+    
+    /**
+     * Add balls to the map's archetype store, thrown in random directions.
+     * These are plain physics bodies without the behaviour of {@link Ball}, for large crowd scenes.
+     */
+    public static void populateBulkBalls(Map map, int count, long seed) {
+        Random random = new Random(seed);
+        ArchetypeStore store = map.getArchetypeStore();
+        
+        for (int i = 0; i < count; i++) {
+            int id = store.create(ComponentType.POSITION, ComponentType.SIZE, ComponentType.PHYSICS, ComponentType.COLOR);
+            float x = randomX(map, random, GameConstants.BALL_SIZE);
+            float y = randomY(map, random, GameConstants.BALL_SIZE);
+            store.set(id, ComponentType.POSITION, ComponentType.POSITION_X, x);
+            store.set(id, ComponentType.POSITION, ComponentType.POSITION_Y, y);
+            store.set(id, ComponentType.POSITION, ComponentType.POSITION_PREVIOUS_X, x);
+            store.set(id, ComponentType.POSITION, ComponentType.POSITION_PREVIOUS_Y, y);
+            store.set(id, ComponentType.SIZE, ComponentType.SIZE_WIDTH, GameConstants.BALL_SIZE);
+            store.set(id, ComponentType.SIZE, ComponentType.SIZE_HEIGHT, GameConstants.BALL_SIZE);
+            store.set(id, ComponentType.PHYSICS, ComponentType.PHYSICS_VELOCITY_X, (random.nextFloat() - 0.5f) * 400f);
+            store.set(id, ComponentType.PHYSICS, ComponentType.PHYSICS_VELOCITY_Y, 100f + random.nextFloat() * 200f);
+            store.set(id, ComponentType.PHYSICS, ComponentType.PHYSICS_GROUND_LEVEL, y);
+            store.set(id, ComponentType.PHYSICS, ComponentType.PHYSICS_ACTIVE, 1f);
+            store.set(id, ComponentType.COLOR, ComponentType.COLOR_R, 0.6f);
+            store.set(id, ComponentType.COLOR, ComponentType.COLOR_G, 0.1f);
+            store.set(id, ComponentType.COLOR, ComponentType.COLOR_B, 0.1f);
+        }
+    }
+    
+    private static float randomX(Map map, Random random, float width) {
+        return random.nextFloat() * Math.max(0f, map.getWidth() - width);
+    }
+    
+    private static float randomY(Map map, Random random, float height) {
+        return random.nextFloat() * Math.max(0f, map.getHeight() - height);
+    }
+}
@@ -0,0 +1,128 @@
+package com.dominicmortlock.littelifesim;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.InputAdapter;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector3;
+
+/**
+ * Orthographic camera over a map that may be much larger than the window.
+ * Pans with WASD, the arrow keys or a right/middle mouse drag, and zooms towards the pointer with the
+ * mouse wheel. The view is kept inside the map, and centred on it when zoomed out past its edges.
+ * Register it as the input processor to receive wheel events.
+ */
+public class WorldCamera extends InputAdapter {
+    private final OrthographicCamera camera;
+    private final float worldWidth;
+    private final float worldHeight;
+    private final Vector3 unprojected; // Reused so unprojecting every frame does not allocate
+    private final Rectangle view;
+    
+    public WorldCamera(float worldWidth, float worldHeight) {
+        this.camera = new OrthographicCamera();
+        this.worldWidth = worldWidth;
+        this.worldHeight = worldHeight;
+        this.unprojected = new Vector3();
+        this.view = new Rectangle();
+    }
+    
+    /**
+     * Match the viewport to the window; call on startup and whenever the window is resized
+     */
+    public void resize(int screenWidth, int screenHeight) {
+        float x = camera.position.x;
+        float y = camera.position.y;
+        boolean first = camera.viewportWidth == 0f;
+        camera.setToOrtho(false, screenWidth, screenHeight);
+        if (!first) {
+            // setToOrtho recentres on the lower-left corner; keep looking at the same place instead
+            camera.position.set(x, y, 0f);
+        }
+        applyBounds();
+    }
+    
+    /**
+     * Apply keyboard and mouse-drag panning for this frame
+     */
+    public void update(float frameTime) {
+        float panX = 0f;
+        float panY = 0f;
+        if (Gdx.input.isKeyPressed(Input.Keys.A) || Gdx.input.isKeyPressed(Input.Keys.LEFT)) panX -= 1f;
+        if (Gdx.input.isKeyPressed(Input.Keys.D) || Gdx.input.isKeyPressed(Input.Keys.RIGHT)) panX += 1f;
+        if (Gdx.input.isKeyPressed(Input.Keys.S) || Gdx.input.isKeyPressed(Input.Keys.DOWN)) panY -= 1f;
+        if (Gdx.input.isKeyPressed(Input.Keys.W) || Gdx.input.isKeyPressed(Input.Keys.UP)) panY += 1f;
+        float keyPan = GameConstants.CAMERA_PAN_SPEED * camera.zoom * frameTime;
+        camera.position.x += panX * keyPan;
+        camera.position.y += panY * keyPan;
+        
+        if (Gdx.input.isButtonPressed(Input.Buttons.RIGHT) || Gdx.input.isButtonPressed(Input.Buttons.MIDDLE)) {
+            // Screen Y points down, world Y points up
+            camera.position.x -= Gdx.input.getDeltaX() * camera.zoom;
+            camera.position.y += Gdx.input.getDeltaY() * camera.zoom;
+        }
+        applyBounds();
+    }
+    
+    @Override
+    public boolean scrolled(float amountX, float amountY) {
+        // Zoom about the pointer: the world point under it stays under it
+        Vector3 before = unproject(Gdx.input.getX(), Gdx.input.getY());
+        float anchorX = before.x;
+        float anchorY = before.y;
+        camera.zoom = Math.max(GameConstants.CAMERA_MIN_ZOOM,
+                               Math.min(getMaxZoom(), camera.zoom * (float) Math.pow(GameConstants.CAMERA_ZOOM_STEP, amountY)));
+        camera.update();
+        Vector3 after = unproject(Gdx.input.getX(), Gdx.input.getY());
+        camera.position.x += anchorX - after.x;
+        camera.position.y += anchorY - after.y;
+        applyBounds();
+        return true;
+    }
+    
+    /**
+     * Zoomed out far enough to show the whole map, and never less than one world unit per pixel
+     */
+    private float getMaxZoom() {
+        if (camera.viewportWidth <= 0f || camera.viewportHeight <= 0f) return 1f;
+        return Math.max(1f, Math.max(worldWidth / camera.viewportWidth, worldHeight / camera.viewportHeight));
+    }
+    
+    private void applyBounds() {
+        float halfWidth = camera.viewportWidth * camera.zoom / 2f;
+        float halfHeight = camera.viewportHeight * camera.zoom / 2f;
+        camera.position.x = clampAxis(camera.position.x, halfWidth, worldWidth);
+        camera.position.y = clampAxis(camera.position.y, halfHeight, worldHeight);
+        camera.update();
+        view.set(camera.position.x - halfWidth, camera.position.y - halfHeight, halfWidth * 2f, halfHeight * 2f);
+    }
+    
+    private static float clampAxis(float centre, float halfExtent, float worldExtent) {
+        if (halfExtent * 2f >= worldExtent) return worldExtent / 2f;
+        return Math.max(halfExtent, Math.min(worldExtent - halfExtent, centre));
+    }
+    
+    /**
+     * World position under a screen position; the returned vector is reused by the next call
+     */
+    public Vector3 unproject(float screenX, float screenY) {
+        return camera.unproject(unprojected.set(screenX, screenY, 0f));
+    }
+    
+    /**
+     * World-space rectangle currently on screen; updated in place as the camera moves
+     */
+    public Rectangle getView() {
+        return view;
+    }
+    
+    public Matrix4 getCombined() {
+        return camera.combined;
+    }
+    
+    public float getZoom() {
+        return camera.zoom;
+    }
+}
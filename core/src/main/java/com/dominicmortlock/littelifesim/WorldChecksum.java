@@ -0,0 +1,65 @@
+package com.dominicmortlock.littelifesim;
+
+import java.util.List;
+
+/**
+ * Rolling hash of the world state, updated once per step.
+ * Covers every entity's position, velocity and state plus the particle count, in entity order, so two runs
+ * that agree on every rolled value stepped through the same states. Any difference carries into every later value.
+ */
+public class WorldChecksum {
+    private static final long PRIME = 0x100000001B3L;
+    
+    private long value;
+    
+    /**
+     * Fold the map's current state into the rolling value
+     */
+    public long update(Map map) {
+        value = SimRandom.mix(value * PRIME ^ hash(map));
+        return value;
+    }
+    
+    public long getValue() {
+        return value;
+    }
+    
+    /**
+     * Hash of the map's state at this moment, independent of earlier steps
+     */
+    public static long hash(Map map) {
+        long hash = map.getTickCount();
+        List<Entity> entities = map.getEntities();
+        for (int i = 0; i < entities.size(); i++) {
+            Entity entity = entities.get(i);
+            hash = add(hash, Float.floatToIntBits(entity.getX()));
+            hash = add(hash, Float.floatToIntBits(entity.getY()));
+            hash = add(hash, stateOf(entity));
+            if (entity instanceof Collidable) {
+                PhysicsComponent physics = ((Collidable) entity).getPhysicsComponent();
+                hash = add(hash, Float.floatToIntBits(physics.getVelocityX()));
+                hash = add(hash, Float.floatToIntBits(physics.getVelocityY()));
+            }
+        }
+        hash = add(hash, entities.size());
+        hash = add(hash, map.getParticleSystem().getParticleCount());
+        return SimRandom.mix(hash);
+    }
+    
+    private static int stateOf(Entity entity) {
+        if (entity instanceof LittleGuy) {
+            return ((LittleGuy) entity).getCurrentState().ordinal();
+        }
+        if (entity instanceof Ball) {
+            return ((Ball) entity).getCurrentState().ordinal();
+        }
+        if (entity instanceof Bed) {
+            return ((Bed) entity).isOccupied() ? 1 : 0;
+        }
+        return 0;
+    }
+    
+    private static long add(long hash, int word) {
+        return (hash ^ (word & 0xFFFFFFFFL)) * PRIME;
+    }
+}
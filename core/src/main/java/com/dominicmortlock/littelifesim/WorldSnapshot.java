@@ -0,0 +1,463 @@
+package com.dominicmortlock.littelifesim;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Versioned binary save format for a {@link Map}.
+ * A save is a fixed header followed by four runs of fixed-size records: entities, live particles,
+ * archetype-stored entities and the region index of chunks streamed out to region files, which load when
+ * the camera comes near them. Every field sits at a known offset, so loading reads straight out of a
+ * memory-mapped file with absolute gets and no per-field parsing. Saving streams the same records
+ * through a small direct buffer into a FileChannel, into a sibling file that then replaces the save in one
+ * atomic rename, so a crash or failed write mid-save leaves the previous save intact.
+ * Entities write and read their own records; holding and bed links are stored as record indices.
+ * Drags, sway and text moods are transient and not saved, so a dragged entity loads at rest where it was.
+ */
+public final class WorldSnapshot {
+    static final int MAGIC = 0x4C4C5357; // "LLSW"
+    static final int VERSION = 2; // Bump whenever a record layout, enum order or ComponentType order changes
+    private static final int VERSION_WITHOUT_REGION_INDEX = 1; // Same records, no streamed-out chunks
+
+    // Header layout
+    static final int HEADER_SIZE = 64;
+    private static final int HEADER_MAGIC = 0;
+    private static final int HEADER_VERSION = 4;
+    private static final int HEADER_WIDTH = 8;
+    private static final int HEADER_HEIGHT = 12;
+    private static final int HEADER_SIMULATION_TIME = 16; // double
+    private static final int HEADER_ENTITY_COUNT = 24;
+    private static final int HEADER_PARTICLE_COUNT = 28;
+    private static final int HEADER_ARCHETYPE_COUNT = 32;
+    private static final int HEADER_ENTITY_RECORD_SIZE = 36;
+    private static final int HEADER_PARTICLE_RECORD_SIZE = 40;
+    private static final int HEADER_ARCHETYPE_RECORD_SIZE = 44;
+    private static final int HEADER_REGION_CHUNK_COUNT = 48;
+    private static final int HEADER_REGION_RECORD_SIZE = 52;
+
+    // Entity record layout. The generic link, timer and value slots are listed per type on each writeSnapshot.
+    static final int ENTITY_RECORD_SIZE = 64;
+    static final int TYPE = 0; // byte
+    static final int STATE = 1; // byte, state enum ordinal
+    static final int FLAGS = 2; // byte
+    static final int X = 4;
+    static final int Y = 8;
+    static final int Z = 12;
+    static final int VELOCITY_X = 16;
+    static final int VELOCITY_Y = 20;
+    static final int GROUND_LEVEL = 24;
+    static final int LINK = 28; // Record index of a related entity, or -1
+    static final int SECOND_LINK = 32;
+    static final int TIMER = 36; // Ticks until a timer fires, or -1 when it is not scheduled
+    static final int SECOND_TIMER = 40;
+    static final int THIRD_TIMER = 44;
+    static final int VALUE = 48;
+    static final int SECOND_VALUE = 52;
+    static final int THIRD_VALUE = 56;
+
+    static final int FLAG_PHYSICS_ACTIVE = 1;
+
+    private static final byte TYPE_LITTLE_GUY = 0;
+    private static final byte TYPE_BALL = 1;
+    private static final byte TYPE_BED = 2;
+
+    // Particle record layout
+    static final int PARTICLE_RECORD_SIZE = 36;
+    static final int PARTICLE_X = 0;
+    static final int PARTICLE_Y = 4;
+    static final int PARTICLE_VELOCITY_X = 8;
+    static final int PARTICLE_VELOCITY_Y = 12;
+    static final int PARTICLE_LIFETIME = 16;
+    static final int PARTICLE_MAX_LIFETIME = 20;
+    static final int PARTICLE_SIZE = 24;
+    static final int PARTICLE_GROUND_LEVEL = 28;
+    static final int PARTICLE_COLOR = 32; // Packed RGBA8888
+
+    // Archetype record layout: the component mask, then every component's columns in ComponentType order,
+    // left zero where the entity lacks the component
+    static final int ARCHETYPE_RECORD_SIZE = 64;
+    private static final int ARCHETYPE_MASK = 0; // long
+    private static final int ARCHETYPE_COLUMNS = 8;
+    private static final int[] ARCHETYPE_COLUMN_START = archetypeColumnStarts();
+
+    // Region index record layout, one per streamed chunk; see StoredChunk
+    static final int REGION_RECORD_SIZE = 48;
+    private static final int REGION_KEY = 0; // long
+    private static final int REGION_OFFSET = 8; // long
+    private static final int REGION_SECOND_OFFSET = 16; // long
+    private static final int REGION_CAPACITY = 24;
+    private static final int REGION_SECOND_CAPACITY = 28;
+    private static final int REGION_LIVE_SIDE = 32; // -1 while the chunk is resident
+    private static final int REGION_ENTITY_COUNT = 36;
+    private static final int REGION_ARCHETYPE_COUNT = 40;
+
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;
+    private static final ArchetypeQuery ALL_ARCHETYPES = ArchetypeQuery.with();
+
+    private WorldSnapshot() {
+        throw new UnsupportedOperationException("Utility class should not be instantiated");
+    }
+
+    /**
+     * Write the map, its entities, live particles and archetype store to a file, replacing it if present.
+     * The old file stays untouched until the new one is completely written.
+     */
+    public static void save(Map map, Path path) throws IOException {
+        save(map, Collections.<StoredChunk>emptyList(), path);
+    }
+
+    /**
+     * Save the resident part of a streamed map along with the region index of its streamed-out chunks
+     */
+    static void save(Map map, List<StoredChunk> regionIndex, Path path) throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            write(map, regionIndex, temp);
+            Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException cleanup) {
+                e.addSuppressed(cleanup);
+            }
+            throw e;
+        }
+    }
+
+    private static void write(Map map, List<StoredChunk> regionIndex, Path path) throws IOException {
+        List<Entity> entities = map.getEntities();
+        for (int i = 0; i < entities.size(); i++) {
+            entities.get(i).snapshotIndex = i;
+        }
+        ParticleSystem particles = map.getParticleSystem();
+        ArchetypeStore store = map.getArchetypeStore();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                    StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+            int offset = reserve(channel, buffer, HEADER_SIZE);
+            buffer.putInt(offset + HEADER_MAGIC, MAGIC);
+            buffer.putInt(offset + HEADER_VERSION, VERSION);
+            buffer.putFloat(offset + HEADER_WIDTH, map.getWidth());
+            buffer.putFloat(offset + HEADER_HEIGHT, map.getHeight());
+            buffer.putDouble(offset + HEADER_SIMULATION_TIME, map.getSimulationTime());
+            buffer.putInt(offset + HEADER_ENTITY_COUNT, entities.size());
+            buffer.putInt(offset + HEADER_PARTICLE_COUNT, particles.getParticleCount());
+            buffer.putInt(offset + HEADER_ARCHETYPE_COUNT, store.getEntityCount());
+            buffer.putInt(offset + HEADER_ENTITY_RECORD_SIZE, ENTITY_RECORD_SIZE);
+            buffer.putInt(offset + HEADER_PARTICLE_RECORD_SIZE, PARTICLE_RECORD_SIZE);
+            buffer.putInt(offset + HEADER_ARCHETYPE_RECORD_SIZE, ARCHETYPE_RECORD_SIZE);
+            buffer.putInt(offset + HEADER_REGION_CHUNK_COUNT, regionIndex.size());
+            buffer.putInt(offset + HEADER_REGION_RECORD_SIZE, REGION_RECORD_SIZE);
+
+            for (int i = 0; i < entities.size(); i++) {
+                offset = reserve(channel, buffer, ENTITY_RECORD_SIZE);
+                writeEntityRecord(entities.get(i), buffer, offset);
+            }
+
+            for (int i = 0; i < particles.getParticleCount(); i++) {
+                offset = reserve(channel, buffer, PARTICLE_RECORD_SIZE);
+                particles.writeSnapshot(i, buffer, offset);
+            }
+
+            for (int a = 0; a < store.getArchetypeCount(); a++) {
+                Archetype archetype = store.getArchetype(a);
+                for (int c = 0; c < archetype.getChunkCount(); c++) {
+                    ArchetypeChunk chunk = archetype.getChunk(c);
+                    for (int row = 0; row < chunk.size(); row++) {
+                        offset = reserve(channel, buffer, ARCHETYPE_RECORD_SIZE);
+                        writeArchetypeRecord(chunk, row, buffer, offset);
+                    }
+                }
+            }
+
+            for (int i = 0; i < regionIndex.size(); i++) {
+                offset = reserve(channel, buffer, REGION_RECORD_SIZE);
+                writeRegionRecord(regionIndex.get(i), buffer, offset);
+            }
+
+            flush(channel, buffer);
+            channel.force(false); // On disk before the rename makes it the save
+        }
+    }
+
+    /**
+     * Build a map from a save file. The file is memory-mapped and records are read in place.
+     * Chunks the save left streamed out to region files are not loaded.
+     */
+    public static Map load(Path path) throws IOException {
+        return load(path, new ArrayList<StoredChunk>());
+    }
+
+    /**
+     * Build the resident part of a map from a save file
+     * @param regionIndex Filled with the save's streamed-out chunks, to hand to a {@link WorldStreamer}
+     */
+    static Map load(Path path, List<StoredChunk> regionIndex) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+                throw new IOException("Not a world save: " + path);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+            if (buffer.getInt(HEADER_MAGIC) != MAGIC) {
+                throw new IOException("Not a world save: " + path);
+            }
+            int version = buffer.getInt(HEADER_VERSION);
+            if (version != VERSION && version != VERSION_WITHOUT_REGION_INDEX) {
+                throw new IOException("Unsupported world save version " + version + " in " + path);
+            }
+            if (buffer.getInt(HEADER_ENTITY_RECORD_SIZE) != ENTITY_RECORD_SIZE ||
+                buffer.getInt(HEADER_PARTICLE_RECORD_SIZE) != PARTICLE_RECORD_SIZE ||
+                buffer.getInt(HEADER_ARCHETYPE_RECORD_SIZE) != ARCHETYPE_RECORD_SIZE) {
+                throw new IOException("Unexpected record sizes in " + path);
+            }
+            int entityCount = buffer.getInt(HEADER_ENTITY_COUNT);
+            int particleCount = buffer.getInt(HEADER_PARTICLE_COUNT);
+            int archetypeCount = buffer.getInt(HEADER_ARCHETYPE_COUNT);
+            int regionChunkCount = 0;
+            if (version != VERSION_WITHOUT_REGION_INDEX) {
+                if (buffer.getInt(HEADER_REGION_RECORD_SIZE) != REGION_RECORD_SIZE) {
+                    throw new IOException("Unexpected record sizes in " + path);
+                }
+                regionChunkCount = buffer.getInt(HEADER_REGION_CHUNK_COUNT);
+            }
+            long expectedSize = HEADER_SIZE + (long) entityCount * ENTITY_RECORD_SIZE +
+                                (long) particleCount * PARTICLE_RECORD_SIZE + (long) archetypeCount * ARCHETYPE_RECORD_SIZE +
+                                (long) regionChunkCount * REGION_RECORD_SIZE;
+            if (entityCount < 0 || particleCount < 0 || archetypeCount < 0 || regionChunkCount < 0 ||
+                expectedSize != size) {
+                throw new IOException("Truncated or corrupt world save: " + path);
+            }
+
+            Map map = new Map(buffer.getFloat(HEADER_WIDTH), buffer.getFloat(HEADER_HEIGHT));
+            map.restoreSimulationTime(buffer.getDouble(HEADER_SIMULATION_TIME));
+
+            int entitiesStart = HEADER_SIZE;
+            readEntityRecords(map, buffer, entitiesStart, entityCount);
+
+            ParticleSystem particles = map.getParticleSystem();
+            int particlesStart = entitiesStart + entityCount * ENTITY_RECORD_SIZE;
+            for (int i = 0; i < particleCount; i++) {
+                particles.restoreParticle(buffer, particlesStart + i * PARTICLE_RECORD_SIZE);
+            }
+
+            ArchetypeStore store = map.getArchetypeStore();
+            int archetypesStart = particlesStart + particleCount * PARTICLE_RECORD_SIZE;
+            for (int i = 0; i < archetypeCount; i++) {
+                readArchetypeRecord(store, buffer, archetypesStart + i * ARCHETYPE_RECORD_SIZE);
+            }
+
+            int regionStart = archetypesStart + archetypeCount * ARCHETYPE_RECORD_SIZE;
+            for (int i = 0; i < regionChunkCount; i++) {
+                regionIndex.add(readRegionRecord(buffer, regionStart + i * REGION_RECORD_SIZE, path));
+            }
+            return map;
+        }
+    }
+
+    // Helpers for the entity records
+
+    /**
+     * Write an entity's record; links are written as the linked entities' {@code snapshotIndex}
+     */
+    static void writeEntityRecord(Entity entity, ByteBuffer buffer, int offset) {
+        buffer.put(offset + TYPE, typeOf(entity));
+        entity.writeSnapshot(buffer, offset);
+    }
+
+    /**
+     * Add the entities in a run of records to the map, with links resolved within the run
+     */
+    static void readEntityRecords(Map map, ByteBuffer buffer, int start, int count) throws IOException {
+        // Create every entity first so records can link to ones later in the run
+        Entity[] loaded = new Entity[count];
+        for (int i = 0; i < count; i++) {
+            int offset = start + i * ENTITY_RECORD_SIZE;
+            loaded[i] = createEntity(buffer.get(offset + TYPE), buffer.getFloat(offset + X), buffer.getFloat(offset + Y));
+            map.addEntity(loaded[i]);
+        }
+        for (int i = 0; i < count; i++) {
+            loaded[i].readSnapshot(buffer, start + i * ENTITY_RECORD_SIZE, loaded);
+        }
+    }
+
+    static int indexOf(Entity entity) {
+        return entity == null ? -1 : entity.snapshotIndex;
+    }
+
+    static Entity entityAt(Entity[] entities, int index) {
+        if (index < 0) return null;
+        if (index >= entities.length) {
+            throw new IllegalArgumentException("World save links to missing entity " + index);
+        }
+        return entities[index];
+    }
+
+    static void writePhysics(ByteBuffer buffer, int offset, PhysicsComponent physics) {
+        buffer.putFloat(offset + VELOCITY_X, physics.getVelocityX());
+        buffer.putFloat(offset + VELOCITY_Y, physics.getVelocityY());
+        buffer.putFloat(offset + GROUND_LEVEL, physics.getGroundLevel());
+        if (physics.isActive()) {
+            buffer.put(offset + FLAGS, (byte) (buffer.get(offset + FLAGS) | FLAG_PHYSICS_ACTIVE));
+        }
+    }
+
+    static void readPhysics(ByteBuffer buffer, int offset, PhysicsComponent physics) {
+        physics.restore(buffer.getFloat(offset + VELOCITY_X), buffer.getFloat(offset + VELOCITY_Y),
+                        buffer.getFloat(offset + GROUND_LEVEL), (buffer.get(offset + FLAGS) & FLAG_PHYSICS_ACTIVE) != 0);
+    }
+
+    /**
+     * Ticks left until a timer fires, or -1 if it is not scheduled
+     */
+    static int ticksUntil(Map map, TimerWheel.Timer timer) {
+        if (map == null || !timer.isScheduled()) return -1;
+        long remaining = timer.getDeadline() - map.getTimerWheel().getCurrentTick();
+        return (int) Math.min(Integer.MAX_VALUE, remaining);
+    }
+
+    /**
+     * Schedule a timer for the saved number of ticks, or cancel it if none were saved
+     * @return Whether the timer is now scheduled
+     */
+    static boolean restoreTimer(Map map, TimerWheel.Timer timer, int ticks) {
+        TimerWheel wheel = map.getTimerWheel();
+        if (ticks < 0) {
+            wheel.cancel(timer);
+            return false;
+        }
+        wheel.schedule(timer, ticks);
+        return true;
+    }
+
+    private static byte typeOf(Entity entity) {
+        if (entity instanceof LittleGuy) return TYPE_LITTLE_GUY;
+        if (entity instanceof Ball) return TYPE_BALL;
+        if (entity instanceof Bed) return TYPE_BED;
+        throw new IllegalArgumentException("Entity type cannot be saved: " + entity.getClass().getName());
+    }
+
+    private static Entity createEntity(byte type, float x, float y) throws IOException {
+        switch (type) {
+            case TYPE_LITTLE_GUY: return new LittleGuy(x, y);
+            case TYPE_BALL: return new Ball(x, y);
+            case TYPE_BED: return new Bed(x, y);
+            default: throw new IOException("Unknown entity type in world save: " + type);
+        }
+    }
+
+    private static void writeArchetypeRecord(ArchetypeChunk chunk, int row, ByteBuffer buffer, int offset) {
+        Archetype archetype = chunk.getArchetype();
+        buffer.putLong(offset + ARCHETYPE_MASK, archetype.getMask());
+        for (ComponentType type : ComponentType.values()) {
+            if (!archetype.has(type)) continue;
+            for (int field = 0; field < type.getColumns(); field++) {
+                int column = ARCHETYPE_COLUMN_START[type.ordinal()] + field;
+                buffer.putFloat(offset + ARCHETYPE_COLUMNS + column * 4, chunk.column(type, field)[row]);
+            }
+        }
+    }
+
+    /**
+     * Write the archetype record for one entity in the store, by id
+     */
+    static void writeArchetypeRecord(ArchetypeStore store, int id, ByteBuffer buffer, int offset) {
+        long mask = 0L;
+        for (ComponentType type : ComponentType.values()) {
+            if (!store.has(id, type)) continue;
+            mask |= type.bit();
+            for (int field = 0; field < type.getColumns(); field++) {
+                int column = ARCHETYPE_COLUMN_START[type.ordinal()] + field;
+                buffer.putFloat(offset + ARCHETYPE_COLUMNS + column * 4, store.get(id, type, field));
+            }
+        }
+        buffer.putLong(offset + ARCHETYPE_MASK, mask);
+    }
+
+    static void readArchetypeRecord(ArchetypeStore store, ByteBuffer buffer, int offset) {
+        long mask = buffer.getLong(offset + ARCHETYPE_MASK);
+        int id = store.create(mask);
+        for (ComponentType type : ComponentType.values()) {
+            if ((mask & type.bit()) == 0) continue;
+            for (int field = 0; field < type.getColumns(); field++) {
+                int column = ARCHETYPE_COLUMN_START[type.ordinal()] + field;
+                store.set(id, type, field, buffer.getFloat(offset + ARCHETYPE_COLUMNS + column * 4));
+            }
+        }
+    }
+
+    private static void writeRegionRecord(StoredChunk chunk, ByteBuffer buffer, int offset) {
+        buffer.putLong(offset + REGION_KEY, chunk.key);
+        buffer.putLong(offset + REGION_OFFSET, chunk.getOffset(0));
+        buffer.putLong(offset + REGION_SECOND_OFFSET, chunk.getOffset(1));
+        buffer.putInt(offset + REGION_CAPACITY, chunk.getCapacity(0));
+        buffer.putInt(offset + REGION_SECOND_CAPACITY, chunk.getCapacity(1));
+        buffer.putInt(offset + REGION_LIVE_SIDE, chunk.getLiveSide());
+        buffer.putInt(offset + REGION_ENTITY_COUNT, chunk.getEntityCount());
+        buffer.putInt(offset + REGION_ARCHETYPE_COUNT, chunk.getArchetypeCount());
+    }
+
+    private static StoredChunk readRegionRecord(ByteBuffer buffer, int offset, Path path) throws IOException {
+        int liveSide = buffer.getInt(offset + REGION_LIVE_SIDE);
+        int entityCount = buffer.getInt(offset + REGION_ENTITY_COUNT);
+        int archetypeCount = buffer.getInt(offset + REGION_ARCHETYPE_COUNT);
+        if (liveSide < -1 || liveSide > 1 || entityCount < 0 || archetypeCount < 0) {
+            throw new IOException("Corrupt region index in " + path);
+        }
+        return new StoredChunk(buffer.getLong(offset + REGION_KEY),
+                               buffer.getLong(offset + REGION_OFFSET), buffer.getInt(offset + REGION_CAPACITY),
+                               buffer.getLong(offset + REGION_SECOND_OFFSET), buffer.getInt(offset + REGION_SECOND_CAPACITY),
+                               liveSide, entityCount, archetypeCount);
+    }
+
+    private static int[] archetypeColumnStarts() {
+        ComponentType[] types = ComponentType.values();
+        int[] starts = new int[types.length];
+        int column = 0;
+        for (ComponentType type : types) {
+            starts[type.ordinal()] = column;
+            column += type.getColumns();
+        }
+        if (ARCHETYPE_COLUMNS + column * 4 > ARCHETYPE_RECORD_SIZE) {
+            throw new IllegalStateException("Archetype components no longer fit a save record; grow it and bump VERSION");
+        }
+        return starts;
+    }
+
+    /**
+     * Make room for a record in the write buffer, flushing it to the channel if needed
+     * @return Offset of the zeroed record within the buffer
+     */
+    private static int reserve(FileChannel channel, ByteBuffer buffer, int size) throws IOException {
+        if (buffer.remaining() < size) {
+            flush(channel, buffer);
+        }
+        int offset = buffer.position();
+        for (int i = 0; i < size; i++) {
+            buffer.put((byte) 0);
+        }
+        return offset;
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
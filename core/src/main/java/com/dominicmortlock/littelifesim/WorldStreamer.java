@@ -0,0 +1,466 @@
+package com.dominicmortlock.littelifesim;
+
+import com.badlogic.gdx.math.Rectangle;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps only the part of a map around the view in memory. The map is split into square chunks; every
+ * {@link GameConstants#STREAM_PASS_TICKS} ticks, entities and archetype rows in chunks more than
+ * {@link GameConstants#STREAM_RESIDENT_RADIUS} chunks beyond the view are written to region files and
+ * removed from the map, and chunks coming back into range are read back in on a background I/O thread.
+ * Streamed-out chunks are frozen: their entities keep their state and timers but do not update.
+ * <p>
+ * An entity belongs to the chunk holding its centre when a pass runs, so crossing a border needs no
+ * bookkeeping. Entities are never split from what they link to: a chunk with a dragged entity, or one
+ * linked to an entity in another chunk (a carried ball, a bed's sleeper), stays resident along with that
+ * other chunk until the link is gone.
+ * <p>
+ * Region files are part of the save: closing the streamer leaves streamed-out chunks where they are, and the
+ * {@link WorldSnapshot} written afterwards holds the resident chunks plus the {@link StoredChunk} region index.
+ * A session started from that save only loads the chunks around the camera. Records referenced by the last
+ * save are never overwritten, so region files stay consistent with it even if a session ends without saving.
+ * All methods are called on the simulation thread, between steps.
+ */
+public class WorldStreamer implements Closeable {
+    private static final ArchetypeQuery POSITIONED = ArchetypeQuery.with(ComponentType.POSITION);
+    private static final String REGION_SUFFIX = ".llrg";
+    private static final long CLOSE_TIMEOUT_SECONDS = 60L;
+    
+    private final Map map;
+    private final Path directory;
+    private final float chunkSize;
+    private final ExecutorService io;
+    private final ConcurrentLinkedQueue<ChunkRecords> loaded; // Filled by the I/O thread
+    private final Set<Long> storedChunks; // Chunks with records in a region file
+    private final Set<Long> loadingChunks;
+    private final java.util.Map<Long, RegionFile> openRegions; // Only touched on the I/O thread
+    private final java.util.Map<Long, StoredChunk> regionIndex; // Only touched on the I/O thread until close
+    private volatile IOException error;
+    private long lastPassTick;
+    private long streamedOutEntities;
+    private long streamedInEntities;
+    
+    // Per-pass scratch, kept in fields so the archetype visitor can reach it
+    private final java.util.Map<Long, ChunkContents> evicting;
+    private final Set<Long> pinned;
+    private final List<Entity> removing; // Everything a pass evicts, removed from the map in one go
+    private int minChunkX, minChunkY, maxChunkX, maxChunkY;
+    
+    /**
+     * Stream a map that has nothing in region files yet. Region files already in the directory are left alone;
+     * new records go after whatever they hold.
+     * @param directory Where region files go; created if missing
+     */
+    public WorldStreamer(Map map, Path directory) throws IOException {
+        this(map, directory, Collections.<StoredChunk>emptyList());
+    }
+    
+    /**
+     * Stream a map loaded from a save, picking up the chunks it left in region files
+     * @param regionIndex The save's region index
+     */
+    WorldStreamer(Map map, Path directory, List<StoredChunk> regionIndex) throws IOException {
+        this.map = map;
+        this.directory = directory;
+        this.chunkSize = GameConstants.STREAM_CHUNK_SIZE;
+        this.storedChunks = new HashSet<>();
+        this.regionIndex = new HashMap<>();
+        for (StoredChunk chunk : regionIndex) {
+            this.regionIndex.put(chunk.key, chunk);
+            if (chunk.isStored()) {
+                storedChunks.add(chunk.key);
+            }
+        }
+        Files.createDirectories(directory);
+        this.io = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "world-streaming");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.loaded = new ConcurrentLinkedQueue<>();
+        this.loadingChunks = new HashSet<>();
+        this.openRegions = new LinkedHashMap<Long, RegionFile>(16, 0.75f, true);
+        this.evicting = new HashMap<>();
+        this.pinned = new HashSet<>();
+        this.removing = new ArrayList<>();
+        this.lastPassTick = -GameConstants.STREAM_PASS_TICKS; // The first update runs a pass
+    }
+    
+    /**
+     * Bring in chunks that finished loading and, every few ticks, stream chunks in and out around the view
+     * @param view World-space area on screen
+     */
+    public void update(Rectangle view) {
+        applyLoadedChunks();
+        long tick = map.getTickCount();
+        if (tick - lastPassTick < GameConstants.STREAM_PASS_TICKS) return;
+        lastPassTick = tick;
+        
+        float reach = GameConstants.STREAM_RESIDENT_RADIUS * chunkSize;
+        minChunkX = chunkCoordinate(view.x - reach);
+        minChunkY = chunkCoordinate(view.y - reach);
+        maxChunkX = chunkCoordinate(view.x + view.width + reach);
+        maxChunkY = chunkCoordinate(view.y + view.height + reach);
+        requestChunksInRange();
+        evictChunksOutOfRange();
+    }
+    
+    private void requestChunksInRange() {
+        long range = (long) (maxChunkX - minChunkX + 1) * (maxChunkY - minChunkY + 1);
+        if (range < storedChunks.size()) {
+            for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+                for (int chunkY = minChunkY; chunkY <= maxChunkY; chunkY++) {
+                    long key = chunkKey(chunkX, chunkY);
+                    if (storedChunks.remove(key)) {
+                        requestLoad(key);
+                    }
+                }
+            }
+            return;
+        }
+        for (Iterator<Long> stored = storedChunks.iterator(); stored.hasNext(); ) {
+            long key = stored.next();
+            if (isInRange(key)) {
+                stored.remove();
+                requestLoad(key);
+            }
+        }
+    }
+    
+    private void evictChunksOutOfRange() {
+        evicting.clear();
+        pinned.clear();
+        List<Entity> entities = map.getEntities();
+        for (int i = 0; i < entities.size(); i++) {
+            Entity entity = entities.get(i);
+            long key = chunkKeyOf(entity);
+            if (entity instanceof Draggable && ((Draggable) entity).getDraggableComponent().isBeingDragged()) {
+                pinned.add(key);
+            }
+            for (int slot = 0; slot < 2; slot++) {
+                Entity linked = entity.getLink(slot);
+                if (linked != null) {
+                    long linkedKey = chunkKeyOf(linked);
+                    if (linkedKey != key) {
+                        pinned.add(key);
+                        pinned.add(linkedKey);
+                    }
+                }
+            }
+            if (!isInRange(key)) {
+                contentsOf(key).entities.add(entity);
+            }
+        }
+        ArchetypeStore store = map.getArchetypeStore();
+        store.forEachChunk(POSITIONED, this::collectArchetypeRows);
+        if (evicting.isEmpty()) return;
+        
+        for (ChunkContents contents : evicting.values()) {
+            if (pinned.contains(contents.key)) continue;
+            ChunkRecords records = write(contents, store);
+            removing.addAll(contents.entities);
+            for (int i = 0; i < contents.archetypeCount; i++) {
+                store.destroy(contents.archetypeIds[i]);
+            }
+            streamedOutEntities += records.entityCount + records.archetypeCount;
+            storedChunks.add(contents.key);
+            io.execute(() -> store(records));
+        }
+        map.removeEntities(removing);
+        removing.clear();
+        evicting.clear();
+    }
+    
+    private void collectArchetypeRows(ArchetypeChunk chunk) {
+        float[] x = chunk.column(ComponentType.POSITION, ComponentType.POSITION_X);
+        float[] y = chunk.column(ComponentType.POSITION, ComponentType.POSITION_Y);
+        for (int row = 0; row < chunk.size(); row++) {
+            long key = chunkKey(chunkCoordinate(x[row]), chunkCoordinate(y[row]));
+            if (!isInRange(key)) {
+                contentsOf(key).addArchetype(chunk.id(row));
+            }
+        }
+    }
+    
+    private ChunkRecords write(ChunkContents contents, ArchetypeStore store) {
+        List<Entity> entities = contents.entities;
+        ByteBuffer records = ByteBuffer.allocate(ChunkRecords.sizeOf(entities.size(), contents.archetypeCount))
+                                       .order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < entities.size(); i++) {
+            entities.get(i).snapshotIndex = i;
+        }
+        for (int i = 0; i < entities.size(); i++) {
+            WorldSnapshot.writeEntityRecord(entities.get(i), records, i * WorldSnapshot.ENTITY_RECORD_SIZE);
+        }
+        int archetypesStart = entities.size() * WorldSnapshot.ENTITY_RECORD_SIZE;
+        for (int i = 0; i < contents.archetypeCount; i++) {
+            WorldSnapshot.writeArchetypeRecord(store, contents.archetypeIds[i], records,
+                                               archetypesStart + i * WorldSnapshot.ARCHETYPE_RECORD_SIZE);
+        }
+        return new ChunkRecords(contents.key, entities.size(), contents.archetypeCount, records);
+    }
+    
+    private void requestLoad(long key) {
+        loadingChunks.add(key);
+        io.execute(() -> load(key));
+    }
+    
+    private void applyLoadedChunks() {
+        ChunkRecords records;
+        while ((records = loaded.poll()) != null) {
+            loadingChunks.remove(records.key);
+            if (records.records == null) {
+                // Still on disk; tried again when the chunk is next in range
+                storedChunks.add(records.key);
+                continue;
+            }
+            try {
+                WorldSnapshot.readEntityRecords(map, records.records, 0, records.entityCount);
+                ArchetypeStore store = map.getArchetypeStore();
+                for (int i = 0; i < records.archetypeCount; i++) {
+                    WorldSnapshot.readArchetypeRecord(store, records.records,
+                                                      records.archetypesStart() + i * WorldSnapshot.ARCHETYPE_RECORD_SIZE);
+                }
+                streamedInEntities += records.entityCount + records.archetypeCount;
+            } catch (IOException e) {
+                fail(e);
+            }
+        }
+    }
+    
+    // I/O thread
+    
+    private void store(ChunkRecords records) {
+        StoredChunk chunk = regionIndex.get(records.key);
+        if (chunk == null) {
+            chunk = new StoredChunk(records.key);
+            regionIndex.put(records.key, chunk);
+        }
+        ChunkRecords pending = records;
+        try {
+            RegionFile region = regionFor(records.key);
+            if (chunk.isStored()) {
+                int liveSide = chunk.getLiveSide();
+                ChunkRecords stored = region.read(chunk.key, chunk.getOffset(liveSide), chunk.getEntityCount(),
+                                                  chunk.getArchetypeCount());
+                pending = ChunkRecords.append(stored, records);
+                chunk.resident(); // Until the combined records are written, they only exist here
+            }
+            int side = chunk.writableSide();
+            long offset = chunk.getOffset(side);
+            int capacity = chunk.getCapacity(side);
+            int size = pending.size();
+            if (size > capacity) {
+                // Outgrown: move to a larger extent at the end, leaving the old one unused
+                capacity = Math.max(size, capacity * 2);
+                offset = region.allocate(capacity);
+            }
+            region.write(offset, pending.records, size);
+            chunk.stored(side, offset, capacity, pending.entityCount, pending.archetypeCount);
+        } catch (IOException e) {
+            fail(e);
+            // Hand the chunk straight back rather than lose it
+            loaded.add(pending);
+        }
+    }
+    
+    private void load(long key) {
+        StoredChunk chunk = regionIndex.get(key);
+        if (chunk == null || !chunk.isStored()) {
+            // Nothing on disk, as when a failed write handed the chunk back
+            loaded.add(new ChunkRecords(key, 0, 0, ByteBuffer.allocate(0)));
+            return;
+        }
+        try {
+            int side = chunk.getLiveSide();
+            loaded.add(regionFor(key).read(key, chunk.getOffset(side), chunk.getEntityCount(), chunk.getArchetypeCount()));
+            chunk.resident();
+        } catch (IOException e) {
+            fail(e);
+            loaded.add(new ChunkRecords(key, 0, 0, null));
+        }
+    }
+    
+    private RegionFile regionFor(long key) throws IOException {
+        int regionX = Math.floorDiv(chunkX(key), GameConstants.STREAM_REGION_CHUNKS);
+        int regionY = Math.floorDiv(chunkY(key), GameConstants.STREAM_REGION_CHUNKS);
+        long regionKey = chunkKey(regionX, regionY);
+        RegionFile region = openRegions.get(regionKey);
+        if (region == null) {
+            if (openRegions.size() >= GameConstants.STREAM_MAX_OPEN_REGIONS) {
+                Iterator<RegionFile> eldest = openRegions.values().iterator();
+                eldest.next().close();
+                eldest.remove();
+            }
+            region = new RegionFile(directory.resolve("r." + regionX + "." + regionY + REGION_SUFFIX));
+            openRegions.put(regionKey, region);
+        }
+        return region;
+    }
+    
+    private void closeRegions() {
+        for (RegionFile region : openRegions.values()) {
+            try {
+                region.close();
+            } catch (IOException e) {
+                fail(e);
+            }
+        }
+        openRegions.clear();
+    }
+    
+    private void fail(IOException e) {
+        if (error == null) {
+            error = e;
+        }
+    }
+    
+    /**
+     * Finish pending I/O, bring in chunks that finished loading and close the region files. Streamed-out
+     * chunks stay on disk; save the map with {@link #getStoredChunks()} to keep them.
+     * @throws IOException the first I/O failure of the session, if there was one; the map and region index
+     *                     may then disagree, so they should not be saved
+     */
+    @Override
+    public void close() throws IOException {
+        io.execute(this::closeRegions);
+        io.shutdown();
+        try {
+            if (!io.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                fail(new IOException("Timed out waiting for world streaming I/O"));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        applyLoadedChunks();
+        if (error != null) {
+            throw error;
+        }
+    }
+    
+    /**
+     * The first I/O failure so far, or null. A failed write puts the chunk back into the map and a failed
+     * read leaves it on disk, so nothing is lost, but the map may hold more than its resident range.
+     */
+    public IOException getError() {
+        return error;
+    }
+    
+    /**
+     * The region index to save with the map, once {@link #close()} has returned normally
+     */
+    List<StoredChunk> getStoredChunks() {
+        return new ArrayList<>(regionIndex.values());
+    }
+    
+    public int getStoredChunkCount() {
+        return storedChunks.size();
+    }
+    
+    public int getLoadingChunkCount() {
+        return loadingChunks.size();
+    }
+    
+    /**
+     * Entities and archetype rows written out to region files so far
+     */
+    public long getStreamedOutEntities() {
+        return streamedOutEntities;
+    }
+    
+    public long getStreamedInEntities() {
+        return streamedInEntities;
+    }
+    
+    /**
+     * Delete the region files in a directory. Only call this when nothing points into them: for a scratch
+     * directory, or alongside a save that loaded and whose region index has no stored chunks.
+     */
+    public static void deleteRegionFiles(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) return;
+        try (DirectoryStream<Path> regions = Files.newDirectoryStream(directory, "*" + REGION_SUFFIX)) {
+            for (Path region : regions) {
+                Files.delete(region);
+            }
+        }
+    }
+    
+    // Chunk coordinates
+    
+    private int chunkCoordinate(float position) {
+        return (int) Math.floor(position / chunkSize);
+    }
+    
+    private long chunkKeyOf(Entity entity) {
+        return chunkKey(chunkCoordinate(entity.getX() + entity.getWidth() / 2f),
+                        chunkCoordinate(entity.getY() + entity.getHeight() / 2f));
+    }
+    
+    private static long chunkKey(int chunkX, int chunkY) {
+        return ((long) chunkX << 32) | (chunkY & 0xffffffffL);
+    }
+    
+    private static int chunkX(long key) {
+        return (int) (key >> 32);
+    }
+    
+    private static int chunkY(long key) {
+        return (int) key;
+    }
+    
+    private boolean isInRange(long key) {
+        int chunkX = chunkX(key);
+        int chunkY = chunkY(key);
+        return chunkX >= minChunkX && chunkX <= maxChunkX && chunkY >= minChunkY && chunkY <= maxChunkY;
+    }
+    
+    private ChunkContents contentsOf(long key) {
+        ChunkContents contents = evicting.get(key);
+        if (contents == null) {
+            contents = new ChunkContents(key);
+            evicting.put(key, contents);
+        }
+        return contents;
+    }
+    
+    /**
+     * What a pass found in one out-of-range chunk
+     */
+    private static final class ChunkContents {
+        final long key;
+        final List<Entity> entities = new ArrayList<>();
+        int[] archetypeIds = new int[16];
+        int archetypeCount;
+        
+        ChunkContents(long key) {
+            this.key = key;
+        }
+        
+        void addArchetype(int id) {
+            if (archetypeCount == archetypeIds.length) {
+                int[] grown = new int[archetypeIds.length * 2];
+                System.arraycopy(archetypeIds, 0, grown, 0, archetypeCount);
+                archetypeIds = grown;
+            }
+            archetypeIds[archetypeCount++] = id;
+        }
+    }
+}
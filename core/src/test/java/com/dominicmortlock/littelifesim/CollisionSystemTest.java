@@ -0,0 +1,202 @@
+package com.dominicmortlock.littelifesim;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class CollisionSystemTest {
+    private static final float STEP = 1f / GameConstants.SIMULATION_STEP_RATE;
+    private static final float BALL = GameConstants.BALL_SIZE;
+    
+    @Test
+    public void overlappingMovingBallsArePushedApartAndBounce() {
+        CollisionSystem collisions = new CollisionSystem();
+        Ball left = new Ball(100f, 100f);
+        Ball right = new Ball(110f, 100f);
+        left.getPhysicsComponent().launch(50f, 0f);
+        right.getPhysicsComponent().launch(-50f, 0f);
+        collisions.add(left);
+        collisions.add(right);
+        
+        collisions.update(STEP);
+        
+        assertEquals(1, collisions.getPairCount());
+        assertTrue(left.getX() + BALL <= right.getX());
+        assertTrue(left.getPhysicsComponent().getVelocityX() < 0f);
+        assertTrue(right.getPhysicsComponent().getVelocityX() > 0f);
+    }
+    
+    @Test
+    public void restingBodiesAreNotPaired() {
+        CollisionSystem collisions = new CollisionSystem();
+        collisions.add(new Ball(100f, 100f));
+        collisions.add(new Ball(110f, 100f));
+        
+        collisions.update(STEP);
+        
+        assertEquals(0, collisions.getPairCount());
+    }
+    
+    @Test
+    public void sweepFindsPairsWhateverOrderBodiesWereAdded() {
+        CollisionSystem collisions = new CollisionSystem();
+        Ball far = new Ball(500f, 100f);
+        Ball right = new Ball(110f, 100f);
+        Ball left = new Ball(100f, 100f);
+        far.getPhysicsComponent().launch(10f, 0f);
+        left.getPhysicsComponent().launch(10f, 0f);
+        collisions.add(far);
+        collisions.add(right);
+        collisions.add(left);
+        
+        collisions.update(STEP);
+        
+        assertEquals(1, collisions.getPairCount());
+        assertPair(collisions, 0, left, right);
+    }
+    
+    @Test
+    public void bodiesApartOnYAreNotPaired() {
+        CollisionSystem collisions = new CollisionSystem();
+        Ball lower = new Ball(100f, 100f);
+        Ball upper = new Ball(105f, 100f + BALL + 1f);
+        lower.getPhysicsComponent().launch(10f, 0f);
+        upper.getPhysicsComponent().launch(10f, 0f);
+        collisions.add(lower);
+        collisions.add(upper);
+        
+        collisions.update(STEP);
+        
+        assertEquals(0, collisions.getPairCount());
+    }
+    
+    @Test
+    public void layerMasksFilterPairs() {
+        // Beds only collide with balls, so two overlapping beds pass through each other
+        CollisionSystem collisions = new CollisionSystem();
+        Bed first = new Bed(100f, 100f);
+        Bed second = new Bed(120f, 100f);
+        first.getPhysicsComponent().launch(10f, 0f);
+        collisions.add(first);
+        collisions.add(second);
+        
+        collisions.update(STEP);
+        
+        assertEquals(0, collisions.getPairCount());
+        assertEquals(100f, first.getX(), 0f);
+    }
+    
+    @Test
+    public void ballBouncesOffFixedBed() {
+        CollisionSystem collisions = new CollisionSystem();
+        Ball ball = new Ball(100f, 100f);
+        Bed bed = new Bed(115f, 90f);
+        ball.getPhysicsComponent().launch(100f, 0f);
+        collisions.add(ball);
+        collisions.add(bed);
+        
+        collisions.update(STEP);
+        
+        assertEquals(115f, bed.getX(), 0f);
+        assertEquals(115f - BALL, ball.getX(), 1e-4f);
+        assertTrue(ball.getPhysicsComponent().getVelocityX() < 0f);
+    }
+    
+    @Test
+    public void fastHitKnocksRestingBallIntoMotion() {
+        CollisionSystem collisions = new CollisionSystem();
+        Ball moving = new Ball(100f, 100f);
+        Ball resting = new Ball(115f, 100f);
+        moving.getPhysicsComponent().launch(200f, 0f);
+        collisions.add(moving);
+        collisions.add(resting);
+        
+        collisions.update(STEP);
+        
+        assertTrue(resting.getPhysicsComponent().isActive());
+        assertTrue(resting.getPhysicsComponent().getVelocityX() > 0f);
+    }
+    
+    @Test
+    public void removedBodiesLeaveTheSweep() {
+        CollisionSystem collisions = new CollisionSystem();
+        Ball left = new Ball(100f, 100f);
+        Ball middle = new Ball(105f, 100f);
+        Ball right = new Ball(110f, 100f);
+        collisions.add(right);
+        collisions.add(middle);
+        collisions.add(left);
+        collisions.update(STEP); // Sorts the sweep order
+        
+        collisions.remove(middle);
+        left.getPhysicsComponent().launch(10f, 0f);
+        collisions.update(STEP);
+        
+        assertEquals(2, collisions.getBodyCount());
+        assertEquals(-1, middle.collisionIndex);
+        assertEquals(1, collisions.getPairCount());
+        assertPair(collisions, 0, left, right);
+    }
+    
+    @Test
+    public void fastBallThatPassedThroughBedBouncesBack() {
+        CollisionSystem collisions = new CollisionSystem();
+        Ball ball = new Ball(0f, 100f);
+        Bed bed = new Bed(100f, 90f);
+        ball.getPhysicsComponent().launch(12000f, 0f);
+        ball.setPosition(200f, 100f); // Clean through the bed in one step, so the end positions do not overlap
+        collisions.add(ball);
+        collisions.add(bed);
+        
+        collisions.update(STEP);
+        
+        assertEquals(1, collisions.getPairCount());
+        assertEquals(100f, bed.getX(), 0f);
+        assertTrue(ball.getX() + BALL <= bed.getX());
+        assertTrue(ball.getPhysicsComponent().getVelocityX() < 0f);
+    }
+    
+    @Test
+    public void fastBallsThatCrossedBounceOffEachOther() {
+        CollisionSystem collisions = new CollisionSystem();
+        Ball left = new Ball(0f, 100f);
+        Ball right = new Ball(200f, 100f);
+        left.getPhysicsComponent().launch(12000f, 0f);
+        right.getPhysicsComponent().launch(-12000f, 0f);
+        left.setPosition(200f, 100f);
+        right.setPosition(0f, 100f);
+        collisions.add(left);
+        collisions.add(right);
+        
+        collisions.update(STEP);
+        
+        assertTrue(left.getX() + BALL <= right.getX());
+        assertTrue(left.getPhysicsComponent().getVelocityX() < 0f);
+        assertTrue(right.getPhysicsComponent().getVelocityX() > 0f);
+    }
+    
+    @Test
+    public void slowBallWhosePathOnlyCameCloseIsLeftAlone() {
+        CollisionSystem collisions = new CollisionSystem();
+        Ball ball = new Ball(100f, 108f);
+        Ball resting = new Ball(121f, 121f);
+        ball.getPhysicsComponent().launch(480f, -480f);
+        ball.setPosition(108f, 100f); // Swept bounds reach the resting ball's corner, the ball itself never does
+        collisions.add(ball);
+        collisions.add(resting);
+        
+        collisions.update(STEP);
+        
+        assertEquals(1, collisions.getPairCount());
+        assertEquals(108f, ball.getX(), 0f);
+        assertEquals(480f, ball.getPhysicsComponent().getVelocityX(), 0f);
+        assertTrue(!resting.getPhysicsComponent().isActive());
+    }
+    
+    private static void assertPair(CollisionSystem collisions, int pair, Entity first, Entity second) {
+        Entity a = collisions.getPairA(pair);
+        Entity b = collisions.getPairB(pair);
+        assertTrue((a == first && b == second) || (a == second && b == first));
+    }
+}
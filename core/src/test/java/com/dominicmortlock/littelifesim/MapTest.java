@@ -0,0 +1,70 @@
+package com.dominicmortlock.littelifesim;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+public class MapTest {
+    private static final float STEP = 1f / GameConstants.SIMULATION_STEP_RATE;
+    
+    @Test
+    public void removeEntitiesMatchesRemovingOneAtATime() {
+        Map bulk = populated();
+        Map single = populated();
+        for (int i = 0; i < 60; i++) {
+            bulk.updateAll(STEP);
+            single.updateAll(STEP);
+        }
+        
+        List<Entity> bulkRemoved = everyThird(bulk.getEntities());
+        List<Entity> singleRemoved = everyThird(single.getEntities());
+        bulk.removeEntities(bulkRemoved);
+        for (Entity entity : singleRemoved) {
+            single.removeEntity(entity);
+        }
+        
+        assertEquals(single.getEntities().size(), bulk.getEntities().size());
+        assertEquals(single.getActiveEntityCount(), bulk.getActiveEntityCount());
+        assertEquals(single.getCollisionSystem().getBodyCount(), bulk.getCollisionSystem().getBodyCount());
+        assertEquals(single.getEntitiesOfType(LittleGuy.class).size(), bulk.getEntitiesOfType(LittleGuy.class).size());
+        assertEquals(single.getEntitiesOfType(Ball.class).size(), bulk.getEntitiesOfType(Ball.class).size());
+        assertEquals(single.getEntitiesOfType(Bed.class).size(), bulk.getEntitiesOfType(Bed.class).size());
+        for (Entity entity : bulkRemoved) {
+            assertFalse(entity.active);
+            assertFalse(entity.inRenderLayers);
+            assertEquals(-1, entity.collisionIndex);
+            assertEquals(-1, entity.gridCell);
+            assertFalse(bulk.queryNearby(entity, 0f).contains(entity));
+        }
+        
+        // The two maps stay in lockstep, so the survivors' bookkeeping agrees
+        for (int i = 0; i < 60; i++) {
+            bulk.updateAll(STEP);
+            single.updateAll(STEP);
+        }
+        for (int i = 0; i < bulk.getEntities().size(); i++) {
+            assertEquals(single.getEntities().get(i).getX(), bulk.getEntities().get(i).getX(), 0f);
+            assertEquals(single.getEntities().get(i).getY(), bulk.getEntities().get(i).getY(), 0f);
+        }
+        assertTrue(bulk.getCollisionSystem().getBodyCount() > 0);
+    }
+    
+    private static Map populated() {
+        Map map = new Map(1280f, 720f, 42L);
+        map.setUpdateParallelism(1);
+        WorldBuilder.populateRandom(map, 30, 30, 10, 42L);
+        return map;
+    }
+    
+    private static List<Entity> everyThird(List<Entity> entities) {
+        List<Entity> picked = new ArrayList<>();
+        for (int i = 0; i < entities.size(); i += 3) {
+            picked.add(entities.get(i));
+        }
+        return picked;
+    }
+}
@@ -0,0 +1,68 @@
+package com.dominicmortlock.littelifesim;
+
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class PhysicsComponentTest {
+    private static final float STEP = 1f / GameConstants.SIMULATION_STEP_RATE;
+    private static final float BALL = GameConstants.BALL_SIZE;
+    private static final float WIDTH = 800f;
+    private static final float HEIGHT = 600f;
+    
+    @Test
+    public void fastBallBouncesOffWallInsteadOfTunnelling() {
+        Ball ball = ballIn(new Map(WIDTH, HEIGHT), WIDTH - 100f, 300f);
+        PhysicsComponent physics = ball.getPhysicsComponent();
+        physics.launch(60000f, 0f); // A thousand pixels in one step, well past the wall
+        
+        physics.update(STEP);
+        
+        assertTrue(ball.getX() >= 0f && ball.getX() <= WIDTH - BALL);
+        assertTrue(physics.getVelocityX() < 0f);
+    }
+    
+    @Test
+    public void fastBallBouncesOffGroundInsteadOfFallingThrough() {
+        Ball ball = ballIn(new Map(WIDTH, HEIGHT), 100f, 400f);
+        PhysicsComponent physics = ball.getPhysicsComponent();
+        physics.launch(0f, -60000f, 100f);
+        
+        physics.update(STEP);
+        
+        assertTrue(ball.getY() >= 100f);
+        assertTrue(physics.getVelocityY() > 0f);
+    }
+    
+    @Test
+    public void bounceKeepsTheRestOfTheStep() {
+        // A wall hit a quarter of the way through the step should leave the ball travelling away for the rest of it
+        Ball ball = ballIn(new Map(WIDTH, HEIGHT), WIDTH - BALL - 2f, 300f);
+        PhysicsComponent physics = ball.getPhysicsComponent();
+        physics.launch(480f, 0f, 0f); // Ground far below, so only the wall is hit
+        
+        physics.update(STEP);
+        
+        float travelledBack = (480f * GameConstants.WALL_BOUNCE_DAMPING) * STEP * 0.75f;
+        assertTrue(ball.getX() <= WIDTH - BALL - travelledBack * 0.9f);
+    }
+    
+    @Test
+    public void fastBallInCornerStaysInsideTheMap() {
+        Ball ball = ballIn(new Map(WIDTH, HEIGHT), 50f, 50f);
+        PhysicsComponent physics = ball.getPhysicsComponent();
+        physics.launch(-60000f, -60000f, 10f);
+        
+        for (int i = 0; i < 10; i++) {
+            physics.update(STEP);
+            assertTrue(ball.getX() >= 0f && ball.getX() <= WIDTH - BALL);
+            assertTrue(ball.getY() >= 0f && ball.getY() <= HEIGHT - BALL);
+        }
+    }
+    
+    private static Ball ballIn(Map map, float x, float y) {
+        Ball ball = new Ball(x, y);
+        ball.getPhysicsComponent().setMap(map);
+        return ball;
+    }
+}
@@ -0,0 +1,151 @@
+package com.dominicmortlock.littelifesim;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.badlogic.gdx.math.Rectangle;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+
+public class WorldStreamerTest {
+    private static final float STEP = 1f / GameConstants.SIMULATION_STEP_RATE;
+    private static final float WIDTH = GameConstants.STREAM_CHUNK_SIZE * 8;
+    private static final float HEIGHT = GameConstants.STREAM_CHUNK_SIZE;
+    private static final Rectangle ORIGIN = new Rectangle().set(0f, 0f, 1280f, 720f);
+    private static final Rectangle EVERYTHING = new Rectangle().set(0f, 0f, WIDTH, HEIGHT);
+    
+    @Test
+    public void saveKeepsStreamedOutChunksAndLoadsThemNearTheCamera() throws Exception {
+        Path directory = Files.createTempDirectory("regions");
+        Path save = directory.resolve("world.sav");
+        try {
+            Map map = populated();
+            List<String> everyone = contents(map);
+            WorldStreamer streamer = new WorldStreamer(map, directory);
+            streamer.update(ORIGIN);
+            streamer.close();
+            assertTrue(streamer.getStoredChunkCount() > 0);
+            WorldSnapshot.save(map, streamer.getStoredChunks(), save);
+            
+            // Only the resident chunks load with the save; the rest come in once the camera is near them
+            List<StoredChunk> regionIndex = new ArrayList<>();
+            Map loaded = WorldSnapshot.load(save, regionIndex);
+            assertEquals(map.getEntities().size(), loaded.getEntities().size());
+            assertTrue(loaded.getEntities().size() < everyone.size());
+            WorldStreamer reopened = new WorldStreamer(loaded, directory, regionIndex);
+            loadEverything(reopened);
+            reopened.close();
+            assertEquals(everyone, contents(loaded));
+        } finally {
+            delete(directory);
+        }
+    }
+    
+    @Test
+    public void sessionEndingWithoutASaveLeavesTheLastSaveIntact() throws Exception {
+        Path directory = Files.createTempDirectory("regions");
+        Path save = directory.resolve("world.sav");
+        try {
+            Map map = populated();
+            List<String> everyone = contents(map);
+            WorldStreamer streamer = new WorldStreamer(map, directory);
+            streamer.update(ORIGIN);
+            streamer.close();
+            WorldSnapshot.save(map, streamer.getStoredChunks(), save);
+            
+            // A session that brings chunks in, runs on, streams them out again and never saves
+            List<StoredChunk> regionIndex = new ArrayList<>();
+            Map session = WorldSnapshot.load(save, regionIndex);
+            WorldStreamer sessionStreamer = new WorldStreamer(session, directory, regionIndex);
+            loadEverything(sessionStreamer);
+            for (int i = 0; i < GameConstants.STREAM_PASS_TICKS * 4; i++) {
+                session.updateAll(STEP);
+            }
+            sessionStreamer.update(ORIGIN);
+            sessionStreamer.close();
+            assertTrue(sessionStreamer.getStoredChunkCount() > 0);
+            
+            regionIndex.clear();
+            Map reloaded = WorldSnapshot.load(save, regionIndex);
+            WorldStreamer reopened = new WorldStreamer(reloaded, directory, regionIndex);
+            loadEverything(reopened);
+            reopened.close();
+            assertEquals(everyone, contents(reloaded));
+        } finally {
+            delete(directory);
+        }
+    }
+    
+    @Test
+    public void freshWorldStreamingIntoTheSameDirectoryLeavesTheSaveIntact() throws Exception {
+        Path directory = Files.createTempDirectory("regions");
+        Path save = directory.resolve("world.sav");
+        try {
+            Map map = populated();
+            List<String> everyone = contents(map);
+            WorldStreamer streamer = new WorldStreamer(map, directory);
+            streamer.update(ORIGIN);
+            streamer.close();
+            WorldSnapshot.save(map, streamer.getStoredChunks(), save);
+            
+            // A world that did not come from the save streams out into the same region files
+            Map fresh = populated();
+            WorldStreamer freshStreamer = new WorldStreamer(fresh, directory);
+            freshStreamer.update(ORIGIN);
+            freshStreamer.close();
+            assertTrue(freshStreamer.getStoredChunkCount() > 0);
+            
+            List<StoredChunk> regionIndex = new ArrayList<>();
+            Map reloaded = WorldSnapshot.load(save, regionIndex);
+            WorldStreamer reopened = new WorldStreamer(reloaded, directory, regionIndex);
+            loadEverything(reopened);
+            reopened.close();
+            assertEquals(everyone, contents(reloaded));
+        } finally {
+            delete(directory);
+        }
+    }
+    
+    private static Map populated() {
+        Map map = new Map(WIDTH, HEIGHT, 7L);
+        map.setUpdateParallelism(1);
+        WorldBuilder.populateRandom(map, 60, 60, 20, 7L);
+        return map;
+    }
+    
+    private static void loadEverything(WorldStreamer streamer) throws InterruptedException {
+        streamer.update(EVERYTHING);
+        while (streamer.getLoadingChunkCount() > 0) {
+            Thread.sleep(5L);
+            streamer.update(EVERYTHING);
+        }
+        assertEquals(0, streamer.getStoredChunkCount());
+    }
+    
+    /**
+     * Every entity's type and position, in no particular order, since chunks load back in any order
+     */
+    private static List<String> contents(Map map) {
+        List<String> contents = new ArrayList<>();
+        for (Entity entity : map.getEntities()) {
+            contents.add(entity.getClass().getSimpleName() + " " + entity.getX() + " " + entity.getY());
+        }
+        Collections.sort(contents);
+        return contents;
+    }
+    
+    private static void delete(Path directory) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+}
@@ -0,0 +1,180 @@
+package com.dominicmortlock.littelifesim.headless;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.dominicmortlock.littelifesim.GameConstants;
+import com.dominicmortlock.littelifesim.Map;
+import com.dominicmortlock.littelifesim.SimulationMonitor;
+import com.dominicmortlock.littelifesim.SimulationTracer;
+import com.dominicmortlock.littelifesim.WorldBuilder;
+import com.dominicmortlock.littelifesim.WorldStreamer;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import javax.management.JMException;
+
+/**
+ * Runs the simulation without a window for soak tests and benchmarks.
+ * Prints ticks per second along with entity and particle counts at a fixed wall-clock interval.
+ * The run is also exposed over JMX, so a long soak can be inspected, paused and stepped from JConsole.
+ */
+public class HeadlessLauncher {
+    private static final String USAGE =
+        "Usage: HeadlessLauncher [--guys N] [--balls N] [--beds N] [--width W] [--height H]\n" +
+        "                        [--seconds S] [--ticks N] [--seed N] [--step-rate HZ] [--report-interval S]\n" +
+        "                        [--threads N] [--bulk-balls N] [--stream DIR]\n" +
+        "Runs until --seconds of wall-clock time or --ticks simulation steps have elapsed, whichever is first.\n" +
+        "--stream keeps only the chunks around a window-sized view at the origin in memory, paging the rest to DIR.";
+
+    private static final long PAUSED_POLL_MILLIS = 10L;
+
+    public static void main(String[] args) {
+        int littleGuys = 100;
+        int balls = 50;
+        int beds = 20;
+        float width = GameConstants.WINDOW_WIDTH;
+        float height = GameConstants.WINDOW_HEIGHT;
+        double seconds = 10.0;
+        long maxTicks = Long.MAX_VALUE;
+        long seed = 1L;
+        float stepRate = GameConstants.SIMULATION_STEP_RATE;
+        double reportInterval = 1.0;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int bulkBalls = 0;
+        Path streamDirectory = null;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if (arg.equals("--help") || arg.equals("-h")) {
+                    System.out.println(USAGE);
+                    return;
+                }
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for " + arg);
+                }
+                String value = args[++i];
+                switch (arg) {
+                    case "--guys": littleGuys = Integer.parseInt(value); break;
+                    case "--balls": balls = Integer.parseInt(value); break;
+                    case "--beds": beds = Integer.parseInt(value); break;
+                    case "--width": width = Float.parseFloat(value); break;
+                    case "--height": height = Float.parseFloat(value); break;
+                    case "--seconds": seconds = Double.parseDouble(value); break;
+                    case "--ticks": maxTicks = Long.parseLong(value); break;
+                    case "--seed": seed = Long.parseLong(value); break;
+                    case "--step-rate": stepRate = Float.parseFloat(value); break;
+                    case "--report-interval": reportInterval = Double.parseDouble(value); break;
+                    case "--threads": threads = Integer.parseInt(value); break;
+                    case "--bulk-balls": bulkBalls = Integer.parseInt(value); break;
+                    case "--stream": streamDirectory = Paths.get(value); break;
+                    default: throw new IllegalArgumentException("Unknown option " + arg);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+
+        Map map = new Map(width, height, seed);
+        map.setUpdateParallelism(threads);
+        map.setTracer(SimulationTracer.findInstalled());
+        WorldBuilder.populateRandom(map, littleGuys, balls, beds, seed);
+        WorldBuilder.populateBulkBalls(map, bulkBalls, seed);
+        HeadlessSimulation simulation = new HeadlessSimulation(map, stepRate);
+        SimulationMonitor monitor = new SimulationMonitor(map, stepRate);
+        try {
+            monitor.register();
+        } catch (JMException e) {
+            System.err.println("Could not register the simulation MBean: " + e.getMessage());
+        }
+
+        WorldStreamer streamer = null;
+        Rectangle view = new Rectangle().set(0f, 0f, GameConstants.WINDOW_WIDTH, GameConstants.WINDOW_HEIGHT);
+        if (streamDirectory != null) {
+            try {
+                // The directory is this run's scratch space; nothing from an earlier run is kept
+                WorldStreamer.deleteRegionFiles(streamDirectory);
+                streamer = new WorldStreamer(map, streamDirectory);
+            } catch (IOException e) {
+                System.err.println("Could not stream to " + streamDirectory + ": " + e.getMessage());
+                System.exit(2);
+                return;
+            }
+        }
+
+        System.out.printf("Running %d entities and %d archetype entities on a %.0fx%.0f map at %.0f Hz with %d update threads%n",
+                          map.getEntities().size(), map.getArchetypeStore().getEntityCount(),
+                          width, height, stepRate, threads);
+
+        long startNanos = System.nanoTime();
+        long endNanos = startNanos + (long) (seconds * 1e9);
+        long reportNanos = (long) (reportInterval * 1e9);
+        long lastReportNanos = startNanos;
+        long lastReportTicks = 0L;
+
+        while (simulation.getTickCount() < maxTicks) {
+            monitor.update();
+            int steps = monitor.stepsToRun(1);
+            if (steps == 0) {
+                try {
+                    Thread.sleep(PAUSED_POLL_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            for (int i = 0; i < steps; i++) {
+                long tickStart = System.nanoTime();
+                simulation.step();
+                monitor.recordTick(System.nanoTime() - tickStart);
+                if (streamer != null) {
+                    streamer.update(view);
+                }
+            }
+
+            long now = System.nanoTime();
+            if (now - lastReportNanos >= reportNanos) {
+                report(simulation, streamer, simulation.getTickCount() - lastReportTicks, now - lastReportNanos);
+                lastReportNanos = now;
+                lastReportTicks = simulation.getTickCount();
+            }
+            if (now >= endNanos) {
+                break;
+            }
+        }
+
+        long elapsedNanos = System.nanoTime() - startNanos;
+        System.out.printf("Done: %d ticks (%.1f simulated s) in %.2f s, %.0f ticks/s average%n",
+                          simulation.getTickCount(), simulation.getSimulatedSeconds(),
+                          elapsedNanos / 1e9, simulation.getTickCount() / (elapsedNanos / 1e9));
+
+        if (streamer != null) {
+            try {
+                streamer.close();
+            } catch (IOException e) {
+                System.err.println("World streaming failed: " + e.getMessage());
+                System.exit(1);
+                return;
+            }
+            System.out.printf("Streamed %d entities out and %d back in; %d entities and %d archetype entities resident, %d chunks left in region files%n",
+                              streamer.getStreamedOutEntities(), streamer.getStreamedInEntities(),
+                              map.getEntities().size(), map.getArchetypeStore().getEntityCount(),
+                              streamer.getStoredChunkCount());
+        }
+    }
+
+    private static void report(HeadlessSimulation simulation, WorldStreamer streamer, long ticks, long elapsedNanos) {
+        Map map = simulation.getMap();
+        System.out.printf("tick %d: %.0f ticks/s, %d entities (%d active), %d archetype entities, %d particles%n",
+                          simulation.getTickCount(), ticks / (elapsedNanos / 1e9),
+                          map.getEntities().size(), map.getActiveEntityCount(),
+                          map.getArchetypeStore().getEntityCount(),
+                          map.getParticleSystem().getParticleCount());
+        if (streamer != null) {
+            System.out.printf("  streaming: %d chunks on disk, %d loading%n",
+                              streamer.getStoredChunkCount(), streamer.getLoadingChunkCount());
+        }
+    }
+}
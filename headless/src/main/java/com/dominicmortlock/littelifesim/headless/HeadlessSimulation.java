@@ -0,0 +1,52 @@
+package com.dominicmortlock.littelifesim.headless;
+
+import com.dominicmortlock.littelifesim.Map;
+
+/**
+ * Steps a {@link Map} at a fixed rate without any rendering or GL context.
+ * Runs as fast as the CPU allows; simulated time is decoupled from wall-clock time.
+ */
+public class HeadlessSimulation {
+    private final Map map;
+    private final float stepSize;
+    private long tickCount;
+
+    public HeadlessSimulation(Map map, float stepRate) {
+        this.map = map;
+        this.stepSize = 1f / stepRate;
+        this.tickCount = 0L;
+    }
+
+    /**
+     * Advance the simulation by one fixed step
+     */
+    public void step() {
+        map.updateAll(stepSize);
+        tickCount++;
+    }
+
+    /**
+     * Advance the simulation by the given number of fixed steps
+     */
+    public void step(int ticks) {
+        for (int i = 0; i < ticks; i++) {
+            step();
+        }
+    }
+
+    public Map getMap() {
+        return map;
+    }
+
+    public float getStepSize() {
+        return stepSize;
+    }
+
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    public double getSimulatedSeconds() {
+        return tickCount * (double) stepSize;
+    }
+}
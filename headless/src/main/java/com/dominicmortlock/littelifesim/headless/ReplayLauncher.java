@@ -0,0 +1,100 @@
+package com.dominicmortlock.littelifesim.headless;
+
+import com.dominicmortlock.littelifesim.InputManager;
+import com.dominicmortlock.littelifesim.Map;
+import com.dominicmortlock.littelifesim.ReplayReader;
+import com.dominicmortlock.littelifesim.ReplayRecorder;
+import com.dominicmortlock.littelifesim.WorldChecksum;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Replays a session recorded with {@code lwjgl3:run --args="--record <file>"} as fast as the CPU allows.
+ * Rebuilds the world from the logged seed, feeds the logged input back in on the ticks it happened, and
+ * compares the rolling world checksum after every tick. Exits non-zero at the first tick that diverges.
+ */
+public class ReplayLauncher {
+    private static final String USAGE =
+        "Usage: ReplayLauncher <file> [--threads N]";
+
+    public static void main(String[] args) {
+        Path file = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if (arg.equals("--help") || arg.equals("-h")) {
+                    System.out.println(USAGE);
+                    return;
+                }
+                if (!arg.startsWith("--")) {
+                    file = Paths.get(arg);
+                    continue;
+                }
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for " + arg);
+                }
+                String value = args[++i];
+                switch (arg) {
+                    case "--threads": threads = Integer.parseInt(value); break;
+                    default: throw new IllegalArgumentException("Unknown option " + arg);
+                }
+            }
+            if (file == null) {
+                throw new IllegalArgumentException("No replay file given");
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+
+        try (ReplayReader replay = new ReplayReader(file)) {
+            Map map = replay.createMap();
+            map.setUpdateParallelism(threads);
+            HeadlessSimulation simulation = new HeadlessSimulation(map, replay.getStepRate());
+            InputManager input = new InputManager();
+            WorldChecksum checksum = new WorldChecksum();
+            long inputs = 0L;
+            long checks = 0L;
+
+            System.out.printf("Replaying %s: seed %d, %d entities at %.0f Hz%n",
+                              file, replay.getSeed(), map.getEntities().size(), replay.getStepRate());
+            long startNanos = System.nanoTime();
+
+            while (replay.next()) {
+                while (map.getTickCount() < replay.getTick()) {
+                    simulation.step();
+                    checksum.update(map);
+                }
+                switch (replay.getType()) {
+                    case ReplayRecorder.PRESS: input.press(map, replay.getX(), replay.getY()); inputs++; break;
+                    case ReplayRecorder.DRAG: input.drag(map, replay.getX(), replay.getY()); inputs++; break;
+                    case ReplayRecorder.RELEASE: input.release(map); inputs++; break;
+                    case ReplayRecorder.PARTICLE_BUDGET: map.getParticleSystem().setMaxParticles(replay.getParticleBudget()); break;
+                    default:
+                        if (checksum.getValue() != replay.getChecksum()) {
+                            System.err.printf("Diverged at tick %d: expected checksum %016x, got %016x%n",
+                                              map.getTickCount(), replay.getChecksum(), checksum.getValue());
+                            System.exit(1);
+                        }
+                        checks++;
+                }
+            }
+
+            long elapsedNanos = System.nanoTime() - startNanos;
+            if (replay.isTruncated()) {
+                System.out.println("Log ends part-way through a record; replayed up to the last whole one");
+            }
+            System.out.printf("Matched: %d ticks (%.1f simulated s), %d inputs, %d checksums in %.2f s, %.0f ticks/s%n",
+                              simulation.getTickCount(), simulation.getSimulatedSeconds(), inputs, checks,
+                              elapsedNanos / 1e9, simulation.getTickCount() / (elapsedNanos / 1e9));
+        } catch (IOException e) {
+            System.err.println("Could not read " + file + ": " + e.getMessage());
+            System.exit(2);
+        }
+    }
+}
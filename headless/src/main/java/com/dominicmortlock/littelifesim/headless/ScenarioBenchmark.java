@@ -0,0 +1,337 @@
+package com.dominicmortlock.littelifesim.headless;
+
+import com.dominicmortlock.littelifesim.GameConstants;
+import com.dominicmortlock.littelifesim.Map;
+import com.dominicmortlock.littelifesim.WorldBuilder;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * End-to-end benchmark: builds a seeded crowd, throws entities around it through {@link ScriptedDrags}
+ * and runs it for a number of simulated minutes as fast as the CPU allows. Every tick is timed, so the
+ * report holds exact p50/p99/p99.9/max tick times next to GC pause totals and bytes allocated per tick.
+ * The report is flat JSON; given a baseline report from an earlier build, the run exits non-zero if any
+ * tick percentile or the allocation rate got worse by more than the tolerance.
+ */
+public class ScenarioBenchmark {
+    private static final String USAGE =
+        "Usage: ScenarioBenchmark [--guys N] [--balls N] [--beds N] [--width W] [--height H] [--seed N]\n" +
+        "                         [--minutes M] [--warmup-seconds S] [--threads N] [--drag-interval TICKS]\n" +
+        "                         [--drag-ticks TICKS] [--report FILE] [--baseline FILE] [--tolerance PERCENT]\n" +
+        "Minutes and seconds are simulated time. Exits 1 if the run regressed against --baseline.";
+    private static final double NANOS_PER_MILLI = 1e6;
+    private static final double ALLOCATION_SLACK_BYTES_PER_TICK = 16.0; // A zero-allocation baseline can't scale
+    private static final String[] COMPARED_METRICS = {
+        "tickP50Millis", "tickP99Millis", "tickP999Millis", "allocatedBytesPerTick"
+    };
+
+    public static void main(String[] args) {
+        int littleGuys = 3000;
+        int balls = 1500;
+        int beds = 500;
+        float width = GameConstants.WINDOW_WIDTH * 8;
+        float height = GameConstants.WINDOW_HEIGHT * 8;
+        long seed = 1L;
+        double minutes = 5.0;
+        double warmupSeconds = 30.0;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int dragInterval = 30;
+        int dragTicks = 20;
+        Path reportPath = Paths.get("scenario-report.json");
+        Path baselinePath = null;
+        double tolerance = 15.0; // p99.9 of a few minutes of ticks moves by several percent between identical runs
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if (arg.equals("--help") || arg.equals("-h")) {
+                    System.out.println(USAGE);
+                    return;
+                }
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for " + arg);
+                }
+                String value = args[++i];
+                switch (arg) {
+                    case "--guys": littleGuys = Integer.parseInt(value); break;
+                    case "--balls": balls = Integer.parseInt(value); break;
+                    case "--beds": beds = Integer.parseInt(value); break;
+                    case "--width": width = Float.parseFloat(value); break;
+                    case "--height": height = Float.parseFloat(value); break;
+                    case "--seed": seed = Long.parseLong(value); break;
+                    case "--minutes": minutes = Double.parseDouble(value); break;
+                    case "--warmup-seconds": warmupSeconds = Double.parseDouble(value); break;
+                    case "--threads": threads = Integer.parseInt(value); break;
+                    case "--drag-interval": dragInterval = Integer.parseInt(value); break;
+                    case "--drag-ticks": dragTicks = Integer.parseInt(value); break;
+                    case "--report": reportPath = Paths.get(value); break;
+                    case "--baseline": baselinePath = Paths.get(value); break;
+                    case "--tolerance": tolerance = Double.parseDouble(value); break;
+                    default: throw new IllegalArgumentException("Unknown option " + arg);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+
+        float stepRate = GameConstants.SIMULATION_STEP_RATE;
+        int ticks = (int) Math.round(minutes * 60.0 * stepRate);
+        int warmupTicks = (int) Math.round(warmupSeconds * stepRate);
+        if (ticks < 1) {
+            System.err.println("The scenario must run for at least one tick");
+            System.exit(2);
+            return;
+        }
+
+        Map map = new Map(width, height, seed);
+        map.setUpdateParallelism(threads);
+        WorldBuilder.populateRandom(map, littleGuys, balls, beds, seed);
+        HeadlessSimulation simulation = new HeadlessSimulation(map, stepRate);
+        ScriptedDrags drags = new ScriptedDrags(seed, dragInterval, dragTicks);
+
+        System.out.printf("Scenario: %d little guys, %d balls, %d beds on a %.0fx%.0f map, seed %d, %d update threads%n",
+                          littleGuys, balls, beds, width, height, seed, threads);
+        System.out.printf("Warming up for %d ticks, then measuring %d ticks (%.1f simulated minutes)%n",
+                          warmupTicks, ticks, minutes);
+
+        for (int i = 0; i < warmupTicks; i++) {
+            drags.tick(map);
+            simulation.step();
+        }
+
+        // Everything the measured loop touches is allocated up front
+        long[] tickNanos = new long[ticks];
+        List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+        long[] gcCountsBefore = new long[collectors.size()];
+        long[] gcMillisBefore = new long[collectors.size()];
+        for (int c = 0; c < collectors.size(); c++) {
+            gcCountsBefore[c] = collectors.get(c).getCollectionCount();
+            gcMillisBefore[c] = collectors.get(c).getCollectionTime();
+        }
+        long dragsBefore = drags.getDragCount();
+        long allocatedBefore = allocatedBytes();
+        long startNanos = System.nanoTime();
+
+        for (int i = 0; i < ticks; i++) {
+            drags.tick(map);
+            long tickStart = System.nanoTime();
+            simulation.step();
+            tickNanos[i] = System.nanoTime() - tickStart;
+        }
+
+        long wallNanos = System.nanoTime() - startNanos;
+        long allocated = allocatedBytes() - allocatedBefore;
+
+        Report report = new Report();
+        report.add("seed", seed);
+        report.add("littleGuys", littleGuys);
+        report.add("balls", balls);
+        report.add("beds", beds);
+        report.add("width", width);
+        report.add("height", height);
+        report.add("updateThreads", threads);
+        report.add("stepRate", stepRate);
+        report.add("warmupTicks", warmupTicks);
+        report.add("ticks", ticks);
+        report.add("drags", drags.getDragCount() - dragsBefore);
+        report.add("javaVersion", System.getProperty("java.version"));
+        report.add("maxHeapBytes", Runtime.getRuntime().maxMemory());
+        report.add("wallSeconds", wallNanos / 1e9);
+        report.add("ticksPerSecond", ticks / (wallNanos / 1e9));
+
+        long totalNanos = 0L;
+        for (long nanos : tickNanos) {
+            totalNanos += nanos;
+        }
+        Arrays.sort(tickNanos);
+        report.add("tickP50Millis", percentile(tickNanos, 50.0) / NANOS_PER_MILLI);
+        report.add("tickP99Millis", percentile(tickNanos, 99.0) / NANOS_PER_MILLI);
+        report.add("tickP999Millis", percentile(tickNanos, 99.9) / NANOS_PER_MILLI);
+        report.add("tickMaxMillis", tickNanos[ticks - 1] / NANOS_PER_MILLI);
+        report.add("tickMeanMillis", totalNanos / NANOS_PER_MILLI / ticks);
+
+        long gcCount = 0L;
+        long gcMillis = 0L;
+        for (int c = 0; c < collectors.size(); c++) {
+            GarbageCollectorMXBean collector = collectors.get(c);
+            long count = collector.getCollectionCount() - gcCountsBefore[c];
+            long millis = collector.getCollectionTime() - gcMillisBefore[c];
+            String key = camelCase(collector.getName());
+            report.add("gc" + key + "Count", count);
+            report.add("gc" + key + "Millis", millis);
+            gcCount += count;
+            gcMillis += millis;
+        }
+        report.add("gcCount", gcCount);
+        report.add("gcMillis", gcMillis);
+        report.add("allocatedBytesPerTick", allocated < 0L ? -1.0 : (double) allocated / ticks);
+
+        List<String> regressions = new ArrayList<>();
+        if (baselinePath != null) {
+            try {
+                regressions = compare(report, new String(Files.readAllBytes(baselinePath), StandardCharsets.UTF_8),
+                                      tolerance);
+            } catch (IOException e) {
+                System.err.println("Could not read baseline " + baselinePath + ": " + e.getMessage());
+                System.exit(2);
+                return;
+            }
+            report.add("baseline", baselinePath.toString());
+            report.add("tolerancePercent", tolerance);
+            report.add("regressed", !regressions.isEmpty());
+        }
+
+        System.out.print(report.summary());
+        try {
+            report.write(reportPath);
+            System.out.println("Wrote " + reportPath.toAbsolutePath());
+        } catch (IOException e) {
+            System.err.println("Could not write " + reportPath + ": " + e.getMessage());
+            System.exit(2);
+            return;
+        }
+
+        if (!regressions.isEmpty()) {
+            System.err.println("REGRESSED against " + baselinePath + ": " + String.join(", ", regressions));
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Nearest-rank percentile of a sorted array
+     */
+    private static long percentile(long[] sorted, double percentile) {
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+    }
+
+    /**
+     * Bytes allocated so far by every live thread, so the update workers are counted too; -1 if the
+     * JVM has no per-thread allocation counters
+     */
+    private static long allocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) return -1L;
+        com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+        if (!allocations.isThreadAllocatedMemorySupported()) return -1L;
+        allocations.setThreadAllocatedMemoryEnabled(true);
+        long total = 0L;
+        for (long bytes : allocations.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            if (bytes > 0L) {
+                total += bytes;
+            }
+        }
+        return total;
+    }
+
+    private static List<String> compare(Report report, String baseline, double tolerance) {
+        List<String> regressions = new ArrayList<>();
+        System.out.printf("%-24s %12s %12s %9s%n", "metric", "baseline", "current", "change");
+        for (String metric : COMPARED_METRICS) {
+            Matcher matcher = Pattern.compile("\"" + metric + "\"\\s*:\\s*(-?[0-9.eE+-]+)").matcher(baseline);
+            if (!matcher.find()) {
+                System.out.printf("%-24s %12s%n", metric, "missing");
+                continue;
+            }
+            double before = Double.parseDouble(matcher.group(1));
+            double after = report.number(metric);
+            if (before < 0.0 || after < 0.0) continue; // Not measured on one of the JVMs
+            double limit = before * (1.0 + tolerance / 100.0);
+            if (metric.equals("allocatedBytesPerTick")) {
+                limit += ALLOCATION_SLACK_BYTES_PER_TICK;
+            }
+            boolean regressed = after > limit;
+            System.out.printf("%-24s %12.4f %12.4f %+8.1f%%%s%n", metric, before, after,
+                              before == 0.0 ? 0.0 : (after / before - 1.0) * 100.0, regressed ? "  REGRESSED" : "");
+            if (regressed) {
+                regressions.add(metric);
+            }
+        }
+        return regressions;
+    }
+
+    private static String camelCase(String name) {
+        StringBuilder key = new StringBuilder(name.length());
+        boolean upper = true;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                key.append(upper ? Character.toUpperCase(c) : c);
+                upper = false;
+            } else {
+                upper = true;
+            }
+        }
+        return key.toString();
+    }
+
+    /**
+     * Ordered flat key/value report, written as one JSON object
+     */
+    private static class Report {
+        private final List<String> keys = new ArrayList<>();
+        private final List<Object> values = new ArrayList<>();
+
+        void add(String key, Object value) {
+            keys.add(key);
+            values.add(value);
+        }
+
+        double number(String key) {
+            int index = keys.indexOf(key);
+            return index < 0 ? -1.0 : ((Number) values.get(index)).doubleValue();
+        }
+
+        String summary() {
+            StringBuilder text = new StringBuilder();
+            for (int i = 0; i < keys.size(); i++) {
+                text.append(String.format(Locale.ROOT, "  %-24s %s%n", keys.get(i), format(values.get(i))));
+            }
+            return text.toString();
+        }
+
+        void write(Path path) throws IOException {
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            try (Writer out = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+                out.write("{\n");
+                for (int i = 0; i < keys.size(); i++) {
+                    Object value = values.get(i);
+                    out.write("  \"" + keys.get(i) + "\": ");
+                    out.write(value instanceof String ? "\"" + escape((String) value) + "\"" : format(value));
+                    out.write(i + 1 < keys.size() ? ",\n" : "\n");
+                }
+                out.write("}\n");
+            }
+        }
+
+        private static String format(Object value) {
+            if (value instanceof Double || value instanceof Float) {
+                return String.format(Locale.ROOT, "%.4f", ((Number) value).doubleValue());
+            }
+            return String.valueOf(value);
+        }
+
+        private static String escape(String value) {
+            return value.replace("\\", "\\\\").replace("\"", "\\\"");
+        }
+    }
+}
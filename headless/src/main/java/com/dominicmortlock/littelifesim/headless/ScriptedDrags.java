@@ -0,0 +1,92 @@
+package com.dominicmortlock.littelifesim.headless;
+
+import com.dominicmortlock.littelifesim.Draggable;
+import com.dominicmortlock.littelifesim.Entity;
+import com.dominicmortlock.littelifesim.Map;
+import com.dominicmortlock.littelifesim.SimRandom;
+import java.util.List;
+
+/**
+ * Picks up random entities and flings them across the map through the {@link Draggable} interface,
+ * the same calls the input manager makes for a real pointer. Each drag eases in and speeds up towards
+ * its release point so the entity is thrown rather than set down. Driven from a fixed seed, so a scenario
+ * sees the same drags on every run.
+ */
+public class ScriptedDrags {
+    private final SimRandom random;
+    private final int intervalTicks;
+    private final int dragTicks;
+    private Draggable dragged;
+    private Entity draggedEntity;
+    private float startX, startY, endX, endY;
+    private int dragTick;
+    private int idleTicks;
+    private long dragCount;
+
+    /**
+     * @param intervalTicks ticks between one throw and the next pickup
+     * @param dragTicks ticks each entity is held and moved before it is thrown
+     */
+    public ScriptedDrags(long seed, int intervalTicks, int dragTicks) {
+        if (intervalTicks < 0 || dragTicks < 1) {
+            throw new IllegalArgumentException("Invalid drag script timing: every " + intervalTicks +
+                                               " ticks for " + dragTicks + " ticks");
+        }
+        this.random = new SimRandom(seed);
+        this.intervalTicks = intervalTicks;
+        this.dragTicks = dragTicks;
+    }
+
+    /**
+     * Advance the script by one tick; call before each step, where a frontend would handle input
+     */
+    public void tick(Map map) {
+        if (dragged != null) {
+            moveDragged();
+            return;
+        }
+        if (idleTicks < intervalTicks) {
+            idleTicks++;
+            return;
+        }
+        pickUp(map);
+    }
+
+    private void pickUp(Map map) {
+        List<Entity> entities = map.getEntities();
+        if (entities.isEmpty()) return;
+        Entity entity = entities.get(random.nextInt(entities.size()));
+        if (!(entity instanceof Draggable)) return;
+
+        dragged = (Draggable) entity;
+        draggedEntity = entity;
+        startX = entity.getX();
+        startY = entity.getY();
+        endX = random.nextFloat() * Math.max(0f, map.getWidth() - entity.getWidth());
+        endY = random.nextFloat() * Math.max(0f, map.getHeight() - entity.getHeight());
+        dragTick = 0;
+        dragged.onDragStart();
+        dragCount++;
+    }
+
+    private void moveDragged() {
+        dragTick++;
+        float t = (float) dragTick / dragTicks;
+        float eased = t * t; // Accelerate towards the release point so the throw keeps its speed
+        draggedEntity.setPosition(startX + (endX - startX) * eased, startY + (endY - startY) * eased);
+        if (dragTick >= dragTicks) {
+            dragged.onDragStop();
+            dragged = null;
+            draggedEntity = null;
+            idleTicks = 0;
+        }
+    }
+
+    public boolean isDragging() {
+        return dragged != null;
+    }
+
+    public long getDragCount() {
+        return dragCount;
+    }
+}
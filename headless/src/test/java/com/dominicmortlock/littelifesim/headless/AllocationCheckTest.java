@@ -0,0 +1,63 @@
+package com.dominicmortlock.littelifesim.headless;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.dominicmortlock.littelifesim.GameConstants;
+import com.dominicmortlock.littelifesim.Map;
+import com.dominicmortlock.littelifesim.WorldBuilder;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import org.junit.Test;
+
+/**
+ * Asserts that the steady-state simulation tick allocates nothing.
+ * Steps a world on the test thread and measures the thread's allocated bytes over windows of ticks.
+ * The simulation's buffers and spatial grid are presized, so a short warmup only has to get the hot methods
+ * compiled: HotSpot resolves a class's string constants on this thread when it queues one of its methods for
+ * the optimising compiler, and allocates when it swaps a running loop over to compiled code. The warmup steps
+ * one tick per call so the stepping loop is compiled normally, and the Gradle test task turns off tiered
+ * compilation so compile points depend only on call counts. Every window after the warmup must allocate nothing.
+ */
+public class AllocationCheckTest {
+    private static final int LITTLE_GUYS = 200;
+    private static final int BALLS = 100;
+    private static final int BEDS = 40;
+    private static final float WIDTH = GameConstants.WINDOW_WIDTH * 4;
+    private static final float HEIGHT = GameConstants.WINDOW_HEIGHT * 4;
+    private static final long SEED = 1L;
+    private static final int WARMUP_TICKS = 15000;
+    private static final int WINDOW_TICKS = 5000;
+    private static final int WINDOWS = 20;
+
+    @Test
+    public void steadyStateTickAllocatesNothing() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        assertTrue("Per-thread allocation counters are not available on this JVM",
+                   threads instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+        allocations.setThreadAllocatedMemoryEnabled(true);
+        long threadId = Thread.currentThread().getId();
+
+        // Everything runs on this thread so its counter sees every allocation the tick makes
+        Map map = new Map(WIDTH, HEIGHT, SEED);
+        map.setUpdateParallelism(1);
+        WorldBuilder.populateRandom(map, LITTLE_GUYS, BALLS, BEDS, SEED);
+        HeadlessSimulation simulation = new HeadlessSimulation(map, GameConstants.SIMULATION_STEP_RATE);
+
+        for (int i = 0; i < WARMUP_TICKS; i++) {
+            simulation.step(1);
+        }
+
+        for (int window = 1; window <= WINDOWS; window++) {
+            long before = allocations.getThreadAllocatedBytes(threadId);
+            simulation.step(WINDOW_TICKS);
+            long allocated = allocations.getThreadAllocatedBytes(threadId) - before;
+
+            System.out.printf("window %d: %d ticks allocated %d bytes (%.2f bytes/tick) with %d entities, %d particles%n",
+                              window, WINDOW_TICKS, allocated, allocated / (double) WINDOW_TICKS,
+                              map.getEntities().size(), map.getParticleSystem().getParticleCount());
+            assertEquals("Bytes allocated by steady-state window " + window, 0L, allocated);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.dominicmortlock.littelifesim.jfr;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Converts a Flight Recorder file into Chrome trace JSON, for chrome://tracing or ui.perfetto.dev.
+ * Ticks and phases become duration slices on the thread that ran them, state transitions and holding
+ * changes become instant markers, and garbage collections become slices on their own "GC" track,
+ * so slow ticks line up against the pauses and behaviour bursts around them.
+ */
+public class ChromeTraceExport {
+    private static final String USAGE = "Usage: ChromeTraceExport <recording.jfr> <trace.json>";
+    private static final int PID = 1;
+    private static final long GC_TID = 0L; // Java thread ids start at 1, so this track never collides
+
+    private final Writer out;
+    private final Set<Long> namedThreads = new HashSet<>();
+    private boolean first = true;
+    private int written;
+
+    private ChromeTraceExport(Writer out) {
+        this.out = out;
+    }
+
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+        try {
+            int events = export(Paths.get(args[0]), Paths.get(args[1]));
+            System.out.printf("Wrote %d trace events to %s%n", events, args[1]);
+        } catch (IOException e) {
+            System.err.println("Could not convert " + args[0] + ": " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Convert a recording, returning the number of trace events written
+     */
+    public static int export(Path recording, Path trace) throws IOException {
+        try (RecordingFile file = new RecordingFile(recording);
+             Writer writer = Files.newBufferedWriter(trace, StandardCharsets.UTF_8)) {
+            ChromeTraceExport export = new ChromeTraceExport(writer);
+            writer.write("{\"displayTimeUnit\":\"ms\",\"traceEvents\":[\n");
+            export.threadName(GC_TID, "GC");
+            while (file.hasMoreEvents()) {
+                export.convert(file.readEvent());
+            }
+            writer.write("\n]}\n");
+            return export.written;
+        }
+    }
+
+    private void convert(RecordedEvent event) throws IOException {
+        switch (event.getEventType().getName()) {
+            case "littlelifesim.Tick":
+                slice(event, "tick", "simulation", threadOf(event));
+                out.write(",\"args\":{\"tick\":" + event.getLong("tick") +
+                          ",\"activeEntities\":" + event.getInt("activeEntities") + "}}");
+                break;
+            case "littlelifesim.Phase": {
+                String phase = event.getString("phase");
+                slice(event, phase, phase.startsWith("RENDER") ? "render" : "simulation", threadOf(event));
+                out.write(",\"args\":{\"tick\":" + event.getLong("tick") + "}}");
+                break;
+            }
+            case "littlelifesim.StateTransition":
+                instant(event, event.getString("from") + " -> " + event.getString("to"), "behaviour");
+                out.write(",\"args\":{\"entity\":" + event.getInt("entity") +
+                          ",\"x\":" + event.getFloat("x") + ",\"y\":" + event.getFloat("y") + "}}");
+                break;
+            case "littlelifesim.Holding":
+                instant(event, event.getBoolean("started") ? "start holding" : "stop holding", "behaviour");
+                out.write(",\"args\":{\"holder\":\"" + escape(event.getString("holderType")) + " " +
+                          event.getInt("holder") + "\",\"holdable\":\"" + escape(event.getString("holdableType")) +
+                          " " + event.getInt("holdable") + "\"}}");
+                break;
+            case "jdk.GarbageCollection":
+                slice(event, "GC " + event.getString("name"), "gc", GC_TID);
+                out.write(",\"args\":{\"cause\":\"" + escape(event.getString("cause")) +
+                          "\",\"longestPauseMs\":" + event.getDuration("longestPause").toNanos() / 1e6 + "}}");
+                break;
+            default:
+                // Everything else in the recording stays in JMC's domain
+        }
+    }
+
+    private void slice(RecordedEvent event, String name, String category, long tid) throws IOException {
+        begin(name, category, "X", tid);
+        out.write(",\"ts\":" + micros(event.getStartTime()) + ",\"dur\":" + event.getDuration().toNanos() / 1e3);
+    }
+
+    private void instant(RecordedEvent event, String name, String category) throws IOException {
+        begin(name, category, "i", threadOf(event));
+        out.write(",\"s\":\"t\",\"ts\":" + micros(event.getStartTime()));
+    }
+
+    private void begin(String name, String category, String phase, long tid) throws IOException {
+        separator();
+        out.write("{\"name\":\"" + escape(name) + "\",\"cat\":\"" + category + "\",\"ph\":\"" + phase +
+                  "\",\"pid\":" + PID + ",\"tid\":" + tid);
+        written++;
+    }
+
+    private long threadOf(RecordedEvent event) throws IOException {
+        RecordedThread thread = event.getThread();
+        if (thread == null) return GC_TID;
+        long tid = thread.getJavaThreadId();
+        if (namedThreads.add(tid)) {
+            threadName(tid, thread.getJavaName());
+        }
+        return tid;
+    }
+
+    private void threadName(long tid, String name) throws IOException {
+        separator();
+        out.write("{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":" + PID + ",\"tid\":" + tid +
+                  ",\"args\":{\"name\":\"" + escape(name) + "\"}}");
+    }
+
+    private void separator() throws IOException {
+        if (!first) {
+            out.write(",\n");
+        }
+        first = false;
+    }
+
+    private static String micros(Instant instant) {
+        // Whole microseconds since the epoch, with the sub-microsecond part as a fraction
+        return instant.getEpochSecond() * 1000000L + instant.getNano() / 1000 + "." + (instant.getNano() % 1000) / 100;
+    }
+
+    private static String escape(String value) {
+        if (value == null) return "";
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                escaped.append('\\').append(c);
+            } else if (c < 0x20) {
+                escaped.append(String.format("\\u%04x", (int) c));
+            } else {
+                escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+}
@@ -0,0 +1,30 @@
+package com.dominicmortlock.littelifesim.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("littlelifesim.Holding")
+@Label("Holding Change")
+@Description("HoldingSystem.startHolding or stopHolding")
+@Category({"LittleLifeSim", "Behaviour"})
+@StackTrace(false)
+class HoldingEvent extends jdk.jfr.Event {
+    @Label("Started")
+    @Description("True when the holder picked the holdable up, false when it let go")
+    boolean started;
+
+    @Label("Holder Type")
+    String holderType;
+
+    @Label("Holder")
+    int holder;
+
+    @Label("Holdable Type")
+    String holdableType;
+
+    @Label("Holdable")
+    int holdable;
+}
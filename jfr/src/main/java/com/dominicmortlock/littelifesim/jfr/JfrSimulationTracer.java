@@ -0,0 +1,96 @@
+package com.dominicmortlock.littelifesim.jfr;
+
+import com.dominicmortlock.littelifesim.Holdable;
+import com.dominicmortlock.littelifesim.Holder;
+import com.dominicmortlock.littelifesim.LittleGuy;
+import com.dominicmortlock.littelifesim.SimulationTracer;
+import com.dominicmortlock.littelifesim.State;
+import jdk.jfr.EventType;
+
+/**
+ * Reports a map's ticks, phases and behaviour changes as Flight Recorder events.
+ * Installed through ServiceLoader; the events only reach disk while a recording is running, e.g. with
+ * {@code -XX:StartFlightRecording=filename=run.jfr}. Tick and phase events are only begun and committed
+ * on the thread driving the map; transitions and holding changes may be committed from update workers.
+ * Each event type is checked before an event is allocated, so without a recording the tracer creates no garbage.
+ */
+public class JfrSimulationTracer implements SimulationTracer {
+    private static final Phase[] PHASES = Phase.values();
+    private static final EventType TICK = EventType.getEventType(TickEvent.class);
+    private static final EventType PHASE = EventType.getEventType(PhaseEvent.class);
+    private static final EventType STATE_TRANSITION = EventType.getEventType(StateTransitionEvent.class);
+    private static final EventType HOLDING = EventType.getEventType(HoldingEvent.class);
+
+    private TickEvent tickEvent;
+    private final PhaseEvent[] phaseEvents = new PhaseEvent[PHASES.length];
+    private long tick;
+
+    @Override
+    public void beginTick(long tick) {
+        this.tick = tick;
+        if (!TICK.isEnabled()) return;
+        tickEvent = new TickEvent();
+        tickEvent.begin();
+    }
+
+    @Override
+    public void endTick(long tick, int activeEntities) {
+        TickEvent event = tickEvent;
+        if (event == null) return;
+        tickEvent = null;
+        event.tick = tick;
+        event.activeEntities = activeEntities;
+        event.commit();
+    }
+
+    @Override
+    public void beginPhase(Phase phase) {
+        if (!PHASE.isEnabled()) return;
+        PhaseEvent event = new PhaseEvent();
+        event.begin();
+        phaseEvents[phase.ordinal()] = event;
+    }
+
+    @Override
+    public void endPhase(Phase phase) {
+        PhaseEvent event = phaseEvents[phase.ordinal()];
+        if (event == null) return;
+        phaseEvents[phase.ordinal()] = null;
+        event.phase = phase.name();
+        event.tick = tick;
+        event.commit();
+    }
+
+    @Override
+    public void stateChanged(LittleGuy littleGuy, State from, State to) {
+        if (!STATE_TRANSITION.isEnabled()) return;
+        StateTransitionEvent event = new StateTransitionEvent();
+        event.entity = System.identityHashCode(littleGuy);
+        event.from = from.name();
+        event.to = to.name();
+        event.x = littleGuy.getX();
+        event.y = littleGuy.getY();
+        event.commit();
+    }
+
+    @Override
+    public void holdingStarted(Holder holder, Holdable holdable) {
+        holdingChanged(true, holder, holdable);
+    }
+
+    @Override
+    public void holdingStopped(Holder holder, Holdable holdable) {
+        holdingChanged(false, holder, holdable);
+    }
+
+    private static void holdingChanged(boolean started, Holder holder, Holdable holdable) {
+        if (!HOLDING.isEnabled()) return;
+        HoldingEvent event = new HoldingEvent();
+        event.started = started;
+        event.holderType = holder.getClass().getSimpleName();
+        event.holder = System.identityHashCode(holder);
+        event.holdableType = holdable != null ? holdable.getClass().getSimpleName() : null;
+        event.holdable = System.identityHashCode(holdable);
+        event.commit();
+    }
+}
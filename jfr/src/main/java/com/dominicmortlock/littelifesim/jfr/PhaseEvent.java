@@ -0,0 +1,21 @@
+package com.dominicmortlock.littelifesim.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("littlelifesim.Phase")
+@Label("Simulation Phase")
+@Description("One section of a simulation step or of rendering a frame")
+@Category({"LittleLifeSim", "Simulation"})
+@StackTrace(false)
+class PhaseEvent extends jdk.jfr.Event {
+    @Label("Phase")
+    String phase;
+
+    @Label("Tick")
+    @Description("The step this phase belongs to, or the last step for render phases")
+    long tick;
+}
@@ -0,0 +1,29 @@
+package com.dominicmortlock.littelifesim.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("littlelifesim.StateTransition")
+@Label("Little Guy State Transition")
+@Category({"LittleLifeSim", "Behaviour"})
+@StackTrace(false)
+class StateTransitionEvent extends jdk.jfr.Event {
+    @Label("Entity")
+    @Description("Identity hash of the little guy, stable for the run")
+    int entity;
+
+    @Label("From")
+    String from;
+
+    @Label("To")
+    String to;
+
+    @Label("X")
+    float x;
+
+    @Label("Y")
+    float y;
+}
@@ -0,0 +1,20 @@
+package com.dominicmortlock.littelifesim.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("littlelifesim.Tick")
+@Label("Simulation Tick")
+@Description("One fixed simulation step of Map.updateAll")
+@Category({"LittleLifeSim", "Simulation"})
+@StackTrace(false)
+class TickEvent extends jdk.jfr.Event {
+    @Label("Tick")
+    long tick;
+
+    @Label("Active Entities")
+    int activeEntities;
+}
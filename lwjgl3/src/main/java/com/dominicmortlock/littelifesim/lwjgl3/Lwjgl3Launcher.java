@@ -3,16 +3,28 @@ package com.dominicmortlock.littelifesim.lwjgl3;
 import com.badlogic.gdx.backends.lwjgl3.Lwjgl3Application;
 import com.badlogic.gdx.backends.lwjgl3.Lwjgl3ApplicationConfiguration;
 import com.dominicmortlock.littelifesim.Main;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 /** Launches the desktop (LWJGL3) application. */
 public class Lwjgl3Launcher {
     public static void main(String[] args) {
         if (StartupHelper.startNewJvmIfRequired()) return; // This handles macOS support and helps on Windows.
-        createApplication();
+        createApplication(recordPath(args));
     }
 
-    private static Lwjgl3Application createApplication() {
-        return new Lwjgl3Application(new Main(), getDefaultConfiguration());
+    /** {@code --record <file>} logs the session's seed and input so it can be replayed headless. */
+    private static Path recordPath(String[] args) {
+        for (int i = 0; i + 1 < args.length; i++) {
+            if (args[i].equals("--record")) {
+                return Paths.get(args[i + 1]);
+            }
+        }
+        return null;
+    }
+
+    private static Lwjgl3Application createApplication(Path recordPath) {
+        return new Lwjgl3Application(new Main(recordPath), getDefaultConfiguration());
     }
 
     private static Lwjgl3ApplicationConfiguration getDefaultConfiguration() {